@@ -0,0 +1,129 @@
+package com.example.auditor.utils;
+
+import com.example.auditor.config.FilterConfiguration;
+import com.example.auditor.config.JsonFilterConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение сопоставления путей с паттернами из filter-config.json:
+ * исходный matchFile (PathMatcher на каждый паттерн и файл), заранее созданные PathMatcher
+ * и {@link GlobSet}. Запуск: {@code ./gradlew jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GlobSetBenchmark {
+
+    private static final String[] DIRECTORIES = {
+            "", "src/main/java/com/example/", "src/test/java/", "frontend/src/components/", "docs/",
+            "node_modules/lodash/", "build/classes/", "scripts/", "config/", "app/src/main/res/values/"
+    };
+    private static final String[] FILE_NAMES = {
+            "Main.java", "README.md", "pom.xml", "build.gradle.kts", "index.ts", "styles.css", "app.log",
+            "package-lock.json", "Dockerfile", "image.png", "notes.txt", "strings.xml", "requirements.txt"
+    };
+
+    private List<String> excludePatterns;
+    private List<String> includePatterns;
+    private List<PathMatcher> excludeMatchers;
+    private List<PathMatcher> includeMatchers;
+    private GlobSet excludeGlobs;
+    private GlobSet includeGlobs;
+    private List<String> paths;
+
+    @Setup
+    public void setUp() throws IOException {
+        FilterConfiguration config = JsonFilterConfiguration.loadFromJsonResource("/filter-config.json");
+        excludePatterns = config.getExcludePatterns();
+        includePatterns = config.getIncludePatterns();
+        excludeMatchers = toMatchers(excludePatterns);
+        includeMatchers = toMatchers(includePatterns);
+        excludeGlobs = GlobSet.compile(excludePatterns);
+        includeGlobs = GlobSet.compile(includePatterns);
+
+        paths = new ArrayList<>();
+        for (String directory : DIRECTORIES) {
+            for (String fileName : FILE_NAMES) {
+                paths.add(directory + fileName);
+            }
+        }
+    }
+
+    @Benchmark
+    public int legacyMatchFile() {
+        int matched = 0;
+        for (String path : paths) {
+            if (!legacyMatchFile(path, excludePatterns) && legacyMatchFile(path, includePatterns)) {
+                matched++;
+            }
+        }
+        return matched;
+    }
+
+    @Benchmark
+    public int precompiledPathMatchers() {
+        int matched = 0;
+        for (String path : paths) {
+            Path file = Paths.get(path);
+            if (!anyMatches(excludeMatchers, file) && anyMatches(includeMatchers, file)) {
+                matched++;
+            }
+        }
+        return matched;
+    }
+
+    @Benchmark
+    public int globSet() {
+        int matched = 0;
+        for (String path : paths) {
+            if (!excludeGlobs.matches(path) && includeGlobs.matches(path)) {
+                matched++;
+            }
+        }
+        return matched;
+    }
+
+    // Реализация PathMatcherUtil.matchFile до появления GlobSet
+    private static boolean legacyMatchFile(String filePath, List<String> patterns) {
+        Path path = Paths.get("").resolve(filePath.replace('\\', '/')).normalize();
+        for (String pattern : patterns) {
+            PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern.replace('\\', '/'));
+            if (matcher.matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<PathMatcher> toMatchers(List<String> patterns) {
+        List<PathMatcher> matchers = new ArrayList<>();
+        for (String pattern : patterns) {
+            matchers.add(FileSystems.getDefault().getPathMatcher("glob:" + pattern.replace('\\', '/')));
+        }
+        return matchers;
+    }
+
+    private static boolean anyMatches(List<PathMatcher> matchers, Path path) {
+        for (PathMatcher matcher : matchers) {
+            if (matcher.matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
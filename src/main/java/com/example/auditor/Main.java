@@ -1,15 +1,26 @@
 package com.example.auditor;
 
 import com.example.auditor.config.ApplicationConfig;
+import com.example.auditor.config.BatchConfiguration;
 import com.example.auditor.core.ProjectAnalyzer;
 import com.example.auditor.core.ReportGenerator;
 import com.example.auditor.model.AnalysisConfig;
 import com.example.auditor.model.AnalysisResult;
+import com.example.auditor.model.BatchProjectResult;
+import com.example.auditor.model.FileInfo;
+import com.example.auditor.reporting.BatchSummaryGenerator;
+import com.example.auditor.reporting.BinaryMetadataGenerator;
 import com.example.auditor.utils.ConsoleColors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Главный класс приложения ProjectAuditor.
@@ -20,12 +31,32 @@ public class Main {
     private static final Logger LOGGER = LoggerFactory.getLogger(Main.class);
 
     public static void main(String[] args) {
+        boolean watchMode = Arrays.asList(args).contains("--watch"); // Режим наблюдения: отчёты обновляются при изменении файлов
         System.out.println(ConsoleColors.CYAN + "🚀 Запуск Project Auditor v1.0... " + ConsoleColors.RESET); // Это UI-вывод в консоль, можно оставить
 
         try {
             // 1. Создаем конфигурацию (Dependency Injection Container)
             ApplicationConfig config = new ApplicationConfig();
 
+            int batchIndex = Arrays.asList(args).indexOf("--batch");
+            if (batchIndex >= 0) {
+                // Пакетный режим: список проектов и настройки из файла, без вопросов пользователю
+                if (batchIndex + 1 >= args.length) {
+                    System.out.println(ConsoleColors.RED + "Укажите файл пакета: --batch <batch.json>" + ConsoleColors.RESET);
+                    return;
+                }
+                runBatch(config, Paths.get(args[batchIndex + 1]));
+                return;
+            }
+
+            // Отчёты по сохранённым бинарным метаданным, без повторного сканирования
+            int metadataIndex = Arrays.asList(args).indexOf("--from-metadata");
+            if (metadataIndex >= 0 && metadataIndex + 1 >= args.length) {
+                System.out.println(ConsoleColors.RED + "Укажите файл метаданных: --from-metadata <report.meta.bin>" + ConsoleColors.RESET);
+                return;
+            }
+            Path metadataFile = metadataIndex >= 0 ? Paths.get(args[metadataIndex + 1]) : null;
+
             // 2. Получаем зависимости из конфигурации
             ProjectAnalyzer analyzer = config.getProjectAnalyzer(); // Внедрение зависимости
             ReportGenerator generator = config.getReportGenerator(); // Внедрение зависимости
@@ -34,19 +65,59 @@ public class Main {
             System.out.println("Получение настроек анализа... ");
             AnalysisConfig userConfig = config.getUserConfig(); // Внедрение зависимости UI и вызов метода
 
-            // 4. Выполняем анализ
-            System.out.println("\nНачало анализа проекта... ");
-            AnalysisResult result = analyzer.analyze(userConfig);
-
-            // 5. Генерируем отчеты
-            System.out.println("\nГенерация отчетов... ");
             Path outputDir = userConfig.getProjectPath().getParent().resolve("auditor_output"); // Папка рядом с проектом
-            generator.generate(result, userConfig, outputDir);
+            if (metadataFile != null) {
+                // 4-5. Результат анализа загружается из метаданных, отчеты строятся заново
+                System.out.println("\nЗагрузка метаданных " + metadataFile + "... ");
+                AnalysisResult result = BinaryMetadataGenerator.load(metadataFile, userConfig.getProjectPath());
+                generator.generate(result, userConfig, outputDir);
+            } else if (watchMode) {
+                // 4-5. Полный анализ, затем точечные обновления отчетов до остановки (Ctrl+C)
+                System.out.println("\nАнализ проекта и запуск наблюдения... ");
+                config.getProjectWatcher().watch(userConfig, outputDir);
+                return;
+            } else if (userConfig.isStreamingOutput()) {
+                // 4-5. Анализ и генерация отчетов в одном проходе: файлы пишутся по мере прохождения фильтра
+                System.out.println("\nПотоковый анализ и генерация отчетов... ");
+                try (Stream<FileInfo> files = analyzer.analyzeStream(userConfig)) {
+                    generator.generateStreaming(files, userConfig, outputDir, (collected, statistics) -> analyzer.summarize(collected, statistics, userConfig));
+                }
+            } else {
+                // 4. Выполняем анализ
+                System.out.println("\nНачало анализа проекта... ");
+                AnalysisResult result = analyzer.analyze(userConfig);
+
+                // 5. Генерируем отчеты
+                System.out.println("\nГенерация отчетов... ");
+                generator.generate(result, userConfig, outputDir);
+                analyzer.recordContentKinds(result.getFileInfoList(), userConfig);
+            }
 
             System.out.println(ConsoleColors.GREEN + "\n🎉 АНАЛИЗ ЗАВЕРШЕН УСПЕШНО! " + ConsoleColors.RESET); // UI-вывод
 
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.info("Анализ прерван");
         } catch (Exception e) {
             LOGGER.error("Произошла ошибка: {}", e.getMessage(), e); // Логируем ошибку с трейсом
         }
     }
-}
\ No newline at end of file
+
+    // Аудит всех проектов пакета на общем пуле потоков и сводный отчёт
+    private static void runBatch(ApplicationConfig config, Path batchFile) throws IOException, InterruptedException {
+        BatchConfiguration batchConfig = BatchConfiguration.load(batchFile);
+        System.out.println("Пакетный аудит: " + batchConfig.getProjects().size() + " проектов, потоков: " + batchConfig.getThreads());
+
+        List<AnalysisConfig> configs = new ArrayList<>();
+        for (Path projectPath : batchConfig.getProjects()) {
+            configs.add(batchConfig.toAnalysisConfig(projectPath));
+        }
+        List<BatchProjectResult> results = config.getBatchAuditor(batchConfig.getThreads()).run(configs, batchConfig.getOutputDir());
+        new BatchSummaryGenerator().generate(results, batchConfig.getOutputDir());
+
+        long failed = results.stream().filter(result -> !result.isSuccessful()).count();
+        System.out.println((failed == 0 ? ConsoleColors.GREEN : ConsoleColors.YELLOW)
+                + "\n🎉 ПАКЕТНЫЙ АУДИТ ЗАВЕРШЕН: успешно " + (results.size() - failed) + ", с ошибками " + failed + ConsoleColors.RESET);
+        System.out.println(" • Сводка: " + batchConfig.getOutputDir().resolve(BatchSummaryGenerator.MARKDOWN_FILE));
+    }
+}
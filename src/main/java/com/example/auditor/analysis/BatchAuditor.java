@@ -0,0 +1,176 @@
+package com.example.auditor.analysis;
+
+import com.example.auditor.core.ProjectAnalyzer;
+import com.example.auditor.core.ReportGenerator;
+import com.example.auditor.model.AnalysisConfig;
+import com.example.auditor.model.AnalysisResult;
+import com.example.auditor.model.BatchProjectResult;
+import com.example.auditor.model.FileInfo;
+import com.example.auditor.utils.ConsoleColors;
+import com.example.auditor.utils.ProgressBar;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Пакетный аудит нескольких проектов в одной JVM.
+ * <p>
+ * Проекты анализируются параллельно на общем пуле потоков фиксированного размера. Конфигурация
+ * фильтров (с уже скомпилированными glob-паттернами), настройки сканера и таблицы типов файлов
+ * загружаются один раз и разделяются всеми запусками; на каждый проект создаётся только лёгкий
+ * анализатор (у фильтра есть состояние проекта - правила .gitignore).
+ * <p>
+ * Отчёты каждого проекта пишутся в отдельную поддиректорию {@code outputDir/<имя проекта>}
+ * (при совпадении имён добавляется суффикс). Прогресс-бары на время пакета отключаются:
+ * вместо них выводится по строке на завершённый проект.
+ */
+public class BatchAuditor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchAuditor.class);
+
+    private final Supplier<ProjectAnalyzer> analyzerFactory;
+    private final ReportGenerator generator;
+    private final int threads;
+
+    /**
+     * @param analyzerFactory Создаёт анализатор для одного проекта (вызывается из потоков пула).
+     * @param generator       Генератор отчётов, общий для всех проектов (должен быть потокобезопасным).
+     * @param threads         Число проектов, анализируемых одновременно.
+     */
+    public BatchAuditor(Supplier<ProjectAnalyzer> analyzerFactory, ReportGenerator generator, int threads) {
+        this.analyzerFactory = analyzerFactory;
+        this.generator = generator;
+        this.threads = threads;
+    }
+
+    /**
+     * Выполняет аудит всех проектов.
+     *
+     * @param configs   Конфигурации анализа проектов пакета.
+     * @param outputDir Общая директория вывода.
+     * @return Итоги по проектам в порядке конфигураций.
+     * @throws InterruptedException Если ожидание прервано (незавершённые проекты отменяются).
+     */
+    public List<BatchProjectResult> run(List<AnalysisConfig> configs, Path outputDir) throws InterruptedException {
+        Set<String> usedNames = new HashSet<>();
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger threadCounter = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, configs.size())), runnable -> {
+            Thread thread = new Thread(runnable, "auditor-batch-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        boolean progressEnabled = ProgressBar.isEnabled();
+        ProgressBar.setEnabled(false); // Прогресс-бары параллельных проектов перемешались бы в консоли
+        List<Future<BatchProjectResult>> futures = new ArrayList<>();
+        try {
+            for (AnalysisConfig config : configs) {
+                // Имена директорий назначаются до запуска, чтобы не зависеть от порядка завершения
+                Path projectOutputDir = outputDir.resolve(uniqueName(projectName(config.getProjectPath()), usedNames));
+                futures.add(executor.submit(() -> {
+                    BatchProjectResult result = audit(config, projectOutputDir);
+                    printProgress(result, completed.incrementAndGet(), configs.size());
+                    return result;
+                }));
+            }
+
+            List<BatchProjectResult> results = new ArrayList<>(futures.size());
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    results.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    // audit() перехватывает ошибки анализа, сюда попадают только Error
+                    AnalysisConfig config = configs.get(i);
+                    results.add(new BatchProjectResult(config.getProjectPath(), null, projectName(config.getProjectPath()),
+                            null, 0, 0, 0, String.valueOf(e.getCause())));
+                }
+            }
+            return results;
+        } finally {
+            executor.shutdownNow(); // При прерывании отменяет ещё не начатые проекты
+            ProgressBar.setEnabled(progressEnabled);
+        }
+    }
+
+    // Аудит одного проекта; ошибка не прерывает пакет, а попадает в итог
+    private BatchProjectResult audit(AnalysisConfig config, Path projectOutputDir) {
+        Path projectPath = config.getProjectPath();
+        String projectName = projectName(projectPath);
+        long start = System.currentTimeMillis();
+        if (!Files.isDirectory(projectPath)) {
+            // Сканер лишь залогировал бы недоступный корень и вернул пустой отчёт
+            return new BatchProjectResult(projectPath, null, projectName, null, 0, 0, 0, "Директория проекта не найдена");
+        }
+        try {
+            ProjectAnalyzer analyzer = analyzerFactory.get();
+            AnalysisResult result;
+            if (config.isStreamingOutput()) {
+                AtomicReference<AnalysisResult> summary = new AtomicReference<>();
+                try (Stream<FileInfo> files = analyzer.analyzeStream(config)) {
+                    generator.generateStreaming(files, config, projectOutputDir, (collected, statistics) -> {
+                        summary.set(analyzer.summarize(collected, statistics, config));
+                        return summary.get();
+                    });
+                }
+                result = summary.get();
+            } else {
+                result = analyzer.analyze(config);
+                generator.generate(result, config, projectOutputDir);
+                analyzer.recordContentKinds(result.getFileInfoList(), config);
+            }
+            long duration = System.currentTimeMillis() - start;
+            if (result == null) {
+                return new BatchProjectResult(projectPath, projectOutputDir, projectName, null, 0, 0, duration,
+                        "Отчет не сформирован");
+            }
+            return new BatchProjectResult(projectPath, projectOutputDir, projectName, result.getProjectType(),
+                    result.getTotalFiles(), result.getTotalSizeKB(), duration, null);
+        } catch (RuntimeException e) {
+            LOGGER.error("Ошибка аудита проекта {}: {}", projectPath, e.getMessage(), e);
+            String message = e.getCause() != null ? e.getCause().toString() : e.toString();
+            return new BatchProjectResult(projectPath, projectOutputDir, projectName, null, 0, 0,
+                    System.currentTimeMillis() - start, message);
+        }
+    }
+
+    private static void printProgress(BatchProjectResult result, int completed, int total) {
+        String prefix = "[" + completed + "/" + total + "] " + result.getProjectName();
+        if (result.isSuccessful()) {
+            System.out.printf("%s✓ %s: %d файлов, %d KB за %.2f сек%s%n", ConsoleColors.GREEN, prefix,
+                    result.getTotalFiles(), result.getTotalSizeKB(), result.getDurationMillis() / 1000.0, ConsoleColors.RESET);
+        } else {
+            System.out.println(ConsoleColors.RED + "✗ " + prefix + ": " + result.getError() + ConsoleColors.RESET);
+        }
+    }
+
+    private static String projectName(Path projectPath) {
+        Path fileName = projectPath.getFileName();
+        return fileName != null ? fileName.toString() : "root";
+    }
+
+    // Одинаковые имена проектов из разных директорий получают суффиксы -2, -3, ...
+    // (сравнение без учёта регистра - для нечувствительных к регистру файловых систем)
+    private static String uniqueName(String name, Set<String> usedNames) {
+        String candidate = name;
+        for (int suffix = 2; !usedNames.add(candidate.toLowerCase(Locale.ROOT)); suffix++) {
+            candidate = name + "-" + suffix;
+        }
+        return candidate;
+    }
+}
@@ -7,13 +7,13 @@ import com.example.auditor.core.FileFilter;
 import com.example.auditor.model.AnalysisConfig;
 import com.example.auditor.model.AnalysisResult;
 import com.example.auditor.model.FileInfo;
+import com.example.auditor.model.ProjectStatistics;
 
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -41,43 +41,59 @@ public class DefaultProjectAnalyzer implements ProjectAnalyzer {
         LOGGER.info("Сканирование проекта: {}", projectPath);
         List<FileInfo> allFiles = null;
         try {
-            allFiles = scanner.scan(projectPath);
+            allFiles = scanner.scan(projectPath, fileFilter.directoryPruner(projectPath, config));
         } catch (IOException e) {
             LOGGER.error("Ошибка при сканировании проекта: {}", e.getMessage(), e); // Логируем ошибку
             throw new RuntimeException(e);
         }
 
-        // 2. Фильтруем файлы
+        // 2. Фильтруем файлы; статистика набирается по мере прохождения фильтра
         LOGGER.info("Фильтрация файлов...");
-        List<FileInfo> filteredFiles = fileFilter.filter(allFiles, projectPath, config);
+        ProjectStatistics statistics = new ProjectStatistics();
+        List<FileInfo> filteredFiles = fileFilter.filter(allFiles, projectPath, config, statistics::add);
 
-        // 3. Определяем тип проекта и собираем метаданные
-        String projectName = projectPath.getFileName().toString();
-        String projectType = determineProjectType(filteredFiles, projectPath); // Передаем projectPath
-        long totalSizeKB = filteredFiles.stream().mapToLong(FileInfo::getLength).sum() / 1024;
-        int totalFiles = filteredFiles.size();
+        // 3. Определяем тип проекта
+        AnalysisResult result = summarize(filteredFiles, statistics, config);
 
-        LOGGER.info("Анализ завершен. Найдено {} файлов.", totalFiles);
+        LOGGER.info("Анализ завершен. Найдено {} файлов.", result.getTotalFiles());
 
         // 4. Возвращаем результат
-        return new AnalysisResult(filteredFiles, projectName, projectType, totalSizeKB, totalFiles);
+        return result;
+    }
+
+    @Override
+    public Stream<FileInfo> analyzeStream(AnalysisConfig config) {
+        Path projectPath = config.getProjectPath();
+
+        // Сканирование и фильтрация выполняются лениво, по мере чтения потока
+        LOGGER.info("Потоковое сканирование проекта: {}", projectPath);
+        try {
+            Stream<FileInfo> allFiles = scanner.scanStream(projectPath, fileFilter.directoryPruner(projectPath, config));
+            return fileFilter.filterStream(allFiles, projectPath, config);
+        } catch (IOException e) {
+            LOGGER.error("Ошибка при сканировании проекта: {}", e.getMessage(), e); // Логируем ошибку
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public AnalysisResult summarize(List<FileInfo> files, ProjectStatistics statistics, AnalysisConfig config) {
+        Path projectPath = config.getProjectPath();
+        String projectName = projectPath.getFileName().toString();
+        // Тип проекта - по именам файлов и расширениям из уже собранной статистики
+        String projectType = determineProjectType(statistics);
+        return new AnalysisResult(files, projectName, projectType, statistics);
+    }
+
+    @Override
+    public void recordContentKinds(List<FileInfo> files, AnalysisConfig config) {
+        scanner.recordContentKinds(config.getProjectPath(), files);
     }
 
     // --- Вспомогательный метод для определения типа проекта ---
-    private String determineProjectType(List<FileInfo> files, Path projectPath) {
-        // Проверяем наличие характерных файлов в корне проекта
-        Set<String> rootFileNames = files.stream()
-                .map(file -> file.getRelativePath()) // Получаем относительный путь
-                .map(path -> {
-                    // Получаем имя файла из пути
-                    int lastSlashIndex = path.lastIndexOf('/');
-                    if (lastSlashIndex == -1) { // Файл в корне
-                        return path.toLowerCase();
-                    } else {
-                        return path.substring(lastSlashIndex + 1).toLowerCase();
-                    }
-                })
-                .collect(Collectors.toSet());
+    private String determineProjectType(ProjectStatistics statistics) {
+        // Проверяем наличие характерных файлов (имена сравниваются в нижнем регистре)
+        Set<String> rootFileNames = statistics.getFileNames();
 
         // Проверяем корневые файлы
         if (rootFileNames.contains("pom.xml")) return "Java (Maven)";
@@ -92,21 +108,18 @@ public class DefaultProjectAnalyzer implements ProjectAnalyzer {
         // ... добавьте другие характерные файлы ...
 
         // Если характерных файлов нет, анализируем расширения
-        Map<String, Long> extensionCount = files.stream()
-                .collect(Collectors.groupingBy(FileInfo::getExtension, Collectors.counting()));
-
         // Примеры определения типа на основе файлов
-        if (extensionCount.containsKey("java") && (extensionCount.containsKey("xml") || extensionCount.containsKey("gradle") || extensionCount.containsKey("pom"))) {
+        if (statistics.hasExtension("java") && (statistics.hasExtension("xml") || statistics.hasExtension("gradle") || statistics.hasExtension("pom"))) {
             return "Java";
-        } else if (extensionCount.containsKey("py") && extensionCount.containsKey("py")) {
+        } else if (statistics.hasExtension("py") && statistics.hasExtension("py")) {
             return "Python";
-        } else if (extensionCount.containsKey("js") && extensionCount.containsKey("json")) {
+        } else if (statistics.hasExtension("js") && statistics.hasExtension("json")) {
             return "JavaScript/Node.js";
-        } else if (extensionCount.containsKey("go") && extensionCount.containsKey("go")) {
+        } else if (statistics.hasExtension("go") && statistics.hasExtension("go")) {
             return "Go";
-        } else if (extensionCount.containsKey("cs") && extensionCount.containsKey("csproj")) {
+        } else if (statistics.hasExtension("cs") && statistics.hasExtension("csproj")) {
             return ".NET";
-        } else if (extensionCount.containsKey("rs") && extensionCount.containsKey("toml")) {
+        } else if (statistics.hasExtension("rs") && statistics.hasExtension("toml")) {
             return "Rust";
         }
         // ... другие типы на основе расширений ...
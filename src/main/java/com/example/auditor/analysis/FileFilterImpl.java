@@ -5,8 +5,9 @@ import com.example.auditor.config.FilterConfiguration;
 import com.example.auditor.core.FileFilter;
 import com.example.auditor.model.AnalysisConfig;
 import com.example.auditor.model.FileInfo;
-import com.example.auditor.utils.GitIgnoreParser;
-import com.example.auditor.utils.PathMatcherUtil; // Предполагаем, что у вас есть этот утилитный класс
+import com.example.auditor.model.FileTable;
+import com.example.auditor.utils.GitIgnoreMatcher;
+import com.example.auditor.utils.GlobSet;
 import com.example.auditor.utils.ProgressBar;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,6 +15,9 @@ import org.slf4j.LoggerFactory;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 /**
  * Реализация FileFilter, применяющая фильтры к списку файлов.
@@ -23,7 +27,7 @@ import java.util.List;
  * 1. Файл исключается, если его размер превышает maxFileSizeKB (если maxFileSizeKB > 0).
  * 2. Файл исключается, если его расширение находится в списке ненужных расширений (из FilterConfiguration).
  * 3. Файл исключается, если он соответствует хотя бы одному паттерну из excludePatterns (из FilterConfiguration).
- * 4. Файл исключается, если он соответствует хотя бы одному паттерну из .gitignore (если используется).
+ * 4. Файл исключается, если он игнорируется правилами git (.gitignore на всех уровнях и .git/info/exclude), если используется.
  * 5. Все остальные файлы включаются. Файлы, соответствующие includePatterns (из FilterConfiguration), считаются приоритетными.
  */
 public class FileFilterImpl implements FileFilter {
@@ -31,75 +35,148 @@ public class FileFilterImpl implements FileFilter {
     private static final Logger LOGGER = LoggerFactory.getLogger(FileFilterImpl.class);
 
     private final FilterConfiguration filterConfig;
+    private final GlobSet includeGlobs;
+    private final GlobSet excludeGlobs;
+    private volatile GitIgnoreMatcher gitIgnoreMatcher; // Правила последнего проекта: общие для сканера и фильтра
 
     public FileFilterImpl(FilterConfiguration filterConfig) {
         this.filterConfig = filterConfig;
+        // Паттерны компилируются один раз, а не на каждый файл
+        this.includeGlobs = filterConfig.getIncludeGlobs();
+        this.excludeGlobs = filterConfig.getExcludeGlobs();
     }
 
     @Override
     public List<FileInfo> filter(List<FileInfo> files, Path projectPath, AnalysisConfig config) {
-        List<String> includePatterns = filterConfig.getIncludePatterns(); // Получаем из конфигурации
-        List<String> excludePatterns = filterConfig.getExcludePatterns(); // Получаем из конфигурации
-
-        List<String> gitIgnorePatterns = new ArrayList<>();
-        if (config.shouldUseGitIgnore()) {
-            gitIgnorePatterns = new GitIgnoreParser().parseGitIgnore(projectPath.toString());
-        }
+        return filter(files, projectPath, config, file -> {
+        });
+    }
 
-        long maxFileSizeBytes = config.getMaxFileSizeKB() > 0 ? config.getMaxFileSizeKB() * 1024L : -1; // -1 означает нет лимита
+    @Override
+    public List<FileInfo> filter(List<FileInfo> files, Path projectPath, AnalysisConfig config, Consumer<? super FileInfo> accepted) {
+        FilterContext context = createContext(projectPath, config);
 
-        List<FileInfo> filteredFiles = new ArrayList<>();
+        List<FileInfo> filteredFiles = new FileTable(); // Отобранные файлы живут до конца генерации отчётов
         ProgressBar progressBar = new ProgressBar("Фильтрация файлов", files.size());
         int processed = 0;
 
         for (FileInfo file : files) {
             progressBar.update(processed++);
+            if (accept(file, context)) {
+                filteredFiles.add(file);
+                accepted.accept(file);
+            }
+        }
 
-            // --- ОТЛАДКА ---
-            LOGGER.debug("Processing file: {} (Extension: {}, Size: {} bytes, Type: {})", file.getRelativePath(), file.getExtension(), file.getLength(), file.getType());
+        progressBar.finish();
+        LOGGER.debug("Filtered {} files out of {} total.", filteredFiles.size(), files.size());
+        return filteredFiles;
+    }
 
-            // 1. Проверка размера файла (если установлен лимит)
-            if (maxFileSizeBytes > 0 && file.getLength() > maxFileSizeBytes) {
-                LOGGER.debug("Excluded by size: {}", file.getRelativePath());
-                continue; // Файл слишком большой, исключаем
-            }
+    @Override
+    public Stream<FileInfo> filterStream(Stream<FileInfo> files, Path projectPath, AnalysisConfig config) {
+        // Паттерны и .gitignore готовятся один раз, дальше каждый файл проверяется по мере поступления
+        FilterContext context = createContext(projectPath, config);
+        return files.filter(file -> accept(file, context));
+    }
 
-            // 2. Быстрая проверка расширения файла (до сложных паттернов)
-            String extension = getExtension(file.getName()).toLowerCase(); // Приводим к нижнему регистру для сравнения
-            LOGGER.debug("Checking extension '{}' for file '{}'", extension, file.getRelativePath());
-            LOGGER.debug("Blacklisted extensions: {}", filterConfig.getBlacklistedExtensions());
-            if (filterConfig.getBlacklistedExtensions().contains(extension)) {
-                LOGGER.debug("Excluded by blacklisted extension: {} (Extension: {})", file.getRelativePath(), extension);
-                continue; // Расширение в чёрном списке, исключаем
-            }
+    /**
+     * Отсекает директории, для которых любой вложенный файл совпадёт с exclude-паттерном
+     * вида {@code X/**} или которые игнорируются git. Для glob {@code X/**} путь {@code D/...}
+     * совпадает, если {@code X} совпадает с {@code D} или с одним из его предков, а предки
+     * проверяются сканером раньше. Поэтому достаточно проверить префикс {@code X}
+     * на самой директории. Содержимое игнорируемой git директории не может быть возвращено
+     * отрицанием, поэтому она отсекается целиком.
+     */
+    @Override
+    public Predicate<String> directoryPruner(Path projectPath, AnalysisConfig config) {
+        // Паттерны компилируются один раз на запуск, а не на каждую директорию
+        GlobSet directoryGlobs = GlobSet.compile(toDirectoryPatterns(filterConfig.getExcludePatterns()));
+        LOGGER.debug("Directory pruning patterns: {}", directoryGlobs.getPatterns());
+        if (!config.shouldUseGitIgnore()) {
+            return directoryGlobs::matches;
+        }
+        GitIgnoreMatcher gitIgnore = loadGitIgnore(projectPath);
+        return relativeDir -> directoryGlobs.matches(relativeDir) || gitIgnore.isIgnored(relativeDir, true);
+    }
 
-            // 3. Проверка exclude паттернов (жёсткое исключение, теперь после проверки расширения)
-            LOGGER.debug("Checking exclude patterns for file '{}'", file.getRelativePath());
-            LOGGER.debug("Exclude patterns: {}", excludePatterns);
-            boolean excludeMatch = PathMatcherUtil.matchFile(file.getRelativePath(), excludePatterns);
-            if (excludeMatch) {
-                LOGGER.debug("Excluded by exclude pattern: {}", file.getRelativePath());
-                continue; // Соответствует exclude паттерну - исключаем
+    // Из паттернов вида "X/**" получает паттерны директорий "X"
+    private static List<String> toDirectoryPatterns(List<String> patterns) {
+        List<String> directoryPatterns = new ArrayList<>();
+        for (String pattern : patterns) {
+            String normalizedPattern = pattern.replace('\\', '/');
+            if (normalizedPattern.endsWith("/**") && normalizedPattern.length() > 3) {
+                directoryPatterns.add(normalizedPattern.substring(0, normalizedPattern.length() - 3));
             }
-            // Блок 'else' с проверкой .git удален.
+        }
+        return directoryPatterns;
+    }
 
-            // 4. Проверка .gitignore (жёсткое исключение)
-            if (PathMatcherUtil.matchFile(file.getRelativePath(), gitIgnorePatterns)) {
-                LOGGER.debug("Excluded by .gitignore pattern: {}", file.getRelativePath());
-                continue; // Соответствует .gitignore паттерну - исключаем
-            }
+    // Готовит данные, общие для всех файлов одного запуска фильтрации
+    private FilterContext createContext(Path projectPath, AnalysisConfig config) {
+        GitIgnoreMatcher gitIgnore = config.shouldUseGitIgnore() ? gitIgnoreFor(projectPath) : null;
+        long maxFileSizeBytes = config.getMaxFileSizeKB() > 0 ? config.getMaxFileSizeKB() * 1024L : -1; // -1 означает нет лимита
+        return new FilterContext(gitIgnore, maxFileSizeBytes);
+    }
 
-            // 5. Если файл прошёл все проверки на исключение, добавляем его
-            //    и отмечаем как приоритетный, если он соответствует include паттернам.
-            boolean isPriority = PathMatcherUtil.matchFile(file.getRelativePath(), includePatterns);
-            file.setPriority(isPriority); // Используем сеттер для установки приоритета
-            LOGGER.debug("INCLUDED: {} (Priority: {})", file.getRelativePath(), isPriority);
-            filteredFiles.add(file);
+    // Правила загружаются заново на каждый запуск сканирования (файлы .gitignore могли измениться)
+    private GitIgnoreMatcher loadGitIgnore(Path projectPath) {
+        GitIgnoreMatcher matcher = new GitIgnoreMatcher(projectPath);
+        gitIgnoreMatcher = matcher;
+        return matcher;
+    }
+
+    // Фильтр использует правила, уже загруженные для отсечения директорий при сканировании этого проекта
+    private GitIgnoreMatcher gitIgnoreFor(Path projectPath) {
+        GitIgnoreMatcher matcher = gitIgnoreMatcher;
+        if (matcher != null && matcher.getProjectPath().equals(projectPath)) {
+            return matcher;
         }
+        return loadGitIgnore(projectPath);
+    }
 
-        progressBar.finish();
-        LOGGER.debug("Filtered {} files out of {} total.", filteredFiles.size(), files.size());
-        return filteredFiles;
+    // Проверяет один файл; при включении отмечает его приоритет
+    private boolean accept(FileInfo file, FilterContext context) {
+        String relativePath = file.getRelativePath(); // У файлов из FileTable путь собирается при каждом обращении
+        // --- ОТЛАДКА ---
+        LOGGER.debug("Processing file: {} (Extension: {}, Size: {} bytes, Type: {})", relativePath, file.getExtension(), file.getLength(), file.getType());
+
+        // 1. Проверка размера файла (если установлен лимит)
+        if (context.maxFileSizeBytes > 0 && file.getLength() > context.maxFileSizeBytes) {
+            LOGGER.debug("Excluded by size: {}", relativePath);
+            return false; // Файл слишком большой, исключаем
+        }
+
+        // 2. Быстрая проверка расширения файла (до сложных паттернов)
+        String extension = getExtension(file.getName()).toLowerCase(); // Приводим к нижнему регистру для сравнения
+        LOGGER.debug("Checking extension '{}' for file '{}'", extension, relativePath);
+        LOGGER.debug("Blacklisted extensions: {}", filterConfig.getBlacklistedExtensions());
+        if (filterConfig.getBlacklistedExtensions().contains(extension)) {
+            LOGGER.debug("Excluded by blacklisted extension: {} (Extension: {})", relativePath, extension);
+            return false; // Расширение в чёрном списке, исключаем
+        }
+
+        // 3. Проверка exclude паттернов (жёсткое исключение, теперь после проверки расширения)
+        LOGGER.debug("Checking exclude patterns for file '{}'", relativePath);
+        String excludeMatch = excludeGlobs.match(relativePath);
+        if (excludeMatch != null) {
+            LOGGER.debug("Excluded by exclude pattern: {} (Pattern: {})", relativePath, excludeMatch);
+            return false; // Соответствует exclude паттерну - исключаем
+        }
+        // Блок 'else' с проверкой .git удален.
+
+        // 4. Проверка .gitignore (жёсткое исключение)
+        if (context.gitIgnore != null && context.gitIgnore.isIgnored(relativePath, false)) {
+            LOGGER.debug("Excluded by .gitignore pattern: {}", relativePath);
+            return false; // Соответствует .gitignore паттерну - исключаем
+        }
+
+        // 5. Если файл прошёл все проверки на исключение, добавляем его
+        //    и отмечаем как приоритетный, если он соответствует include паттернам.
+        boolean isPriority = includeGlobs.matches(relativePath);
+        file.setPriority(isPriority); // Используем сеттер для установки приоритета
+        LOGGER.debug("INCLUDED: {} (Priority: {})", relativePath, isPriority);
+        return true;
     }
 
     // --- Вспомогательные методы для получения паттернов и расширения ---
@@ -118,4 +195,15 @@ public class FileFilterImpl implements FileFilter {
         }
         return "";
     }
-}
\ No newline at end of file
+
+    // Данные одного запуска фильтрации
+    private static final class FilterContext {
+        private final GitIgnoreMatcher gitIgnore; // null, если .gitignore не используется
+        private final long maxFileSizeBytes;
+
+        private FilterContext(GitIgnoreMatcher gitIgnore, long maxFileSizeBytes) {
+            this.gitIgnore = gitIgnore;
+            this.maxFileSizeBytes = maxFileSizeBytes;
+        }
+    }
+}
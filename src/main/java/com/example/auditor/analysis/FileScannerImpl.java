@@ -1,36 +1,39 @@
 // src/main/java/com/example/auditor/analysis/FileScannerImpl.java
 package com.example.auditor.analysis;
 
+import com.example.auditor.config.ScannerConfiguration;
 import com.example.auditor.core.ProjectScanner;
 import com.example.auditor.model.FileInfo;
+import com.example.auditor.model.FileTable;
 import com.example.auditor.utils.ProgressBar;
 import com.example.auditor.utils.FileTypeClassifier;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class FileScannerImpl implements ProjectScanner {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(FileScannerImpl.class);
 
-    // Статическое поле для хранения игнорируемых директорий
-    private static volatile Set<String> ignoredDirectories = null;
-    private static final Object lock = new Object(); // Объект для синхронизации
-
     @Override
     public List<FileInfo> scan(Path projectPath) throws IOException {
-        List<FileInfo> files = new ArrayList<>();
+        return scan(projectPath, relativeDir -> false);
+    }
+
+    @Override
+    public List<FileInfo> scan(Path projectPath, Predicate<String> skipDirectory) throws IOException {
+        List<FileInfo> files = new FileTable(); // Созданные FileInfo сразу раскладываются по столбцам
 
         // Прогресс-бар инициализируется, но обновляется только при фактическом добавлении файлов
         ProgressBar progressBar = new ProgressBar("Сканирование файлов", 100); // Временно 100 или 0, т.к. точное кол-во неизвестно
@@ -51,6 +54,12 @@ public class FileScannerImpl implements ProjectScanner {
                     return FileVisitResult.SKIP_SUBTREE; // Пропускаем всю поддиректорию
                 }
 
+                // Поддеревья, все файлы которых отсеет фильтр (exclude-паттерны, .gitignore), не обходим
+                if (isPruned(projectPath, dir, skipDirectory)) {
+                    LOGGER.debug("Пропуск подкаталога по правилам фильтрации: {}", dir);
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+
                 // Обрабатываем директорию (например, для прогресс-бара, если нужно)
                 // progressBar.update(processed.incrementAndGet()); // Не обновляем прогресс для директорий
                 return FileVisitResult.CONTINUE;
@@ -60,19 +69,7 @@ public class FileScannerImpl implements ProjectScanner {
             public FileVisitResult visitFile(Path filePath, BasicFileAttributes attrs) throws IOException {
                 if (Files.isRegularFile(filePath)) {
                     try {
-                        // --- ОТЛАДКА ---
-                        String relativePath = projectPath.relativize(filePath).toString().replace('\\', '/');
-                        LOGGER.debug("Scanning file - Full: {}, Relative: {}", filePath, relativePath);
-
-                        FileInfo fileInfo = new FileInfo(
-                                filePath,
-                                filePath.getFileName().toString(),
-                                relativePath,
-                                attrs.size(),
-                                getFileExtension(filePath.getFileName().toString()),
-                                FileTypeClassifier.classify(filePath.getFileName().toString()) // Используем классификатор
-                        );
-                        files.add(fileInfo);
+                        files.add(createFileInfo(projectPath, filePath, attrs));
                     } catch (Exception e) { // Ловим Exception, включая IOException от FileTypeClassifier
                         LOGGER.error("Ошибка при обработке файла {}: {}", filePath, e.getMessage(), e); // Логируем ошибку с трейсом
                         // Продолжаем сканирование остальных файлов
@@ -104,56 +101,52 @@ public class FileScannerImpl implements ProjectScanner {
         return files;
     }
 
-    // Приватный метод для получения инициализированного списка (с одиночной загрузкой)
-    private static Set<String> getIgnoredDirectories() {
-        if (ignoredDirectories == null) {
-            synchronized (lock) {
-                if (ignoredDirectories == null) {
-                    ignoredDirectories = loadIgnoredDirectoriesFromResource("/scanner-config.json");
-                }
-            }
-        }
-        return ignoredDirectories;
+    @Override
+    public Stream<FileInfo> scanStream(Path projectPath) throws IOException {
+        return scanStream(projectPath, relativeDir -> false);
     }
 
-    // Приватный метод для загрузки списка из JSON-ресурса
-    private static Set<String> loadIgnoredDirectoriesFromResource(String resourcePath) {
-        ObjectMapper mapper = new ObjectMapper();
-        try (InputStream resourceStream = FileScannerImpl.class.getResourceAsStream(resourcePath)) {
-            if (resourceStream == null) {
-                throw new IOException("Не найден ресурс: " + resourcePath);
-            }
-            JsonNode rootNode = mapper.readTree(resourceStream);
-            JsonNode ignoredDirsNode = rootNode.get("ignoredDirectories");
-
-            if (ignoredDirsNode == null || !ignoredDirsNode.isArray()) {
-                LOGGER.error("Неверный формат JSON в ресурсе {}: отсутствует массив 'ignoredDirectories'", resourcePath);
-                return Collections.emptySet(); // Возвращаем пустой сет в случае ошибки
-            }
-
-            // --- ИСПРАВЛЕНИЕ: Используем цикл for-each ---
-            java.util.Set<String> set = new java.util.HashSet<>();
-            for (JsonNode node : ignoredDirsNode) {
-                // Убедимся, что элемент массива - строка
-                if (node != null && node.isValueNode()) {
-                    set.add(node.asText());
-                } else {
-                    LOGGER.warn("Найден нестроковый элемент в массиве 'ignoredDirectories': {}. Пропущен.", node);
-                }
-            }
-            // --- /ИСПРАВЛЕНИЕ ---
+    @Override
+    public Stream<FileInfo> scanStream(Path projectPath, Predicate<String> skipDirectory) throws IOException {
+        // Ленивый обход: файлы отдаются по мере чтения директорий, без промежуточного списка
+        FileTreeIterator iterator = new FileTreeIterator(projectPath, skipDirectory);
+        return StreamSupport.stream(
+                        Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(iterator::close);
+    }
 
-            LOGGER.debug("Загружено {} игнорируемых директорий из {}", set.size(), resourcePath);
-            return set;
+    // Список игнорируемых директорий берётся из общей конфигурации сканера (загружается при первом обращении)
+    static Set<String> getIgnoredDirectories() {
+        return ScannerConfiguration.getDefault().getIgnoredDirectories();
+    }
 
-        } catch (IOException e) {
-            LOGGER.error("Ошибка при загрузке игнорируемых директорий из {}: {}", resourcePath, e.getMessage(), e);
-            return Collections.emptySet(); // Возвращаем пустой сет в случае ошибки
+    // Проверка директории (кроме корня проекта) предикатом отсечения
+    static boolean isPruned(Path projectPath, Path dir, Predicate<String> skipDirectory) {
+        if (dir.equals(projectPath)) {
+            return false;
         }
+        String relativeDir = projectPath.relativize(dir).toString().replace('\\', '/');
+        return skipDirectory.test(relativeDir);
     }
 
+    // Создание FileInfo для обычного файла (общий код для всех реализаций сканера)
+    static FileInfo createFileInfo(Path projectPath, Path filePath, BasicFileAttributes attrs) {
+        // --- ОТЛАДКА ---
+        String relativePath = projectPath.relativize(filePath).toString().replace('\\', '/');
+        LOGGER.debug("Scanning file - Full: {}, Relative: {}", filePath, relativePath);
+
+        String fileName = filePath.getFileName().toString();
+        return new FileInfo(
+                filePath,
+                fileName,
+                relativePath,
+                attrs.size(),
+                getFileExtension(fileName),
+                FileTypeClassifier.classify(fileName) // Используем классификатор
+        );
+    }
 
-    private String getFileExtension(String fileName) {
+    static String getFileExtension(String fileName) {
         int lastDotIndex = fileName.lastIndexOf('.');
         if (lastDotIndex > 0 && lastDotIndex < fileName.length() - 1) {
             return fileName.substring(lastDotIndex + 1); // Без точки
@@ -0,0 +1,138 @@
+package com.example.auditor.analysis;
+
+import com.example.auditor.model.FileInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+/**
+ * Ленивый обход дерева проекта в глубину.
+ * <p>
+ * Отдаёт FileInfo по одному, в том же порядке и с теми же правилами пропуска
+ * (включая отсечение поддеревьев предикатом), что и Files.walkFileTree в {@link FileScannerImpl}.
+ * Открытые DirectoryStream хранятся в стеке и закрываются по мере выхода из директорий
+ * или в {@link #close()}.
+ */
+final class FileTreeIterator implements Iterator<FileInfo>, Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FileTreeIterator.class);
+
+    private final Path projectPath;
+    private final Predicate<String> skipDirectory;
+    private final Deque<DirectoryStream<Path>> openStreams = new ArrayDeque<>();
+    private final Deque<Iterator<Path>> iterators = new ArrayDeque<>();
+    private FileInfo next;
+
+    FileTreeIterator(Path projectPath, Predicate<String> skipDirectory) {
+        this.projectPath = projectPath;
+        this.skipDirectory = skipDirectory;
+        this.next = visit(projectPath);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (next == null && !iterators.isEmpty()) {
+            Iterator<Path> current = iterators.peek();
+            boolean hasEntry;
+            try {
+                hasEntry = current.hasNext();
+            } catch (RuntimeException e) { // DirectoryIteratorException
+                LOGGER.warn("Ошибка чтения каталога: {}", e.getMessage());
+                hasEntry = false;
+            }
+            if (!hasEntry) {
+                leaveDirectory();
+                continue;
+            }
+            next = visit(current.next());
+        }
+        return next != null;
+    }
+
+    @Override
+    public FileInfo next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        FileInfo result = next;
+        next = null;
+        return result;
+    }
+
+    @Override
+    public void close() {
+        while (!openStreams.isEmpty()) {
+            leaveDirectory();
+        }
+    }
+
+    // Обрабатывает элемент дерева: файл возвращается сразу, директория открывается и кладётся в стек
+    private FileInfo visit(Path path) {
+        BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch (IOException e) {
+            LOGGER.warn("Ошибка доступа к файлу/каталогу: {} ({})", path, e.getMessage());
+            return null;
+        }
+
+        if (!attrs.isDirectory()) {
+            if (!Files.isRegularFile(path)) {
+                return null; // Символические ссылки на не-файлы, FIFO и т.д. не учитываются
+            }
+            try {
+                return FileScannerImpl.createFileInfo(projectPath, path, attrs);
+            } catch (Exception e) {
+                LOGGER.error("Ошибка при обработке файла {}: {}", path, e.getMessage(), e);
+                return null;
+            }
+        }
+
+        DirectoryStream<Path> stream;
+        try {
+            stream = Files.newDirectoryStream(path);
+        } catch (IOException e) {
+            LOGGER.warn("Ошибка доступа к файлу/каталогу: {} ({})", path, e.getMessage());
+            return null;
+        }
+        Path dirName = path.getFileName();
+        if (dirName != null && FileScannerImpl.getIgnoredDirectories().contains(dirName.toString())) {
+            LOGGER.debug("Пропуск подкаталога: {}", path);
+            closeQuietly(stream);
+            return null;
+        }
+        if (FileScannerImpl.isPruned(projectPath, path, skipDirectory)) {
+            LOGGER.debug("Пропуск подкаталога по правилам фильтрации: {}", path);
+            closeQuietly(stream);
+            return null;
+        }
+        openStreams.push(stream);
+        iterators.push(stream.iterator());
+        return null;
+    }
+
+    private void leaveDirectory() {
+        iterators.pop();
+        closeQuietly(openStreams.pop());
+    }
+
+    private static void closeQuietly(DirectoryStream<Path> stream) {
+        try {
+            stream.close();
+        } catch (IOException e) {
+            LOGGER.debug("Не удалось закрыть DirectoryStream: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package com.example.auditor.analysis;
+
+import com.example.auditor.core.ProjectScanner;
+import com.example.auditor.model.FileInfo;
+import com.example.auditor.model.FileTable;
+import com.example.auditor.utils.FileTypeClassifier;
+import com.example.auditor.utils.ProgressBar;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Реализация ProjectScanner, берущая список файлов из индекса git ({@code .git/index}) вместо обхода ФС.
+ * <p>
+ * Индекс читается через отображение в память одним последовательным проходом. В результат попадают
+ * только отслеживаемые обычные файлы и символические ссылки (как записи стадии 0): подмодули и записи
+ * skip-worktree пропускаются. Как и при обходе ФС, каждый путь проверяется в рабочем дереве (с переходом
+ * по ссылке): удалённые файлы и ссылки не на обычный файл (например, на директорию) пропускаются,
+ * размер берётся у файла, а не из индекса (у ссылки там длина пути цели). Файлы идут в порядке индекса (по пути).
+ * <p>
+ * Если проект не является репозиторием или индекс в неподдерживаемом виде (split index, sparse index),
+ * используется обычный обход {@link FileScannerImpl}.
+ */
+public class GitIndexScanner implements ProjectScanner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GitIndexScanner.class);
+
+    private static final int SIGNATURE = 0x44495243; // "DIRC"
+    private static final int PROGRESS_STEP = 1024;
+
+    // Тип объекта в поле mode
+    private static final int MODE_TYPE_MASK = 0170000;
+    private static final int MODE_REGULAR = 0100000;
+    private static final int MODE_SYMLINK = 0120000;
+    private static final int MODE_DIRECTORY = 0040000; // Только в sparse index
+
+    // Флаги записи
+    private static final int FLAG_EXTENDED = 0x4000;
+    private static final int FLAG_STAGE_MASK = 0x3000;
+    private static final int NAME_LENGTH_MASK = 0x0FFF;
+    private static final int EXTENDED_SKIP_WORKTREE = 0x4000;
+
+    private final ProjectScanner fallback;
+
+    public GitIndexScanner() {
+        this(new FileScannerImpl());
+    }
+
+    public GitIndexScanner(ProjectScanner fallback) {
+        this.fallback = fallback;
+    }
+
+    @Override
+    public List<FileInfo> scan(Path projectPath) throws IOException {
+        return scan(projectPath, relativeDir -> false);
+    }
+
+    @Override
+    public List<FileInfo> scan(Path projectPath, Predicate<String> skipDirectory) throws IOException {
+        Path gitDir = findGitDir(projectPath);
+        Path indexFile = gitDir != null ? gitDir.resolve("index") : null;
+        if (indexFile == null || !Files.isRegularFile(indexFile)) {
+            LOGGER.info("Индекс git не найден в {}, выполняется обход файловой системы", projectPath);
+            return fallback.scan(projectPath, skipDirectory);
+        }
+        try {
+            return readIndex(projectPath, indexFile, hashLength(gitDir), skipDirectory);
+        } catch (UnsupportedIndexException e) {
+            LOGGER.info("Индекс git {} не поддерживается ({}), выполняется обход файловой системы", indexFile, e.getMessage());
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Не удалось прочитать индекс git {}: {}. Выполняется обход файловой системы", indexFile, e.getMessage());
+        }
+        return fallback.scan(projectPath, skipDirectory);
+    }
+
+    @Override
+    public Stream<FileInfo> scanStream(Path projectPath, Predicate<String> skipDirectory) throws IOException {
+        return scan(projectPath, skipDirectory).stream();
+    }
+
+    private List<FileInfo> readIndex(Path projectPath, Path indexFile, int hashLength, Predicate<String> skipDirectory) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()); // Отображение живёт и после закрытия канала
+        }
+        if (buffer.remaining() < 12 || buffer.getInt() != SIGNATURE) {
+            throw new IOException("нет сигнатуры DIRC");
+        }
+        int version = buffer.getInt();
+        if (version < 2 || version > 4) {
+            throw new UnsupportedIndexException("версия " + version);
+        }
+        int entryCount = buffer.getInt();
+
+        Set<String> ignoredDirs = FileScannerImpl.getIgnoredDirectories();
+        Map<String, Boolean> skippedDirs = new HashMap<>(); // Вердикт по директории: записи идут подряд, но дешевле кэшировать все
+        List<FileInfo> files = new FileTable();
+        ProgressBar progressBar = new ProgressBar("Чтение индекса git", Math.max(entryCount, 1));
+        byte[] previousPath = new byte[0];
+        String lastPath = null;
+
+        for (int i = 0; i < entryCount; i++) {
+            int entryStart = buffer.position();
+            buffer.position(entryStart + 24); // ctime, mtime, dev, ino
+            int mode = buffer.getInt();
+            buffer.position(buffer.position() + 12 + hashLength); // uid, gid, размер (берётся у файла), хэш
+            int flags = Short.toUnsignedInt(buffer.getShort());
+            int extendedFlags = 0;
+            if (version >= 3 && (flags & FLAG_EXTENDED) != 0) {
+                extendedFlags = Short.toUnsignedInt(buffer.getShort());
+            }
+
+            byte[] pathBytes;
+            if (version == 4) {
+                // Путь сжат относительно предыдущего: число отбрасываемых байт + остаток до NUL
+                int strip = readOffsetVarint(buffer);
+                byte[] suffix = readUntilNul(buffer);
+                int keep = previousPath.length - strip;
+                if (keep < 0) {
+                    throw new IOException("некорректное сжатие пути в записи " + i);
+                }
+                pathBytes = new byte[keep + suffix.length];
+                System.arraycopy(previousPath, 0, pathBytes, 0, keep);
+                System.arraycopy(suffix, 0, pathBytes, keep, suffix.length);
+            } else {
+                int nameLength = flags & NAME_LENGTH_MASK;
+                if (nameLength < NAME_LENGTH_MASK) {
+                    pathBytes = new byte[nameLength];
+                    buffer.get(pathBytes);
+                } else {
+                    pathBytes = readUntilNul(buffer); // Длинное имя: длина не помещается в 12 бит
+                    buffer.position(buffer.position() - 1);
+                }
+                // Запись дополняется NUL (от 1 до 8 байт) до кратной 8 длины
+                int entryLength = buffer.position() - entryStart;
+                buffer.position(entryStart + ((entryLength + 8) & ~7));
+            }
+            previousPath = pathBytes;
+
+            int modeType = mode & MODE_TYPE_MASK;
+            if (modeType == MODE_DIRECTORY) {
+                throw new UnsupportedIndexException("sparse index");
+            }
+            String relativePath = new String(pathBytes, StandardCharsets.UTF_8);
+            if ((flags & FLAG_STAGE_MASK) != 0 && relativePath.equals(lastPath)) {
+                continue; // Конфликт слияния: у пути несколько стадий подряд, берём первую
+            }
+            lastPath = relativePath;
+            if ((modeType != MODE_REGULAR && modeType != MODE_SYMLINK) || (extendedFlags & EXTENDED_SKIP_WORKTREE) != 0) {
+                continue; // Подмодули (gitlink) и файлы вне sparse checkout
+            }
+            if (isSkipped(relativePath, ignoredDirs, skipDirectory, skippedDirs)) {
+                continue;
+            }
+            Path path;
+            try {
+                path = projectPath.resolve(relativePath);
+            } catch (InvalidPathException e) {
+                // Имя не представимо в кодировке файловой системы JVM - обход ФС его тоже не отдал бы корректно
+                LOGGER.warn("Пропуск файла из индекса git: {} ({})", relativePath, e.getMessage());
+                continue;
+            }
+            BasicFileAttributes attrs = workingTreeAttributes(path);
+            if (attrs == null) {
+                LOGGER.debug("Пропуск записи индекса git без обычного файла в рабочем дереве: {}", relativePath);
+                continue;
+            }
+            files.add(createFileInfo(path, relativePath, attrs.size()));
+            if (files.size() % PROGRESS_STEP == 0) {
+                progressBar.update(i);
+            }
+        }
+
+        checkExtensions(buffer, hashLength);
+        progressBar.finish();
+        LOGGER.info("Из индекса git (версия {}) прочитано {} записей, включено {} файлов", version, entryCount, files.size());
+        return files;
+    }
+
+    // Расширения после записей: split index хранит часть записей в другом файле
+    private static void checkExtensions(ByteBuffer buffer, int hashLength) throws UnsupportedIndexException {
+        int end = buffer.limit() - hashLength;
+        while (buffer.position() + 8 <= end) {
+            byte[] signature = new byte[4];
+            buffer.get(signature);
+            int size = buffer.getInt();
+            String name = new String(signature, StandardCharsets.US_ASCII);
+            if (name.equals("link")) {
+                throw new UnsupportedIndexException("split index");
+            }
+            if (name.equals("sdir")) {
+                throw new UnsupportedIndexException("sparse index");
+            }
+            buffer.position(buffer.position() + size);
+        }
+    }
+
+    // Повторяет правила обхода: игнорируемые имена директорий и отсечение поддеревьев
+    private static boolean isSkipped(String relativePath, Set<String> ignoredDirs, Predicate<String> skipDirectory,
+                                     Map<String, Boolean> skippedDirs) {
+        int slash = relativePath.lastIndexOf('/');
+        if (slash < 0) {
+            return false;
+        }
+        String dir = relativePath.substring(0, slash);
+        Boolean cached = skippedDirs.get(dir);
+        if (cached != null) {
+            return cached;
+        }
+        String name = dir.substring(dir.lastIndexOf('/') + 1);
+        boolean skipped = isSkipped(dir, ignoredDirs, skipDirectory, skippedDirs)
+                || ignoredDirs.contains(name)
+                || skipDirectory.test(dir);
+        skippedDirs.put(dir, skipped);
+        return skipped;
+    }
+
+    // Атрибуты файла в рабочем дереве (по ссылке - цели); null, если файла нет или это не обычный файл
+    private static BasicFileAttributes workingTreeAttributes(Path path) {
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+            return attrs.isRegularFile() ? attrs : null;
+        } catch (IOException e) {
+            return null; // Удалён из рабочего дерева или битая ссылка
+        }
+    }
+
+    private static FileInfo createFileInfo(Path path, String relativePath, long size) {
+        String fileName = relativePath.substring(relativePath.lastIndexOf('/') + 1);
+        return new FileInfo(
+                path,
+                fileName,
+                relativePath,
+                size,
+                FileScannerImpl.getFileExtension(fileName),
+                FileTypeClassifier.classify(fileName)
+        );
+    }
+
+    // Директория git: ".git" или, для worktree и подмодулей, путь из файла ".git" ("gitdir: ...")
+    private static Path findGitDir(Path projectPath) {
+        Path dotGit = projectPath.resolve(".git");
+        if (Files.isDirectory(dotGit)) {
+            return dotGit;
+        }
+        if (Files.isRegularFile(dotGit)) {
+            try {
+                String content = Files.readString(dotGit, StandardCharsets.UTF_8).trim();
+                if (content.startsWith("gitdir:")) {
+                    return projectPath.resolve(content.substring("gitdir:".length()).trim()).normalize();
+                }
+            } catch (IOException e) {
+                LOGGER.warn("Не удалось прочитать {}: {}", dotGit, e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    // Длина хэша объектов: 20 байт (SHA-1) или 32 байта для репозиториев с objectFormat = sha256
+    private static int hashLength(Path gitDir) {
+        try {
+            for (String line : Files.readAllLines(commonDir(gitDir).resolve("config"), StandardCharsets.UTF_8)) {
+                String normalized = line.replace(" ", "").replace("\t", "").toLowerCase(Locale.ROOT);
+                if (normalized.equals("objectformat=sha256")) {
+                    return 32;
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Не удалось прочитать конфигурацию git: {}", e.getMessage());
+        }
+        return 20;
+    }
+
+    // Общая директория репозитория: у связанного worktree (.git/worktrees/<имя>) путь в файле "commondir",
+    // там же лежит config
+    private static Path commonDir(Path gitDir) {
+        Path commonDirFile = gitDir.resolve("commondir");
+        if (Files.isRegularFile(commonDirFile)) {
+            try {
+                return gitDir.resolve(Files.readString(commonDirFile, StandardCharsets.UTF_8).trim()).normalize();
+            } catch (IOException e) {
+                LOGGER.debug("Не удалось прочитать {}: {}", commonDirFile, e.getMessage());
+            }
+        }
+        return gitDir;
+    }
+
+    // Число переменной длины из индекса v4 (как смещения в pack-файлах)
+    private static int readOffsetVarint(ByteBuffer buffer) {
+        int b = Byte.toUnsignedInt(buffer.get());
+        int value = b & 0x7F;
+        while ((b & 0x80) != 0) {
+            b = Byte.toUnsignedInt(buffer.get());
+            value = ((value + 1) << 7) | (b & 0x7F);
+        }
+        return value;
+    }
+
+    private static byte[] readUntilNul(ByteBuffer buffer) {
+        int start = buffer.position();
+        int end = start;
+        while (buffer.get(end) != 0) {
+            end++;
+        }
+        byte[] bytes = new byte[end - start];
+        buffer.get(bytes);
+        buffer.get(); // NUL
+        return bytes;
+    }
+
+    /**
+     * Индекс корректен, но его формат не поддерживается (нужен обход ФС).
+     */
+    private static final class UnsupportedIndexException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        UnsupportedIndexException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package com.example.auditor.analysis;
+
+import com.example.auditor.core.ProjectScanner;
+import com.example.auditor.model.ContentKind;
+import com.example.auditor.model.FileInfo;
+import com.example.auditor.utils.FileTypeClassifier;
+import com.example.auditor.utils.ProgressBar;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Реализация ProjectScanner, повторно использующая результаты предыдущего сканирования.
+ * <p>
+ * После каждого обхода рядом с отчётами ({@code auditor_output}) сохраняется {@link ScanSnapshot}.
+ * При следующем запуске директория, чьё время изменения не поменялось, не перечитывается:
+ * её содержимое берётся из снимка (mtime директории меняется при создании, удалении
+ * и переименовании элементов). Поддиректории при этом проверяются так же, по своему mtime.
+ * <p>
+ * Изменение содержимого файла на месте не меняет mtime директории, поэтому в режиме
+ * {@code verifyFiles} каждый файл из снимка проверяется по размеру, mtime и ключу файла.
+ * Без проверки файлы берутся из снимка как есть: это самый быстрый вариант, но размер
+ * изменённого на месте файла обновится только после изменения его директории.
+ * <p>
+ * Вид содержимого файла (текст, UTF-16, бинарный) при обходе не определяется - это стоило бы
+ * лишнего открытия каждого файла, включая отсеянные фильтром. Его определяет чтение файла
+ * для отчёта, а {@link #recordContentKinds} записывает результат в снимок: при следующем
+ * запуске бинарные файлы из снимка не открываются вовсе.
+ * <p>
+ * Порядок файлов совпадает с {@link FileScannerImpl}, т.к. снимок хранит элементы
+ * в порядке DirectoryStream.
+ */
+public class IncrementalFileScanner implements ProjectScanner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IncrementalFileScanner.class);
+
+    // Прогресс-бар обновляется пачками: вывод в консоль на каждый файл дороже самого повторного обхода
+    private static final int PROGRESS_STEP = 1024;
+
+    private final boolean verifyFiles;
+    // Снимки последних обходов по файлу снимка: ждут видов содержимого из отчёта
+    private final Map<Path, ScanSnapshot> pendingSnapshots = new ConcurrentHashMap<>();
+
+    public IncrementalFileScanner(boolean verifyFiles) {
+        this.verifyFiles = verifyFiles;
+    }
+
+    /**
+     * Возвращает файл снимка для проекта: {@code <родитель проекта>/auditor_output/.<имя проекта>.scan-snapshot}.
+     *
+     * @param projectPath Корень проекта.
+     * @return Путь к файлу снимка.
+     */
+    public static Path snapshotFileFor(Path projectPath) {
+        Path absolutePath = projectPath.toAbsolutePath().normalize();
+        Path parent = absolutePath.getParent() != null ? absolutePath.getParent() : absolutePath;
+        Path fileName = absolutePath.getFileName();
+        return parent.resolve("auditor_output").resolve("." + (fileName != null ? fileName : "root") + ".scan-snapshot");
+    }
+
+    @Override
+    public List<FileInfo> scan(Path projectPath) throws IOException {
+        return scan(projectPath, relativeDir -> false);
+    }
+
+    @Override
+    public List<FileInfo> scan(Path projectPath, Predicate<String> skipDirectory) throws IOException {
+        Path snapshotFile = snapshotFileFor(projectPath);
+        ScanSnapshot previous = ScanSnapshot.load(snapshotFile, projectPath);
+        ScanSnapshot current = new ScanSnapshot(projectPath, System.currentTimeMillis());
+
+        Walk walk = new Walk(projectPath, skipDirectory, previous, current);
+        walk.visit(projectPath, "");
+        walk.progressBar.finish();
+
+        LOGGER.info("Инкрементальное сканирование: {} директорий из снимка, {} перечитано",
+                walk.reusedDirectories, current.size() - walk.reusedDirectories);
+        current.save(snapshotFile);
+        pendingSnapshots.put(snapshotFile, current);
+        return walk.files;
+    }
+
+    @Override
+    public void recordContentKinds(Path projectPath, List<FileInfo> files) {
+        Path snapshotFile = snapshotFileFor(projectPath);
+        ScanSnapshot snapshot = pendingSnapshots.remove(snapshotFile);
+        if (snapshot == null) {
+            return;
+        }
+        int updated = snapshot.updateContentKinds(files);
+        if (updated > 0) {
+            LOGGER.debug("В снимок записаны виды содержимого {} файлов", updated);
+            snapshot.save(snapshotFile);
+        }
+    }
+
+    @Override
+    public Stream<FileInfo> scanStream(Path projectPath, Predicate<String> skipDirectory) throws IOException {
+        // Снимок сохраняется по завершении обхода, поэтому список строится целиком
+        return scan(projectPath, skipDirectory).stream();
+    }
+
+    /**
+     * Состояние одного обхода. Повторяет последовательность событий Files.walkFileTree
+     * без FOLLOW_LINKS (как {@link FileTreeIterator}), записывая просмотренные директории в новый снимок.
+     */
+    private final class Walk {
+
+        private final Path projectPath;
+        private final Predicate<String> skipDirectory;
+        private final ScanSnapshot previous;
+        private final ScanSnapshot current;
+        private final List<FileInfo> files = new ArrayList<>();
+        private final ProgressBar progressBar = new ProgressBar("Сканирование файлов", 100); // Точное количество файлов заранее неизвестно
+        private int reusedDirectories;
+
+        Walk(Path projectPath, Predicate<String> skipDirectory, ScanSnapshot previous, ScanSnapshot current) {
+            this.projectPath = projectPath;
+            this.skipDirectory = skipDirectory;
+            this.previous = previous;
+            this.current = current;
+        }
+
+        // Обрабатывает элемент дерева без снимка; возвращает запись для списка родительской директории
+        ScanSnapshot.Entry visit(Path path, String relativePath) {
+            String name = path.getFileName() != null ? path.getFileName().toString() : "";
+            BasicFileAttributes attrs;
+            try {
+                attrs = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+            } catch (IOException e) {
+                LOGGER.warn("Ошибка доступа к файлу/каталогу: {} ({})", path, e.getMessage());
+                return new ScanSnapshot.Entry(ScanSnapshot.OTHER, name, 0, 0, null, ContentKind.UNKNOWN);
+            }
+            if (attrs.isDirectory()) {
+                visitDirectory(path, relativePath, attrs);
+                return new ScanSnapshot.Entry(ScanSnapshot.DIRECTORY, name, 0, 0, null, ContentKind.UNKNOWN);
+            }
+            if (attrs.isRegularFile()) {
+                addFile(path, attrs);
+                return new ScanSnapshot.Entry(ScanSnapshot.FILE, name, attrs.size(), attrs.lastModifiedTime().toMillis(),
+                        fileKey(attrs), ContentKind.UNKNOWN);
+            }
+            // Символическая ссылка на файл учитывается, как в FileScannerImpl; запись перепроверяется каждый раз
+            if (Files.isRegularFile(path)) {
+                addFile(path, attrs);
+            }
+            return new ScanSnapshot.Entry(ScanSnapshot.OTHER, name, 0, 0, null, ContentKind.UNKNOWN);
+        }
+
+        private void visitDirectory(Path dir, String relativeDir, BasicFileAttributes attrs) {
+            long mtimeMillis = attrs.lastModifiedTime().toMillis();
+            ScanSnapshot.DirectoryRecord cached = previous.getUnchanged(relativeDir, mtimeMillis);
+
+            // Как и в walkFileTree, директория открывается до проверки на игнорирование
+            DirectoryStream<Path> stream = null;
+            if (cached == null) {
+                try {
+                    stream = Files.newDirectoryStream(dir);
+                } catch (IOException e) {
+                    LOGGER.warn("Ошибка доступа к файлу/каталогу: {} ({})", dir, e.getMessage());
+                    return;
+                }
+            }
+            try {
+                Path dirName = dir.getFileName();
+                if (dirName != null && FileScannerImpl.getIgnoredDirectories().contains(dirName.toString())) {
+                    LOGGER.debug("Пропуск подкаталога: {}", dir);
+                    return;
+                }
+                if (FileScannerImpl.isPruned(projectPath, dir, skipDirectory)) {
+                    LOGGER.debug("Пропуск подкаталога по правилам фильтрации: {}", dir);
+                    return;
+                }
+
+                List<ScanSnapshot.Entry> entries = new ArrayList<>();
+                if (cached != null) {
+                    reusedDirectories++;
+                    for (ScanSnapshot.Entry entry : cached.entries) {
+                        entries.add(replay(dir.resolve(entry.name), child(relativeDir, entry.name), entry));
+                    }
+                } else {
+                    for (Path entry : stream) {
+                        String name = entry.getFileName().toString();
+                        entries.add(visit(entry, child(relativeDir, name)));
+                    }
+                }
+                current.put(relativeDir, new ScanSnapshot.DirectoryRecord(mtimeMillis, Collections.unmodifiableList(entries)));
+            } catch (RuntimeException e) {
+                // DirectoryIteratorException: неполный список в снимок не попадает
+                LOGGER.warn("Ошибка доступа к файлу/каталогу: {} ({})", dir, e.getMessage());
+            } finally {
+                closeQuietly(stream);
+            }
+        }
+
+        // Обрабатывает элемент неизменившейся директории по записи снимка
+        private ScanSnapshot.Entry replay(Path path, String relativePath, ScanSnapshot.Entry entry) {
+            if (entry.kind == ScanSnapshot.FILE && !verifyFiles) {
+                addFile(fromSnapshot(path, relativePath, entry));
+                return entry;
+            }
+            if (entry.kind == ScanSnapshot.OTHER) {
+                return visit(path, relativePath);
+            }
+
+            BasicFileAttributes attrs;
+            try {
+                attrs = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+            } catch (IOException e) {
+                return visit(path, relativePath); // Элемент исчез после снимка - обрабатываем как новый
+            }
+            if (entry.kind == ScanSnapshot.DIRECTORY && attrs.isDirectory()) {
+                visitDirectory(path, relativePath, attrs);
+                return entry;
+            }
+            if (entry.kind == ScanSnapshot.FILE && attrs.isRegularFile()
+                    && attrs.size() == entry.size
+                    && attrs.lastModifiedTime().toMillis() == entry.mtimeMillis
+                    && Objects.equals(fileKey(attrs), entry.fileKey)) {
+                addFile(fromSnapshot(path, relativePath, entry));
+                return entry;
+            }
+            return visit(path, relativePath);
+        }
+
+        private FileInfo fromSnapshot(Path path, String relativePath, ScanSnapshot.Entry entry) {
+            FileInfo fileInfo = new FileInfo(path, entry.name, relativePath, entry.size,
+                    FileScannerImpl.getFileExtension(entry.name), FileTypeClassifier.classify(entry.name));
+            fileInfo.setContentKind(entry.contentKind);
+            return fileInfo;
+        }
+
+        private void addFile(Path path, BasicFileAttributes attrs) {
+            try {
+                addFile(FileScannerImpl.createFileInfo(projectPath, path, attrs));
+            } catch (Exception e) {
+                LOGGER.error("Ошибка при обработке файла {}: {}", path, e.getMessage(), e);
+            }
+        }
+
+        private void addFile(FileInfo fileInfo) {
+            files.add(fileInfo);
+            if (files.size() % PROGRESS_STEP == 0) {
+                progressBar.update(files.size());
+            }
+        }
+    }
+
+    private static String child(String relativeDir, String name) {
+        return relativeDir.isEmpty() ? name : relativeDir + "/" + name;
+    }
+
+    private static String fileKey(BasicFileAttributes attrs) {
+        Object key = attrs.fileKey();
+        return key != null ? key.toString() : null;
+    }
+
+    private static void closeQuietly(DirectoryStream<Path> stream) {
+        if (stream == null) {
+            return;
+        }
+        try {
+            stream.close();
+        } catch (IOException e) {
+            LOGGER.debug("Не удалось закрыть DirectoryStream: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.auditor.analysis;
+
+import com.example.auditor.core.ProjectScanner;
+import com.example.auditor.model.FileInfo;
+import com.example.auditor.utils.ProgressBar;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Реализация ProjectScanner, обходящая дерево проекта параллельно в ForkJoinPool.
+ * <p>
+ * Каждая директория обрабатывается отдельной задачей: задача читает содержимое директории,
+ * создаёт FileInfo для файлов и порождает подзадачи для поддиректорий. Результаты подзадач
+ * склеиваются в порядке элементов DirectoryStream, поэтому итоговый список совпадает
+ * с результатом {@link FileScannerImpl} (обход в глубину в том же порядке), и отчёты
+ * остаются побайтно одинаковыми.
+ */
+public class ParallelFileScanner implements ProjectScanner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ParallelFileScanner.class);
+
+    // Прогресс-бар обновляется пачками, чтобы потоки не упирались в синхронизированный вывод в консоль
+    private static final int PROGRESS_STEP = 1024;
+
+    private final int parallelism;
+
+    public ParallelFileScanner(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    @Override
+    public List<FileInfo> scan(Path projectPath) throws IOException {
+        return scan(projectPath, relativeDir -> false);
+    }
+
+    @Override
+    public List<FileInfo> scan(Path projectPath, Predicate<String> skipDirectory) throws IOException {
+        ProgressBar progressBar = new ProgressBar("Сканирование файлов", 100); // Точное количество файлов заранее неизвестно
+        AtomicInteger processed = new AtomicInteger(0);
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<FileInfo> files = pool.invoke(new EntryTask(projectPath, projectPath, skipDirectory, progressBar, processed));
+            progressBar.finish();
+            return files;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Задача обработки одного элемента дерева (файла или директории).
+     * Повторяет последовательность событий Files.walkFileTree без FOLLOW_LINKS.
+     */
+    private static final class EntryTask extends RecursiveTask<List<FileInfo>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Path projectPath;
+        private final Path path;
+        private final Predicate<String> skipDirectory;
+        private final ProgressBar progressBar;
+        private final AtomicInteger processed;
+
+        EntryTask(Path projectPath, Path path, Predicate<String> skipDirectory, ProgressBar progressBar, AtomicInteger processed) {
+            this.projectPath = projectPath;
+            this.path = path;
+            this.skipDirectory = skipDirectory;
+            this.progressBar = progressBar;
+            this.processed = processed;
+        }
+
+        @Override
+        protected List<FileInfo> compute() {
+            BasicFileAttributes attrs;
+            try {
+                attrs = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+            } catch (IOException e) {
+                LOGGER.warn("Ошибка доступа к файлу/каталогу: {} ({})", path, e.getMessage());
+                return Collections.emptyList();
+            }
+
+            if (!attrs.isDirectory()) {
+                FileInfo fileInfo = visitFile(path, attrs);
+                return fileInfo != null ? List.of(fileInfo) : Collections.emptyList();
+            }
+            return visitDirectory();
+        }
+
+        private List<FileInfo> visitDirectory() {
+            // Как и в walkFileTree, директория открывается до проверки на игнорирование
+            List<Object> entries = new ArrayList<>(); // FileInfo или EntryTask, в порядке DirectoryStream
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(path)) {
+                Path fileName = path.getFileName();
+                if (fileName != null && FileScannerImpl.getIgnoredDirectories().contains(fileName.toString())) {
+                    LOGGER.debug("Пропуск подкаталога: {}", path);
+                    return Collections.emptyList();
+                }
+                if (FileScannerImpl.isPruned(projectPath, path, skipDirectory)) {
+                    LOGGER.debug("Пропуск подкаталога по правилам фильтрации: {}", path);
+                    return Collections.emptyList();
+                }
+
+                for (Path entry : stream) {
+                    BasicFileAttributes attrs;
+                    try {
+                        attrs = Files.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    } catch (IOException e) {
+                        LOGGER.warn("Ошибка доступа к файлу/каталогу: {} ({})", entry, e.getMessage());
+                        continue;
+                    }
+                    if (attrs.isDirectory()) {
+                        EntryTask subtask = new EntryTask(projectPath, entry, skipDirectory, progressBar, processed);
+                        subtask.fork();
+                        entries.add(subtask);
+                    } else {
+                        FileInfo fileInfo = visitFile(entry, attrs);
+                        if (fileInfo != null) {
+                            entries.add(fileInfo);
+                        }
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                // DirectoryIteratorException и ошибки открытия директории не прерывают сканирование
+                LOGGER.warn("Ошибка доступа к файлу/каталогу: {} ({})", path, e.getMessage());
+            }
+
+            // Склеиваем результаты строго в порядке обхода
+            List<FileInfo> files = new ArrayList<>();
+            for (Object entry : entries) {
+                if (entry instanceof EntryTask) {
+                    files.addAll(((EntryTask) entry).join());
+                } else {
+                    files.add((FileInfo) entry);
+                }
+            }
+            return files;
+        }
+
+        private FileInfo visitFile(Path filePath, BasicFileAttributes attrs) {
+            if (!Files.isRegularFile(filePath)) {
+                return null; // Символические ссылки на не-файлы, FIFO и т.д. не учитываются
+            }
+            try {
+                return FileScannerImpl.createFileInfo(projectPath, filePath, attrs);
+            } catch (Exception e) {
+                LOGGER.error("Ошибка при обработке файла {}: {}", filePath, e.getMessage(), e);
+                return null;
+            } finally {
+                int count = processed.incrementAndGet();
+                if (count % PROGRESS_STEP == 0) {
+                    progressBar.update(count);
+                }
+            }
+        }
+    }
+}
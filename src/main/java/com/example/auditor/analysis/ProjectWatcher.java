@@ -0,0 +1,325 @@
+package com.example.auditor.analysis;
+
+import com.example.auditor.core.FileFilter;
+import com.example.auditor.core.ProjectAnalyzer;
+import com.example.auditor.core.ReportGenerator;
+import com.example.auditor.model.AnalysisConfig;
+import com.example.auditor.model.AnalysisResult;
+import com.example.auditor.model.FileInfo;
+import com.example.auditor.utils.ConsoleColors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Режим наблюдения: после полного анализа следит за деревом проекта через WatchService
+ * и обновляет отчёты по мере изменения файлов.
+ * <p>
+ * Список отфильтрованных файлов хранится в памяти; события создания, изменения и удаления
+ * применяются к нему точечно (новые и изменённые файлы проходят тот же фильтр), после чего
+ * отчёты перегенерируются через {@link ReportGenerator#regenerate}: заново рендерятся только
+ * разделы затронутых файлов. События собираются в пачку, пока не наступит пауза
+ * {@code debounceMillis} (но не дольше {@code maxDelayMillis}), поэтому массовые изменения
+ * вроде {@code git checkout} дают одно обновление.
+ * <p>
+ * Изменение {@code .gitignore} или переполнение очереди событий приводит к полному повторному анализу.
+ * Новые файлы добавляются в конец списка, поэтому их порядок в отчёте может отличаться от полного запуска.
+ */
+public class ProjectWatcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProjectWatcher.class);
+
+    public static final long DEFAULT_DEBOUNCE_MILLIS = 500;
+
+    private static final String GITIGNORE = ".gitignore";
+
+    private final ProjectAnalyzer analyzer;
+    private final FileFilter fileFilter;
+    private final ReportGenerator generator;
+    private final long debounceMillis;
+    private final long maxDelayMillis;
+
+    public ProjectWatcher(ProjectAnalyzer analyzer, FileFilter fileFilter, ReportGenerator generator) {
+        this(analyzer, fileFilter, generator, DEFAULT_DEBOUNCE_MILLIS);
+    }
+
+    public ProjectWatcher(ProjectAnalyzer analyzer, FileFilter fileFilter, ReportGenerator generator, long debounceMillis) {
+        this.analyzer = analyzer;
+        this.fileFilter = fileFilter;
+        this.generator = generator;
+        this.debounceMillis = debounceMillis;
+        this.maxDelayMillis = debounceMillis * 10; // При непрерывном потоке событий отчёт всё равно обновляется
+    }
+
+    /**
+     * Выполняет полный анализ, генерирует отчёты и следит за проектом до прерывания потока.
+     *
+     * @param config    Конфигурация анализа.
+     * @param outputDir Директория отчётов (изменения в ней не отслеживаются).
+     * @throws IOException          Если не удалось создать WatchService.
+     * @throws InterruptedException При прерывании потока (штатное завершение наблюдения).
+     */
+    public void watch(AnalysisConfig config, Path outputDir) throws IOException, InterruptedException {
+        Path projectPath = config.getProjectPath();
+        try (WatchService watchService = projectPath.getFileSystem().newWatchService()) {
+            Session session = new Session(config, outputDir.toAbsolutePath().normalize(), watchService);
+            session.rebuild();
+            System.out.println(ConsoleColors.CYAN + "\n👀 Наблюдение за " + projectPath + " (Ctrl+C для выхода)" + ConsoleColors.RESET);
+            while (!Thread.currentThread().isInterrupted()) {
+                session.apply(session.awaitChanges());
+            }
+        }
+    }
+
+    /**
+     * Состояние наблюдения за одним проектом.
+     */
+    private final class Session {
+
+        private final AnalysisConfig config;
+        private final Path projectPath;
+        private final Path outputDir;
+        private final WatchService watchService;
+        private final Map<WatchKey, Path> watchedKeys = new HashMap<>();
+        private final Map<Path, WatchKey> watchedDirs = new HashMap<>();
+        private final Map<String, FileInfo> files = new LinkedHashMap<>(); // относительный путь -> файл, в порядке отчёта
+        private Predicate<String> directoryPruner;
+
+        Session(AnalysisConfig config, Path outputDir, WatchService watchService) {
+            this.config = config;
+            this.projectPath = config.getProjectPath();
+            this.outputDir = outputDir;
+            this.watchService = watchService;
+        }
+
+        // Полный анализ; директории регистрируются до сканирования, чтобы не пропустить изменения во время него
+        void rebuild() throws IOException {
+            for (WatchKey key : watchedKeys.keySet()) {
+                key.cancel();
+            }
+            watchedKeys.clear();
+            watchedDirs.clear();
+            directoryPruner = fileFilter.directoryPruner(projectPath, config);
+            registerTree(projectPath, null); // Файлы найдёт сканер анализатора
+            LOGGER.info("Отслеживается {} директорий", watchedDirs.size());
+
+            AnalysisResult result = analyzer.analyze(config);
+            files.clear();
+            for (FileInfo file : result.getFileInfoList()) {
+                files.put(file.getRelativePath(), file);
+            }
+            generator.regenerate(result, config, outputDir, null);
+            analyzer.recordContentKinds(result.getFileInfoList(), config);
+        }
+
+        // Ждёт первое событие, затем собирает последующие до паузы debounceMillis
+        Batch awaitChanges() throws InterruptedException {
+            Batch batch = new Batch();
+            collect(watchService.take(), batch);
+            long deadline = System.currentTimeMillis() + maxDelayMillis;
+            while (true) {
+                long wait = Math.min(debounceMillis, deadline - System.currentTimeMillis());
+                if (wait <= 0) {
+                    break;
+                }
+                WatchKey key = watchService.poll(wait, TimeUnit.MILLISECONDS);
+                if (key == null) {
+                    break; // Пауза в событиях - пачка собрана
+                }
+                collect(key, batch);
+            }
+            return batch;
+        }
+
+        private void collect(WatchKey key, Batch batch) {
+            Path dir = watchedKeys.get(key);
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    batch.rescan = true; // События потеряны - состояние восстанавливается полным анализом
+                    continue;
+                }
+                if (dir == null) {
+                    continue; // Ключ уже снят с регистрации
+                }
+                Path path = dir.resolve((Path) event.context());
+                if (path.getFileName().toString().equals(GITIGNORE)) {
+                    batch.rescan = true; // Правила изменились: результат фильтра мог поменяться для любого файла
+                }
+                batch.paths.add(path);
+                if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                    // Новая директория регистрируется сразу, чтобы события внутри неё продлевали текущую пачку
+                    try {
+                        registerTree(path, null);
+                        batch.newDirectories.add(path);
+                    } catch (IOException e) {
+                        LOGGER.warn("Не удалось зарегистрировать директорию {}: {}", path, e.getMessage());
+                    }
+                }
+            }
+            if (!key.reset()) {
+                // Директория удалена или недоступна
+                watchedKeys.remove(key);
+                if (dir != null) {
+                    watchedDirs.remove(dir);
+                }
+            }
+        }
+
+        void apply(Batch batch) throws IOException {
+            if (batch.rescan) {
+                LOGGER.info("Полный повторный анализ ({} изменений)", batch.paths.size());
+                System.out.println(ConsoleColors.YELLOW + "🔄 Изменились правила или потеряны события, полный повторный анализ..." + ConsoleColors.RESET);
+                rebuild();
+                return;
+            }
+
+            Set<String> changedPaths = new HashSet<>();
+            List<FileInfo> candidates = new ArrayList<>();
+            for (Path path : batch.paths) {
+                String relativePath = relativize(path);
+                BasicFileAttributes attrs;
+                try {
+                    attrs = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                } catch (IOException e) {
+                    removeTree(path, relativePath, changedPaths); // Удалён или переименован
+                    continue;
+                }
+                if (attrs.isDirectory()) {
+                    if (batch.newDirectories.contains(path) || !watchedDirs.containsKey(path)) {
+                        // Новая директория: файлы в ней могли появиться до регистрации, поэтому она обходится целиком
+                        registerTree(path, candidates);
+                    }
+                } else if (attrs.isRegularFile() || Files.isRegularFile(path)) {
+                    candidates.add(FileScannerImpl.createFileInfo(projectPath, path, attrs.isRegularFile()
+                            ? attrs : Files.readAttributes(path, BasicFileAttributes.class)));
+                } else {
+                    removeTree(path, relativePath, changedPaths);
+                }
+            }
+
+            // Изменённый файл мог начать или перестать проходить фильтр (например, по размеру)
+            // Фильтр возвращает свои строки таблицы (с отмеченным приоритетом), поэтому сопоставление по пути
+            Map<String, FileInfo> accepted = new HashMap<>();
+            for (FileInfo file : fileFilter.filter(candidates, projectPath, config)) {
+                accepted.put(file.getRelativePath(), file);
+            }
+            for (FileInfo candidate : candidates) {
+                String relativePath = candidate.getRelativePath();
+                FileInfo acceptedFile = accepted.get(relativePath);
+                if (acceptedFile != null) {
+                    files.put(relativePath, acceptedFile); // Существующий ключ сохраняет позицию в отчёте
+                    changedPaths.add(relativePath);
+                } else if (files.remove(relativePath) != null) {
+                    changedPaths.add(relativePath);
+                }
+            }
+
+            if (changedPaths.isEmpty()) {
+                LOGGER.debug("Изменения не затрагивают отчёт ({} событий)", batch.paths.size());
+                return;
+            }
+            AnalysisResult result = analyzer.summarize(new ArrayList<>(files.values()), config);
+            generator.regenerate(result, config, outputDir, changedPaths);
+            System.out.println(ConsoleColors.GREEN + "🔄 Отчеты обновлены (изменено файлов: " + changedPaths.size() + ")" + ConsoleColors.RESET);
+        }
+
+        // Регистрирует директорию и поддиректории (с теми же правилами отсечения, что и сканер); файлы добавляются в found, если он задан
+        private void registerTree(Path root, List<FileInfo> found) throws IOException {
+            Files.walkFileTree(root, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                    Path dirName = dir.getFileName();
+                    if (!dir.equals(projectPath)
+                            && ((dirName != null && FileScannerImpl.getIgnoredDirectories().contains(dirName.toString()))
+                            || FileScannerImpl.isPruned(projectPath, dir, directoryPruner))) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    if (dir.toAbsolutePath().normalize().startsWith(outputDir)) {
+                        return FileVisitResult.SKIP_SUBTREE; // Запись отчётов не должна вызывать новые события
+                    }
+                    WatchKey key = dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                            StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                    watchedKeys.put(key, dir);
+                    watchedDirs.put(dir, key);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (found != null && (attrs.isRegularFile() || Files.isRegularFile(file))) {
+                        found.add(FileScannerImpl.createFileInfo(projectPath, file, attrs));
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    LOGGER.warn("Ошибка доступа к файлу/каталогу: {} ({})", file, exc.getMessage());
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        }
+
+        // Удаляет файл или всё поддерево удалённой директории
+        private void removeTree(Path path, String relativePath, Set<String> changedPaths) {
+            if (files.remove(relativePath) != null) {
+                changedPaths.add(relativePath);
+            }
+            WatchKey key = watchedDirs.remove(path);
+            if (key == null) {
+                return; // Не отслеживаемая директория - вложенных файлов в списке нет
+            }
+            key.cancel();
+            watchedKeys.remove(key);
+            String prefix = relativePath + "/";
+            for (Iterator<String> iterator = files.keySet().iterator(); iterator.hasNext(); ) {
+                String filePath = iterator.next();
+                if (filePath.startsWith(prefix)) {
+                    iterator.remove();
+                    changedPaths.add(filePath);
+                }
+            }
+            watchedDirs.entrySet().removeIf(entry -> {
+                if (entry.getKey().startsWith(path)) {
+                    entry.getValue().cancel();
+                    watchedKeys.remove(entry.getValue());
+                    return true;
+                }
+                return false;
+            });
+        }
+
+        private String relativize(Path path) {
+            return projectPath.relativize(path).toString().replace('\\', '/');
+        }
+    }
+
+    // Изменения, накопленные за одну паузу
+    private static final class Batch {
+        private final Set<Path> paths = new LinkedHashSet<>();
+        private final Set<Path> newDirectories = new HashSet<>();
+        private boolean rescan;
+    }
+}
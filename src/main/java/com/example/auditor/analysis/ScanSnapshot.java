@@ -0,0 +1,253 @@
+package com.example.auditor.analysis;
+
+import com.example.auditor.model.ContentKind;
+import com.example.auditor.model.FileInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Снимок результатов сканирования для инкрементального повторного обхода.
+ * <p>
+ * Для каждой просмотренной директории хранит время изменения и список элементов
+ * в порядке DirectoryStream: для файлов - размер, время изменения, ключ файла (inode)
+ * и вид содержимого ({@link ContentKind}), для поддиректорий и прочих элементов - только имя.
+ * Формат - компактный бинарный (DataOutputStream), с сигнатурой и версией.
+ */
+final class ScanSnapshot {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ScanSnapshot.class);
+
+    private static final int MAGIC = 0x41445353; // "ADSS"
+    private static final int VERSION = 2; // 2 - вид содержимого файлов
+
+    // Изменение директории в пределах этого окна от момента снимка могло не отразиться на её mtime
+    // (грубая точность времени файловой системы), такой записи не доверяем
+    private static final long RACY_WINDOW_MILLIS = 2000;
+
+    static final byte FILE = 0;
+    static final byte DIRECTORY = 1;
+    static final byte OTHER = 2; // Символические ссылки и пр. - перепроверяются при каждом обходе
+
+    private final String projectPath;
+    private final long createdMillis; // Момент начала сканирования, по которому сделан снимок
+    private final Map<String, DirectoryRecord> directories;
+
+    ScanSnapshot(Path projectPath, long createdMillis) {
+        this(projectPath.toAbsolutePath().normalize().toString(), createdMillis, new HashMap<>());
+    }
+
+    private ScanSnapshot(String projectPath, long createdMillis, Map<String, DirectoryRecord> directories) {
+        this.projectPath = projectPath;
+        this.createdMillis = createdMillis;
+        this.directories = directories;
+    }
+
+    /**
+     * Возвращает запись директории, если ей можно доверять при указанном текущем mtime.
+     *
+     * @param relativeDir Относительный путь директории ("" - корень).
+     * @param mtimeMillis Текущее время изменения директории.
+     * @return Запись или null, если директория изменилась или не просматривалась.
+     */
+    DirectoryRecord getUnchanged(String relativeDir, long mtimeMillis) {
+        DirectoryRecord record = directories.get(relativeDir);
+        if (record == null || record.mtimeMillis != mtimeMillis || mtimeMillis + RACY_WINDOW_MILLIS > createdMillis) {
+            return null;
+        }
+        return record;
+    }
+
+    void put(String relativeDir, DirectoryRecord record) {
+        directories.put(relativeDir, record);
+    }
+
+    int size() {
+        return directories.size();
+    }
+
+    /**
+     * Записывает в снимок виды содержимого, определённые при чтении файлов для отчёта.
+     * Запись обновляется, если вид в ней другой (не определён или уточнён чтением целиком,
+     * например однобайтовая кодировка) и размер файла совпадает со снимком.
+     *
+     * @param files Файлы отчёта (относительные пути с разделителем '/').
+     * @return Число обновлённых записей.
+     */
+    int updateContentKinds(List<FileInfo> files) {
+        Map<String, Map<String, Entry>> byDirectory = new HashMap<>();
+        int updated = 0;
+        for (FileInfo file : files) {
+            ContentKind contentKind = file.getContentKind();
+            if (contentKind == ContentKind.UNKNOWN) {
+                continue;
+            }
+            String relativePath = file.getRelativePath();
+            int slash = relativePath.lastIndexOf('/');
+            String relativeDir = slash >= 0 ? relativePath.substring(0, slash) : "";
+            Entry entry = byDirectory.computeIfAbsent(relativeDir, this::fileEntries).get(relativePath.substring(slash + 1));
+            if (entry != null && entry.contentKind != contentKind && entry.size == file.getLength()) {
+                entry.contentKind = contentKind;
+                updated++;
+            }
+        }
+        return updated;
+    }
+
+    // Файловые записи директории по имени
+    private Map<String, Entry> fileEntries(String relativeDir) {
+        DirectoryRecord record = directories.get(relativeDir);
+        if (record == null) {
+            return Map.of();
+        }
+        Map<String, Entry> entries = new HashMap<>(record.entries.size() * 4 / 3 + 1);
+        for (Entry entry : record.entries) {
+            if (entry.kind == FILE) {
+                entries.put(entry.name, entry);
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Загружает снимок. Отсутствующий, повреждённый или чужой (другой проект, версия) снимок
+     * заменяется пустым - в этом случае выполняется полное сканирование.
+     *
+     * @param snapshotFile Файл снимка.
+     * @param projectPath  Корень сканируемого проекта.
+     * @return Загруженный или пустой снимок.
+     */
+    static ScanSnapshot load(Path snapshotFile, Path projectPath) {
+        String expectedProject = projectPath.toAbsolutePath().normalize().toString();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                LOGGER.info("Снимок сканирования {} имеет другой формат, выполняется полное сканирование", snapshotFile);
+                return new ScanSnapshot(projectPath, 0);
+            }
+            String project = in.readUTF();
+            long createdMillis = in.readLong();
+            if (!project.equals(expectedProject)) {
+                LOGGER.info("Снимок сканирования {} относится к другому проекту ({})", snapshotFile, project);
+                return new ScanSnapshot(projectPath, 0);
+            }
+            int directoryCount = in.readInt();
+            Map<String, DirectoryRecord> directories = new HashMap<>(directoryCount * 4 / 3 + 1);
+            for (int d = 0; d < directoryCount; d++) {
+                String relativeDir = in.readUTF();
+                long mtimeMillis = in.readLong();
+                int entryCount = in.readInt();
+                Entry[] entries = new Entry[entryCount];
+                for (int e = 0; e < entryCount; e++) {
+                    byte kind = in.readByte();
+                    String name = in.readUTF();
+                    if (kind == FILE) {
+                        long size = in.readLong();
+                        long fileMtime = in.readLong();
+                        String fileKey = in.readUTF();
+                        ContentKind contentKind = ContentKind.fromCode(in.readByte());
+                        entries[e] = new Entry(kind, name, size, fileMtime, fileKey.isEmpty() ? null : fileKey, contentKind);
+                    } else {
+                        entries[e] = new Entry(kind, name, 0, 0, null, ContentKind.UNKNOWN);
+                    }
+                }
+                directories.put(relativeDir, new DirectoryRecord(mtimeMillis, List.of(entries)));
+            }
+            return new ScanSnapshot(project, createdMillis, directories);
+        } catch (NoSuchFileException e) {
+            LOGGER.debug("Снимок сканирования не найден: {}", snapshotFile);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Не удалось прочитать снимок сканирования {}: {}", snapshotFile, e.getMessage());
+        }
+        return new ScanSnapshot(projectPath, 0);
+    }
+
+    /**
+     * Сохраняет снимок: сначала во временный файл, затем атомарно подменяет старый,
+     * чтобы прерванная запись не оставила повреждённый снимок.
+     *
+     * @param snapshotFile Файл снимка.
+     */
+    void save(Path snapshotFile) {
+        Path tempFile = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(snapshotFile.toAbsolutePath().getParent());
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeUTF(projectPath);
+                out.writeLong(createdMillis);
+                out.writeInt(directories.size());
+                for (Map.Entry<String, DirectoryRecord> directory : directories.entrySet()) {
+                    DirectoryRecord record = directory.getValue();
+                    out.writeUTF(directory.getKey());
+                    out.writeLong(record.mtimeMillis);
+                    out.writeInt(record.entries.size());
+                    for (Entry entry : record.entries) {
+                        out.writeByte(entry.kind);
+                        out.writeUTF(entry.name);
+                        if (entry.kind == FILE) {
+                            out.writeLong(entry.size);
+                            out.writeLong(entry.mtimeMillis);
+                            out.writeUTF(entry.fileKey != null ? entry.fileKey : "");
+                            out.writeByte(entry.contentKind.ordinal());
+                        }
+                    }
+                }
+            }
+            try {
+                Files.move(tempFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                Files.move(tempFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING); // ФС без атомарного переименования
+            }
+            LOGGER.debug("Снимок сканирования сохранён: {} ({} директорий)", snapshotFile, directories.size());
+        } catch (IOException e) {
+            LOGGER.warn("Не удалось сохранить снимок сканирования {}: {}", snapshotFile, e.getMessage());
+        }
+    }
+
+    /**
+     * Содержимое директории на момент снимка.
+     */
+    static final class DirectoryRecord {
+        final long mtimeMillis;
+        final List<Entry> entries;
+
+        DirectoryRecord(long mtimeMillis, List<Entry> entries) {
+            this.mtimeMillis = mtimeMillis;
+            this.entries = entries;
+        }
+    }
+
+    /**
+     * Элемент директории.
+     */
+    static final class Entry {
+        final byte kind;
+        final String name;
+        final long size;
+        final long mtimeMillis;
+        final String fileKey; // null, если ФС не предоставляет ключ
+        ContentKind contentKind; // UNKNOWN, если не определялся; уточняется после генерации отчёта
+
+        Entry(byte kind, String name, long size, long mtimeMillis, String fileKey, ContentKind contentKind) {
+            this.kind = kind;
+            this.name = name;
+            this.size = size;
+            this.mtimeMillis = mtimeMillis;
+            this.fileKey = fileKey;
+            this.contentKind = contentKind;
+        }
+    }
+}
@@ -1,8 +1,13 @@
 package com.example.auditor.config;
 
+import com.example.auditor.analysis.BatchAuditor;
 import com.example.auditor.analysis.DefaultProjectAnalyzer;
 import com.example.auditor.analysis.FileFilterImpl;
 import com.example.auditor.analysis.FileScannerImpl;
+import com.example.auditor.analysis.GitIndexScanner;
+import com.example.auditor.analysis.IncrementalFileScanner;
+import com.example.auditor.analysis.ParallelFileScanner;
+import com.example.auditor.analysis.ProjectWatcher;
 import com.example.auditor.core.ProjectAnalyzer;
 import com.example.auditor.core.ProjectScanner;
 import com.example.auditor.core.FileFilter;
@@ -26,6 +31,9 @@ public class ApplicationConfig {
     // Поле для Scanner
     private Scanner scanner;
 
+    // Конфигурация фильтров неизменяема и разделяется всеми анализаторами (в т.ч. в пакетном режиме)
+    private FilterConfiguration filterConfiguration;
+
     // Метод для получения Scanner (создаётся один раз)
     private Scanner getScanner() {
         if (scanner == null) {
@@ -53,15 +61,33 @@ public class ApplicationConfig {
 
     // Метод для получения экземпляра ProjectScanner
     public ProjectScanner getProjectScanner() {
+        ScannerConfiguration scannerConfig = ScannerConfiguration.getDefault();
+        if (scannerConfig.getIncrementalScan() != ScannerConfiguration.IncrementalMode.OFF) {
+            // Снимок строится последовательным обходом, поэтому инкрементальный режим важнее scanMode
+            LOGGER.debug("Creating ProjectScanner (IncrementalFileScanner, {})", scannerConfig.getIncrementalScan());
+            return new IncrementalFileScanner(scannerConfig.getIncrementalScan() == ScannerConfiguration.IncrementalMode.VERIFY);
+        }
+        if (scannerConfig.getScanMode() == ScannerConfiguration.ScanMode.PARALLEL) {
+            LOGGER.debug("Creating ProjectScanner (ParallelFileScanner, {} threads)", scannerConfig.getParallelism());
+            return new ParallelFileScanner(scannerConfig.getParallelism());
+        }
+        if (scannerConfig.getScanMode() == ScannerConfiguration.ScanMode.GIT_INDEX) {
+            LOGGER.debug("Creating ProjectScanner (GitIndexScanner)");
+            return new GitIndexScanner();
+        }
         LOGGER.debug("Creating ProjectScanner (FileScannerImpl)");
         return new FileScannerImpl();
     }
 
-    // Метод для получения экземпляра FilterConfiguration (из ресурса)
-    public FilterConfiguration getFilterConfiguration() {
+    // Метод для получения экземпляра FilterConfiguration (из ресурса; загружается и компилируется один раз)
+    public synchronized FilterConfiguration getFilterConfiguration() {
+        if (filterConfiguration != null) {
+            return filterConfiguration;
+        }
         LOGGER.debug("Loading FilterConfiguration from resource");
         try {
-            return JsonFilterConfiguration.loadFromJsonResource("/filter-config.json");
+            filterConfiguration = JsonFilterConfiguration.loadFromJsonResource("/filter-config.json");
+            return filterConfiguration;
         } catch (Exception e) {
             LOGGER.error("Failed to load FilterConfiguration: {}", e.getMessage(), e);
             // В реальном приложении нужно корректно обработать ошибку загрузки конфигурации
@@ -90,6 +116,21 @@ public class ApplicationConfig {
         return new ReportGeneratorImpl(); // ReportGeneratorImpl может не зависеть от других бинов напрямую
     }
 
+    // Метод для получения экземпляра ProjectWatcher (режим наблюдения)
+    public ProjectWatcher getProjectWatcher() {
+        LOGGER.debug("Creating ProjectWatcher");
+        FileFilter filter = getFileFilter(); // Общий фильтр: анализатор и наблюдатель используют одни правила
+        return new ProjectWatcher(new DefaultProjectAnalyzer(getProjectScanner(), filter), filter, getReportGenerator());
+    }
+
+    // Метод для получения экземпляра BatchAuditor (пакетный режим)
+    public BatchAuditor getBatchAuditor(int threads) {
+        LOGGER.debug("Creating BatchAuditor ({} threads)", threads);
+        getFilterConfiguration(); // Загружаем заранее, а не в первом из параллельных потоков
+        // Анализатор создаётся на каждый проект, генератор отчётов общий и без вывода в консоль
+        return new BatchAuditor(this::getProjectAnalyzer, new ReportGeneratorImpl(false), threads);
+    }
+
     // Метод для получения экземпляра AnalysisConfig от пользователя
     public com.example.auditor.model.AnalysisConfig getUserConfig() {
         UserInterface ui = getUserInterface(); // Получаем UI (с уже внедрённым Scanner)
@@ -0,0 +1,162 @@
+package com.example.auditor.config;
+
+import com.example.auditor.model.AnalysisConfig;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Настройки пакетного аудита нескольких проектов в одной JVM (режим {@code --batch <файл>}).
+ * <p>
+ * Файл в формате JSON; относительные пути считаются от директории файла:
+ * <pre>
+ * {
+ *   "projects": ["../service-a", "/srv/repos/service-b"],
+ *   "outputDir": "auditor_output",
+ *   "threads": 0,
+ *   "outputFormat": "markdown",
+ *   "outputFileName": "project-audit",
+ *   "generateJsonMetadata": true,
+ *   "useGitIgnore": true,
+ *   "maxFileSizeKB": 50000,
+ *   "lightMode": false,
+ *   "streamingOutput": false,
+ *   "tokenBudget": 0
+ * }
+ * </pre>
+ * Все поля, кроме {@code projects}, необязательны; значения по умолчанию совпадают
+ * с вариантами по умолчанию интерактивной настройки. {@code threads = 0} - по числу ядер,
+ * {@code tokenBudget = 0} - Markdown-отчёт без ограничения по токенам.
+ */
+public class BatchConfiguration {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchConfiguration.class);
+
+    private final List<Path> projects;
+    private final Path outputDir;
+    private final int threads;
+    private final AnalysisConfig.OutputFormat outputFormat;
+    private final String outputFileName;
+    private final boolean generateJsonMetadata;
+    private final boolean useGitIgnore;
+    private final long maxFileSizeKB;
+    private final boolean lightMode;
+    private final boolean streamingOutput;
+    private final long tokenBudget;
+
+    private BatchConfiguration(List<Path> projects, Path outputDir, int threads, AnalysisConfig.OutputFormat outputFormat,
+                               String outputFileName, boolean generateJsonMetadata, boolean useGitIgnore,
+                               long maxFileSizeKB, boolean lightMode, boolean streamingOutput, long tokenBudget) {
+        this.projects = Collections.unmodifiableList(projects);
+        this.outputDir = outputDir;
+        this.threads = threads;
+        this.outputFormat = outputFormat;
+        this.outputFileName = outputFileName;
+        this.generateJsonMetadata = generateJsonMetadata;
+        this.useGitIgnore = useGitIgnore;
+        this.maxFileSizeKB = maxFileSizeKB;
+        this.lightMode = lightMode;
+        this.streamingOutput = streamingOutput;
+        this.tokenBudget = tokenBudget;
+    }
+
+    public List<Path> getProjects() {
+        return projects;
+    }
+
+    public Path getOutputDir() {
+        return outputDir;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Строит конфигурацию анализа одного проекта пакета (без вопросов пользователю и открытия результатов).
+     *
+     * @param projectPath Корень проекта.
+     * @return Конфигурация анализа.
+     */
+    public AnalysisConfig toAnalysisConfig(Path projectPath) {
+        return new AnalysisConfig(projectPath, outputFormat, outputFileName, generateJsonMetadata, false,
+                useGitIgnore, maxFileSizeKB, List.of(), lightMode, streamingOutput, tokenBudget);
+    }
+
+    /**
+     * Загружает настройки пакета из JSON-файла.
+     *
+     * @param configFile Путь к файлу.
+     * @return Экземпляр BatchConfiguration.
+     * @throws IOException Если файл не удалось прочитать, распарсить или список проектов пуст.
+     */
+    public static BatchConfiguration load(Path configFile) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        Path baseDir = configFile.toAbsolutePath().normalize().getParent();
+        try (InputStream in = Files.newInputStream(configFile)) {
+            JsonNode rootNode = mapper.readTree(in);
+
+            List<Path> projects = new ArrayList<>();
+            JsonNode projectsNode = rootNode.get("projects");
+            if (projectsNode == null || !projectsNode.isArray()) {
+                throw new IOException("Неверный формат " + configFile + ": отсутствует массив 'projects'");
+            }
+            for (JsonNode node : projectsNode) {
+                if (node != null && node.isTextual() && !node.asText().isBlank()) {
+                    projects.add(baseDir.resolve(node.asText().trim()).normalize());
+                } else {
+                    LOGGER.warn("Найден некорректный элемент в массиве 'projects': {}. Пропущен.", node);
+                }
+            }
+            if (projects.isEmpty()) {
+                throw new IOException("Список проектов в " + configFile + " пуст");
+            }
+
+            Path outputDir = baseDir.resolve(rootNode.path("outputDir").asText("auditor_output")).normalize();
+            int threads = rootNode.path("threads").asInt(0);
+            if (threads <= 0) {
+                threads = Runtime.getRuntime().availableProcessors();
+            }
+            AnalysisConfig.OutputFormat outputFormat = parseOutputFormat(rootNode.path("outputFormat").asText(""));
+            boolean lightMode = rootNode.path("lightMode").asBoolean(false) || outputFormat == AnalysisConfig.OutputFormat.STRUCTURE_ONLY;
+            boolean streamingOutput = !lightMode && rootNode.path("streamingOutput").asBoolean(false);
+
+            LOGGER.debug("Загружено {} проектов из {}, потоков: {}, вывод: {}", projects.size(), configFile, threads, outputDir);
+            return new BatchConfiguration(
+                    projects,
+                    outputDir,
+                    threads,
+                    outputFormat,
+                    rootNode.path("outputFileName").asText("project-audit"),
+                    rootNode.path("generateJsonMetadata").asBoolean(true),
+                    rootNode.path("useGitIgnore").asBoolean(true),
+                    rootNode.path("maxFileSizeKB").asLong(50000),
+                    lightMode,
+                    streamingOutput,
+                    lightMode || streamingOutput ? 0 : rootNode.path("tokenBudget").asLong(0) // Бюджет - только для обычной записи с содержимым
+            );
+        }
+    }
+
+    private static AnalysisConfig.OutputFormat parseOutputFormat(String value) {
+        if (value == null || value.isBlank()) {
+            return AnalysisConfig.OutputFormat.MARKDOWN;
+        }
+        try {
+            return AnalysisConfig.OutputFormat.valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            LOGGER.warn("Неизвестный формат вывода '{}', используется MARKDOWN", value);
+            return AnalysisConfig.OutputFormat.MARKDOWN;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.auditor.config;
 
+import com.example.auditor.utils.GlobSet;
+
 import java.io.IOException;
 import java.util.List;
 import java.util.Set;
@@ -35,6 +37,26 @@ public interface FilterConfiguration {
      */
     Set<String> getBlacklistedExtensions();
 
+    /**
+     * Возвращает include-паттерны, скомпилированные в {@link GlobSet}.
+     * Реализации могут кэшировать результат, т.к. он используется для каждого файла.
+     *
+     * @return Скомпилированный набор include-паттернов.
+     */
+    default GlobSet getIncludeGlobs() {
+        return GlobSet.compile(getIncludePatterns());
+    }
+
+    /**
+     * Возвращает exclude-паттерны, скомпилированные в {@link GlobSet}.
+     * Реализации могут кэшировать результат, т.к. он используется для каждого файла.
+     *
+     * @return Скомпилированный набор exclude-паттернов.
+     */
+    default GlobSet getExcludeGlobs() {
+        return GlobSet.compile(getExcludePatterns());
+    }
+
     /**
      * Загружает конфигурацию из JSON-ресурса.
      *
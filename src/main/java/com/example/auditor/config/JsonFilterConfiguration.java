@@ -1,6 +1,7 @@
 // src/main/java/com/example/auditor/analysis/config/JsonFilterConfiguration.java
 package com.example.auditor.config;
 
+import com.example.auditor.utils.GlobSet;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
@@ -22,11 +23,15 @@ public class JsonFilterConfiguration implements FilterConfiguration {
     private final List<String> includePatterns;
     private final List<String> excludePatterns;
     private final Set<String> blacklistedExtensions;
+    private final GlobSet includeGlobs; // Компилируются один раз при загрузке
+    private final GlobSet excludeGlobs;
 
     private JsonFilterConfiguration(List<String> includePatterns, List<String> excludePatterns, Set<String> blacklistedExtensions) {
         this.includePatterns = Collections.unmodifiableList(includePatterns);
         this.excludePatterns = Collections.unmodifiableList(excludePatterns);
         this.blacklistedExtensions = Collections.unmodifiableSet(blacklistedExtensions);
+        this.includeGlobs = GlobSet.compile(this.includePatterns);
+        this.excludeGlobs = GlobSet.compile(this.excludePatterns);
     }
 
     @Override
@@ -44,6 +49,16 @@ public class JsonFilterConfiguration implements FilterConfiguration {
         return blacklistedExtensions;
     }
 
+    @Override
+    public GlobSet getIncludeGlobs() {
+        return includeGlobs;
+    }
+
+    @Override
+    public GlobSet getExcludeGlobs() {
+        return excludeGlobs;
+    }
+
     /**
      * Загружает конфигурацию из JSON-ресурса в classpath.
      *
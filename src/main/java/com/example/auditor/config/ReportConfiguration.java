@@ -0,0 +1,194 @@
+package com.example.auditor.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+
+/**
+ * Настройки генерации отчётов, загружаемые из JSON-ресурса (report-config.json).
+ * <p>
+ * Содержит формат JSON-метаданных (один документ или NDJSON - запись на строку), признак записи
+ * бинарных метаданных, из которых результат анализа можно загрузить без повторного сканирования,
+ * лимиты части Markdown-отчёта (0 - отчёт пишется одним файлом) и порог выдержек: текстовые файлы
+ * больше порога выводятся началом и концом (заданное число строк), без чтения середины.
+ */
+public class ReportConfiguration {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReportConfiguration.class);
+
+    public static final String DEFAULT_RESOURCE = "/report-config.json";
+
+    // Конфигурация по умолчанию (загружается при первом обращении)
+    private static volatile ReportConfiguration defaultConfiguration = null;
+    private static final Object lock = new Object();
+
+    private final JsonMetadataFormat jsonMetadataFormat;
+    private final boolean binaryMetadata;
+    private final long partMaxBytes;
+    private final long partMaxTokens;
+    private final long excerptAboveBytes;
+    private final int excerptHeadLines;
+    private final int excerptTailLines;
+
+    public ReportConfiguration(JsonMetadataFormat jsonMetadataFormat, boolean binaryMetadata, long partMaxBytes, long partMaxTokens,
+                               long excerptAboveBytes, int excerptHeadLines, int excerptTailLines) {
+        this.jsonMetadataFormat = jsonMetadataFormat;
+        this.binaryMetadata = binaryMetadata;
+        this.partMaxBytes = partMaxBytes;
+        this.partMaxTokens = partMaxTokens;
+        this.excerptAboveBytes = excerptAboveBytes;
+        this.excerptHeadLines = excerptHeadLines;
+        this.excerptTailLines = excerptTailLines;
+    }
+
+    /**
+     * Возвращает формат файла JSON-метаданных.
+     *
+     * @return Формат метаданных.
+     */
+    public JsonMetadataFormat getJsonMetadataFormat() {
+        return jsonMetadataFormat;
+    }
+
+    /**
+     * Записывать ли вместе с JSON бинарные метаданные (см. BinaryMetadataGenerator).
+     *
+     * @return true, если бинарные метаданные включены.
+     */
+    public boolean isBinaryMetadata() {
+        return binaryMetadata;
+    }
+
+    /**
+     * Лимит размера одной части Markdown-отчёта в байтах.
+     *
+     * @return Лимит или 0, если не задан.
+     */
+    public long getPartMaxBytes() {
+        return partMaxBytes;
+    }
+
+    /**
+     * Лимит одной части Markdown-отчёта в оценочных токенах.
+     *
+     * @return Лимит или 0, если не задан.
+     */
+    public long getPartMaxTokens() {
+        return partMaxTokens;
+    }
+
+    /**
+     * Размер файла, начиная с которого в отчёт выводятся только начало и конец файла.
+     *
+     * @return Порог в байтах или 0, если файлы выводятся целиком.
+     */
+    public long getExcerptAboveBytes() {
+        return excerptAboveBytes;
+    }
+
+    /**
+     * Число первых строк в выдержке из большого файла.
+     */
+    public int getExcerptHeadLines() {
+        return excerptHeadLines;
+    }
+
+    /**
+     * Число последних строк в выдержке из большого файла.
+     */
+    public int getExcerptTailLines() {
+        return excerptTailLines;
+    }
+
+    /**
+     * Возвращает конфигурацию из ресурса по умолчанию (с одиночной загрузкой).
+     * При ошибке загрузки метаданные пишутся одним JSON-документом, без бинарной копии,
+     * Markdown-отчёт - одним файлом, а файлы выводятся целиком.
+     *
+     * @return Экземпляр ReportConfiguration.
+     */
+    public static ReportConfiguration getDefault() {
+        if (defaultConfiguration == null) {
+            synchronized (lock) {
+                if (defaultConfiguration == null) {
+                    try {
+                        defaultConfiguration = loadFromJsonResource(DEFAULT_RESOURCE);
+                    } catch (IOException e) {
+                        LOGGER.error("Ошибка при загрузке настроек отчетов из {}: {}", DEFAULT_RESOURCE, e.getMessage(), e);
+                        defaultConfiguration = new ReportConfiguration(JsonMetadataFormat.DOCUMENT, false, 0, 0, 0, 0, 0);
+                    }
+                }
+            }
+        }
+        return defaultConfiguration;
+    }
+
+    /**
+     * Загружает конфигурацию отчётов из JSON-ресурса в classpath.
+     *
+     * @param resourcePath Путь к ресурсу (например, "/report-config.json").
+     * @return Экземпляр ReportConfiguration.
+     * @throws IOException Если не удалось загрузить или распарсить файл.
+     */
+    public static ReportConfiguration loadFromJsonResource(String resourcePath) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        try (InputStream resourceStream = ReportConfiguration.class.getResourceAsStream(resourcePath)) {
+            if (resourceStream == null) {
+                throw new IOException("Не найден ресурс: " + resourcePath);
+            }
+            JsonNode rootNode = mapper.readTree(resourceStream);
+            JsonMetadataFormat jsonMetadataFormat = JsonMetadataFormat.fromString(rootNode.path("jsonMetadataFormat").asText(""));
+            boolean binaryMetadata = rootNode.path("binaryMetadata").asBoolean(false);
+            long partMaxBytes = Math.max(0, rootNode.path("partMaxBytes").asLong(0));
+            long partMaxTokens = Math.max(0, rootNode.path("partMaxTokens").asLong(0));
+            long excerptAboveBytes = Math.max(0, rootNode.path("excerptAboveBytes").asLong(0));
+            int excerptHeadLines = Math.max(0, rootNode.path("excerptHeadLines").asInt(200));
+            int excerptTailLines = Math.max(0, rootNode.path("excerptTailLines").asInt(50));
+
+            LOGGER.debug("Загружены настройки отчетов из {}, формат JSON-метаданных: {}, бинарные метаданные: {}, лимиты части: {} байт, {} токенов, "
+                            + "выдержки из файлов больше {} байт: {} + {} строк",
+                    resourcePath, jsonMetadataFormat, binaryMetadata, partMaxBytes, partMaxTokens,
+                    excerptAboveBytes, excerptHeadLines, excerptTailLines);
+            return new ReportConfiguration(jsonMetadataFormat, binaryMetadata, partMaxBytes, partMaxTokens,
+                    excerptAboveBytes, excerptHeadLines, excerptTailLines);
+        }
+    }
+
+    /**
+     * Формат файла JSON-метаданных.
+     */
+    public enum JsonMetadataFormat {
+        DOCUMENT(".json"), // Один документ: metadata, statistics, fileTree
+        NDJSON(".ndjson"); // Запись проекта, затем по записи на файл - разбирается потоково
+
+        private final String fileExtension;
+
+        JsonMetadataFormat(String fileExtension) {
+            this.fileExtension = fileExtension;
+        }
+
+        /**
+         * Расширение файла метаданных (с точкой).
+         */
+        public String getFileExtension() {
+            return fileExtension;
+        }
+
+        static JsonMetadataFormat fromString(String value) {
+            if (value == null || value.isBlank()) {
+                return DOCUMENT;
+            }
+            try {
+                return JsonMetadataFormat.valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                LOGGER.warn("Неизвестный формат JSON-метаданных '{}', используется DOCUMENT", value);
+                return DOCUMENT;
+            }
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.auditor.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Настройки сканера файлов, загружаемые из JSON-ресурса (scanner-config.json).
+ * <p>
+ * Содержит список игнорируемых директорий, режим обхода дерева проекта
+ * и режим инкрементального сканирования.
+ */
+public class ScannerConfiguration {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ScannerConfiguration.class);
+
+    public static final String DEFAULT_RESOURCE = "/scanner-config.json";
+
+    // Конфигурация по умолчанию (загружается при первом обращении)
+    private static volatile ScannerConfiguration defaultConfiguration = null;
+    private static final Object lock = new Object();
+
+    private final Set<String> ignoredDirectories;
+    private final ScanMode scanMode;
+    private final int parallelism;
+    private final IncrementalMode incrementalScan;
+
+    private ScannerConfiguration(Set<String> ignoredDirectories, ScanMode scanMode, int parallelism, IncrementalMode incrementalScan) {
+        this.ignoredDirectories = Collections.unmodifiableSet(ignoredDirectories);
+        this.scanMode = scanMode;
+        this.parallelism = parallelism;
+        this.incrementalScan = incrementalScan;
+    }
+
+    /**
+     * Возвращает имена директорий, которые сканер пропускает целиком.
+     *
+     * @return Множество имён директорий.
+     */
+    public Set<String> getIgnoredDirectories() {
+        return ignoredDirectories;
+    }
+
+    /**
+     * Возвращает режим обхода дерева проекта.
+     *
+     * @return Режим сканирования.
+     */
+    public ScanMode getScanMode() {
+        return scanMode;
+    }
+
+    /**
+     * Возвращает число потоков для параллельного сканирования.
+     *
+     * @return Число потоков (всегда больше 0).
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Возвращает режим повторного использования снимка предыдущего сканирования.
+     *
+     * @return Режим инкрементального сканирования.
+     */
+    public IncrementalMode getIncrementalScan() {
+        return incrementalScan;
+    }
+
+    /**
+     * Возвращает конфигурацию из ресурса по умолчанию (с одиночной загрузкой).
+     * При ошибке загрузки возвращается конфигурация без игнорируемых директорий
+     * и с последовательным режимом, чтобы сканирование всё равно было возможно.
+     *
+     * @return Экземпляр ScannerConfiguration.
+     */
+    public static ScannerConfiguration getDefault() {
+        if (defaultConfiguration == null) {
+            synchronized (lock) {
+                if (defaultConfiguration == null) {
+                    try {
+                        defaultConfiguration = loadFromJsonResource(DEFAULT_RESOURCE);
+                    } catch (IOException e) {
+                        LOGGER.error("Ошибка при загрузке настроек сканера из {}: {}", DEFAULT_RESOURCE, e.getMessage(), e);
+                        defaultConfiguration = new ScannerConfiguration(Collections.emptySet(), ScanMode.SEQUENTIAL, defaultParallelism(), IncrementalMode.OFF);
+                    }
+                }
+            }
+        }
+        return defaultConfiguration;
+    }
+
+    /**
+     * Загружает конфигурацию сканера из JSON-ресурса в classpath.
+     *
+     * @param resourcePath Путь к ресурсу (например, "/scanner-config.json").
+     * @return Экземпляр ScannerConfiguration.
+     * @throws IOException Если не удалось загрузить или распарсить файл.
+     */
+    public static ScannerConfiguration loadFromJsonResource(String resourcePath) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        try (InputStream resourceStream = ScannerConfiguration.class.getResourceAsStream(resourcePath)) {
+            if (resourceStream == null) {
+                throw new IOException("Не найден ресурс: " + resourcePath);
+            }
+            JsonNode rootNode = mapper.readTree(resourceStream);
+
+            Set<String> ignoredDirectories = new HashSet<>();
+            JsonNode ignoredDirsNode = rootNode.get("ignoredDirectories");
+            if (ignoredDirsNode == null || !ignoredDirsNode.isArray()) {
+                LOGGER.error("Неверный формат JSON в ресурсе {}: отсутствует массив 'ignoredDirectories'", resourcePath);
+            } else {
+                for (JsonNode node : ignoredDirsNode) {
+                    // Убедимся, что элемент массива - строка
+                    if (node != null && node.isValueNode()) {
+                        ignoredDirectories.add(node.asText());
+                    } else {
+                        LOGGER.warn("Найден нестроковый элемент в массиве 'ignoredDirectories': {}. Пропущен.", node);
+                    }
+                }
+            }
+
+            ScanMode scanMode = ScanMode.fromString(rootNode.path("scanMode").asText(""));
+            int parallelism = rootNode.path("parallelism").asInt(0);
+            if (parallelism <= 0) {
+                parallelism = defaultParallelism();
+            }
+
+            IncrementalMode incrementalScan = IncrementalMode.fromString(rootNode.path("incrementalScan").asText(""));
+
+            LOGGER.debug("Загружено {} игнорируемых директорий из {}, режим сканирования: {}, потоков: {}, инкрементальный режим: {}",
+                    ignoredDirectories.size(), resourcePath, scanMode, parallelism, incrementalScan);
+            return new ScannerConfiguration(ignoredDirectories, scanMode, parallelism, incrementalScan);
+        }
+    }
+
+    private static int defaultParallelism() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Режим обхода дерева проекта.
+     */
+    public enum ScanMode {
+        SEQUENTIAL, // Один поток, Files.walkFileTree (FileScannerImpl)
+        PARALLEL, // Fork-join обход по директориям (ParallelFileScanner)
+        GIT_INDEX; // Только отслеживаемые файлы из .git/index, без обхода ФС (GitIndexScanner)
+
+        static ScanMode fromString(String value) {
+            if (value == null || value.isBlank()) {
+                return SEQUENTIAL;
+            }
+            try {
+                return ScanMode.valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+            } catch (IllegalArgumentException e) {
+                LOGGER.warn("Неизвестный режим сканирования '{}', используется SEQUENTIAL", value);
+                return SEQUENTIAL;
+            }
+        }
+    }
+
+    /**
+     * Повторное использование снимка предыдущего сканирования (auditor_output).
+     */
+    public enum IncrementalMode {
+        OFF, // Полный обход при каждом запуске
+        VERIFY, // Неизменившиеся директории не перечитываются, файлы проверяются по размеру, mtime и ключу
+        TRUST; // Файлы неизменившихся директорий берутся из снимка без проверки
+
+        static IncrementalMode fromString(String value) {
+            if (value == null || value.isBlank()) {
+                return OFF;
+            }
+            try {
+                return IncrementalMode.valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                LOGGER.warn("Неизвестный инкрементальный режим '{}', используется OFF", value);
+                return OFF;
+            }
+        }
+    }
+}
@@ -5,6 +5,10 @@ import com.example.auditor.model.FileInfo;
 
 import java.nio.file.Path;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Интерфейс для компонента фильтрации файлов проекта.
@@ -19,4 +23,48 @@ public interface FileFilter {
      * @return Отфильтрованный список файлов.
      */
     List<FileInfo> filter(List<FileInfo> files, Path projectPath, AnalysisConfig config);
+
+    /**
+     * Фильтрует список файлов, передавая каждый принятый файл в accepted, как только он прошёл фильтр
+     * (например, для статистики, собираемой за тот же проход).
+     * Реализация по умолчанию вызывает {@link #filter(List, Path, AnalysisConfig)} и передаёт результат.
+     *
+     * @param files       Список файлов для фильтрации.
+     * @param projectPath Путь к корню проекта (для .gitignore).
+     * @param config      Конфигурация анализа, содержащая критерии фильтрации.
+     * @param accepted    Получатель принятых файлов, в порядке списка.
+     * @return Отфильтрованный список файлов.
+     */
+    default List<FileInfo> filter(List<FileInfo> files, Path projectPath, AnalysisConfig config, Consumer<? super FileInfo> accepted) {
+        List<FileInfo> filteredFiles = filter(files, projectPath, config);
+        filteredFiles.forEach(accepted);
+        return filteredFiles;
+    }
+
+    /**
+     * Фильтрует поток файлов, не материализуя его.
+     * Реализация по умолчанию собирает поток в список и вызывает {@link #filter(List, Path, AnalysisConfig)}.
+     *
+     * @param files       Поток файлов для фильтрации.
+     * @param projectPath Путь к корню проекта (для .gitignore).
+     * @param config      Конфигурация анализа, содержащая критерии фильтрации.
+     * @return Поток файлов, прошедших фильтр, в исходном порядке.
+     */
+    default Stream<FileInfo> filterStream(Stream<FileInfo> files, Path projectPath, AnalysisConfig config) {
+        return filter(files.collect(Collectors.toList()), projectPath, config).stream();
+    }
+
+    /**
+     * Возвращает предикат для отсечения поддеревьев во время сканирования.
+     * Предикат получает относительный путь директории (разделитель '/') и возвращает true,
+     * только если фильтр гарантированно исключит любой файл внутри неё.
+     * Реализация по умолчанию ничего не отсекает.
+     *
+     * @param projectPath Путь к корню проекта (для .gitignore).
+     * @param config      Конфигурация анализа.
+     * @return Предикат пропуска директорий.
+     */
+    default Predicate<String> directoryPruner(Path projectPath, AnalysisConfig config) {
+        return relativeDir -> false;
+    }
 }
\ No newline at end of file
@@ -2,6 +2,12 @@ package com.example.auditor.core;
 
 import com.example.auditor.model.AnalysisConfig;
 import com.example.auditor.model.AnalysisResult;
+import com.example.auditor.model.FileInfo;
+import com.example.auditor.model.ProjectStatistics;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Интерфейс для компонента анализа проекта.
@@ -14,4 +20,52 @@ public interface ProjectAnalyzer {
      * @return Объект AnalysisResult с результатами анализа.
      */
     AnalysisResult analyze(AnalysisConfig config);
+
+    /**
+     * Выполняет анализ в потоковом режиме: файлы отдаются по мере того, как проходят фильтр.
+     * Реализация по умолчанию выполняет полный анализ и возвращает поток по его результату.
+     * Возвращённый поток должен быть закрыт.
+     *
+     * @param config Объект AnalysisConfig с настройками.
+     * @return Поток отфильтрованных FileInfo.
+     */
+    default Stream<FileInfo> analyzeStream(AnalysisConfig config) {
+        return analyze(config).getFileInfoList().stream();
+    }
+
+    /**
+     * Собирает итоговый результат анализа по уже отфильтрованным файлам
+     * (используется в потоковом режиме, когда список формируется по ходу генерации отчёта).
+     *
+     * @param files  Отфильтрованные файлы.
+     * @param config Объект AnalysisConfig с настройками.
+     * @return Объект AnalysisResult с результатами анализа.
+     */
+    default AnalysisResult summarize(List<FileInfo> files, AnalysisConfig config) {
+        return summarize(files, ProjectStatistics.of(files), config);
+    }
+
+    /**
+     * Собирает итоговый результат по отфильтрованным файлам и статистике, уже накопленной
+     * по мере прохождения файлами фильтра.
+     *
+     * @param files      Отфильтрованные файлы.
+     * @param statistics Статистика по этим файлам.
+     * @param config     Объект AnalysisConfig с настройками.
+     * @return Объект AnalysisResult с результатами анализа.
+     */
+    default AnalysisResult summarize(List<FileInfo> files, ProjectStatistics statistics, AnalysisConfig config) {
+        Path projectPath = config.getProjectPath();
+        return new AnalysisResult(files, projectPath.getFileName().toString(), "Generic", statistics);
+    }
+
+    /**
+     * Передаёт сканеру виды содержимого, определённые при генерации отчёта (см. {@link ProjectScanner#recordContentKinds}).
+     * Реализация по умолчанию ничего не делает.
+     *
+     * @param files  Файлы отчёта после генерации.
+     * @param config Объект AnalysisConfig с настройками.
+     */
+    default void recordContentKinds(List<FileInfo> files, AnalysisConfig config) {
+    }
 }
\ No newline at end of file
@@ -5,6 +5,8 @@ import com.example.auditor.model.FileInfo;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 /**
  * Интерфейс для компонента сканирования файлов проекта.
@@ -17,4 +19,52 @@ public interface ProjectScanner {
      * @return Список FileInfo, представляющих файлы проекта.
      */
     List<FileInfo> scan(Path projectPath) throws IOException;
+
+    /**
+     * Сканирует проект лениво, отдавая файлы по мере обхода дерева.
+     * Реализация по умолчанию материализует список через {@link #scan(Path)}.
+     * Возвращённый поток держит открытые директории и должен быть закрыт.
+     *
+     * @param projectPath Путь к корню проекта.
+     * @return Поток FileInfo в порядке обхода.
+     */
+    default Stream<FileInfo> scanStream(Path projectPath) throws IOException {
+        return scan(projectPath).stream();
+    }
+
+    /**
+     * Сканирует проект, не заходя в директории, отвергнутые предикатом.
+     * Реализация по умолчанию игнорирует предикат (файлы отсеет фильтр).
+     *
+     * @param projectPath   Путь к корню проекта.
+     * @param skipDirectory Предикат по относительному пути директории (разделитель '/'),
+     *                      возвращающий true, если всё поддерево можно пропустить.
+     * @return Список FileInfo, представляющих файлы проекта.
+     */
+    default List<FileInfo> scan(Path projectPath, Predicate<String> skipDirectory) throws IOException {
+        return scan(projectPath);
+    }
+
+    /**
+     * Потоковый вариант {@link #scan(Path, Predicate)}.
+     * Реализация по умолчанию материализует список через {@link #scan(Path, Predicate)}.
+     *
+     * @param projectPath   Путь к корню проекта.
+     * @param skipDirectory Предикат пропуска директорий по относительному пути.
+     * @return Поток FileInfo в порядке обхода.
+     */
+    default Stream<FileInfo> scanStream(Path projectPath, Predicate<String> skipDirectory) throws IOException {
+        return scan(projectPath, skipDirectory).stream();
+    }
+
+    /**
+     * Запоминает виды содержимого, определённые при чтении файлов для отчёта,
+     * чтобы следующее сканирование не определяло их заново.
+     * Реализация по умолчанию ничего не делает.
+     *
+     * @param projectPath Путь к корню проекта.
+     * @param files       Файлы отчёта после генерации.
+     */
+    default void recordContentKinds(Path projectPath, List<FileInfo> files) {
+    }
 }
\ No newline at end of file
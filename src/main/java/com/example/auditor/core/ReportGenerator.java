@@ -2,8 +2,15 @@ package com.example.auditor.core;
 
 import com.example.auditor.model.AnalysisConfig;
 import com.example.auditor.model.AnalysisResult;
+import com.example.auditor.model.FileInfo;
+import com.example.auditor.model.ProjectStatistics;
 
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.stream.Stream;
 
 /**
  * Интерфейс для компонента генерации отчетов.
@@ -17,4 +24,40 @@ public interface ReportGenerator {
      * @param outputDir Директория, куда сохранять отчеты.
      */
     void generate(AnalysisResult result, AnalysisConfig config, Path outputDir);
-}
\ No newline at end of file
+
+    /**
+     * Генерирует отчеты по потоку файлов, начиная запись до завершения сканирования.
+     * Статистика набирается по мере получения файлов, итоговые данные (тип проекта) вычисляются в конце через summarizer.
+     * Реализация по умолчанию собирает поток и вызывает {@link #generate(AnalysisResult, AnalysisConfig, Path)}.
+     *
+     * @param files      Поток отфильтрованных файлов.
+     * @param config     Объект AnalysisConfig с настройками вывода.
+     * @param outputDir  Директория, куда сохранять отчеты.
+     * @param summarizer Функция, строящая AnalysisResult по всем полученным файлам и их статистике.
+     */
+    default void generateStreaming(Stream<FileInfo> files, AnalysisConfig config, Path outputDir,
+                                   BiFunction<List<FileInfo>, ProjectStatistics, AnalysisResult> summarizer) {
+        List<FileInfo> collected = new ArrayList<>();
+        ProjectStatistics statistics = new ProjectStatistics();
+        files.forEachOrdered(file -> {
+            collected.add(file);
+            statistics.add(file);
+        });
+        generate(summarizer.apply(collected, statistics), config, outputDir);
+    }
+
+    /**
+     * Повторно генерирует отчеты после изменения части файлов (режим наблюдения).
+     * Реализация может хранить разделы отчёта между вызовами и перестраивать только разделы
+     * изменившихся файлов. Реализация по умолчанию вызывает {@link #generate(AnalysisResult, AnalysisConfig, Path)}.
+     *
+     * @param result       Объект AnalysisResult с актуальным списком файлов.
+     * @param config       Объект AnalysisConfig с настройками вывода.
+     * @param outputDir    Директория, куда сохранять отчеты.
+     * @param changedPaths Относительные пути файлов, изменённых, добавленных или удалённых
+     *                     с предыдущего вызова; null - все разделы строятся заново.
+     */
+    default void regenerate(AnalysisResult result, AnalysisConfig config, Path outputDir, Set<String> changedPaths) {
+        generate(result, config, outputDir);
+    }
+}
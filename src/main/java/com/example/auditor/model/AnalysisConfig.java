@@ -16,11 +16,31 @@ public class AnalysisConfig {
     private final long maxFileSizeKB; // Максимальный размер файла в KB
     private final List<String> excludedPatterns; // Паттерны исключения (из .gitignore и других)
     private final boolean lightMode; // Режим "только структура"
+    private final boolean streamingOutput; // Потоковая запись отчёта (статистика и структура в конце)
+    private final long tokenBudget; // Бюджет токенов Markdown-отчёта (0 - без ограничения)
 
-    // Конструктор с всеми параметрами
     public AnalysisConfig(Path projectPath, OutputFormat outputFormat, String outputFileName,
                           boolean generateJsonMetadata, boolean openResultsAfterwards,
                           boolean useGitIgnore, long maxFileSizeKB, List<String> excludedPatterns, boolean lightMode) {
+        // Вызов конструктора с обычной (не потоковой) записью отчёта
+        this(projectPath, outputFormat, outputFileName, generateJsonMetadata, openResultsAfterwards,
+                useGitIgnore, maxFileSizeKB, excludedPatterns, lightMode, false);
+    }
+
+    public AnalysisConfig(Path projectPath, OutputFormat outputFormat, String outputFileName,
+                          boolean generateJsonMetadata, boolean openResultsAfterwards,
+                          boolean useGitIgnore, long maxFileSizeKB, List<String> excludedPatterns, boolean lightMode,
+                          boolean streamingOutput) {
+        // Вызов конструктора без бюджета токенов
+        this(projectPath, outputFormat, outputFileName, generateJsonMetadata, openResultsAfterwards,
+                useGitIgnore, maxFileSizeKB, excludedPatterns, lightMode, streamingOutput, 0);
+    }
+
+    // Конструктор с всеми параметрами
+    public AnalysisConfig(Path projectPath, OutputFormat outputFormat, String outputFileName,
+                          boolean generateJsonMetadata, boolean openResultsAfterwards,
+                          boolean useGitIgnore, long maxFileSizeKB, List<String> excludedPatterns, boolean lightMode,
+                          boolean streamingOutput, long tokenBudget) {
         this.projectPath = projectPath;
         this.outputFormat = outputFormat;
         this.outputFileName = outputFileName;
@@ -30,6 +50,8 @@ public class AnalysisConfig {
         this.maxFileSizeKB = maxFileSizeKB;
         this.excludedPatterns = excludedPatterns != null ? excludedPatterns : List.of();
         this.lightMode = lightMode;
+        this.streamingOutput = streamingOutput;
+        this.tokenBudget = Math.max(0, tokenBudget);
     }
 
     // Геттеры
@@ -69,6 +91,19 @@ public class AnalysisConfig {
         return lightMode;
     }
 
+    public boolean isStreamingOutput() {
+        return streamingOutput;
+    }
+
+    /**
+     * Бюджет токенов Markdown-отчёта: в отчёт попадают самые важные файлы, сколько поместится.
+     *
+     * @return Бюджет или 0, если отчёт не ограничен.
+     */
+    public long getTokenBudget() {
+        return tokenBudget;
+    }
+
     // Вспомогательный enum для формата вывода
     public enum OutputFormat {
         MARKDOWN,
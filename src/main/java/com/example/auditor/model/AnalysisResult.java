@@ -11,14 +11,28 @@ public class AnalysisResult {
     private final String projectType; // Определенный тип проекта (Java, Go, etc.)
     private final long totalSizeKB;
     private final int totalFiles;
+    private final ProjectStatistics statistics; // Статистика, собранная за один проход по fileInfoList
 
     // Конструктор
     public AnalysisResult(List<FileInfo> fileInfoList, String projectName, String projectType, long totalSizeKB, int totalFiles) {
+        this(fileInfoList, projectName, projectType, totalSizeKB, totalFiles, ProjectStatistics.of(fileInfoList));
+    }
+
+    /**
+     * Конструктор с уже собранной статистикой (итоги берутся из неё).
+     */
+    public AnalysisResult(List<FileInfo> fileInfoList, String projectName, String projectType, ProjectStatistics statistics) {
+        this(fileInfoList, projectName, projectType, statistics.getTotalSizeKB(), statistics.getTotalFiles(), statistics);
+    }
+
+    private AnalysisResult(List<FileInfo> fileInfoList, String projectName, String projectType, long totalSizeKB, int totalFiles,
+                           ProjectStatistics statistics) {
         this.fileInfoList = fileInfoList;
         this.projectName = projectName;
         this.projectType = projectType;
         this.totalSizeKB = totalSizeKB;
         this.totalFiles = totalFiles;
+        this.statistics = statistics;
     }
 
     // Геттеры
@@ -41,4 +55,8 @@ public class AnalysisResult {
     public int getTotalFiles() {
         return totalFiles;
     }
+
+    public ProjectStatistics getStatistics() {
+        return statistics;
+    }
 }
\ No newline at end of file
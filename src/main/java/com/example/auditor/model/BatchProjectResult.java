@@ -0,0 +1,67 @@
+package com.example.auditor.model;
+
+import java.nio.file.Path;
+
+/**
+ * Итог аудита одного проекта в пакетном режиме.
+ * Хранит только сводные данные: списки файлов проектов пакета в памяти не удерживаются.
+ */
+public class BatchProjectResult {
+    private final Path projectPath;
+    private final Path outputDir; // Директория отчётов проекта
+    private final String projectName;
+    private final String projectType; // null, если анализ не удался
+    private final int totalFiles;
+    private final long totalSizeKB;
+    private final long durationMillis;
+    private final String error; // null при успешном аудите
+
+    public BatchProjectResult(Path projectPath, Path outputDir, String projectName, String projectType,
+                              int totalFiles, long totalSizeKB, long durationMillis, String error) {
+        this.projectPath = projectPath;
+        this.outputDir = outputDir;
+        this.projectName = projectName;
+        this.projectType = projectType;
+        this.totalFiles = totalFiles;
+        this.totalSizeKB = totalSizeKB;
+        this.durationMillis = durationMillis;
+        this.error = error;
+    }
+
+    // Геттеры
+    public Path getProjectPath() {
+        return projectPath;
+    }
+
+    public Path getOutputDir() {
+        return outputDir;
+    }
+
+    public String getProjectName() {
+        return projectName;
+    }
+
+    public String getProjectType() {
+        return projectType;
+    }
+
+    public int getTotalFiles() {
+        return totalFiles;
+    }
+
+    public long getTotalSizeKB() {
+        return totalSizeKB;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public boolean isSuccessful() {
+        return error == null;
+    }
+}
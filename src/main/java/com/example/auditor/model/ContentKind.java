@@ -0,0 +1,23 @@
+package com.example.auditor.model;
+
+/**
+ * Вид содержимого файла по первым байтам (см. {@code ContentSniffer}); кодировка текста уточняется
+ * при чтении файла для отчёта.
+ */
+public enum ContentKind {
+    UNKNOWN, // Ещё не определялся
+    TEXT, // UTF-8 или однобайтовый текст (по первым байтам); после чтения целиком - корректная UTF-8
+    UTF16_LE, // Текст в UTF-16 (с BOM или без)
+    UTF16_BE,
+    BINARY, // Бинарные данные - содержимое в отчёт не выводится
+    SINGLE_BYTE_TEXT; // Текст не в UTF-8 (выяснено при чтении): в отчёте перекодируется, до 3 байтов UTF-8 на байт
+
+    private static final ContentKind[] VALUES = values();
+
+    /**
+     * Вид по номеру (ordinal); неизвестный номер - {@link #UNKNOWN}.
+     */
+    public static ContentKind fromCode(int code) {
+        return code >= 0 && code < VALUES.length ? VALUES[code] : UNKNOWN;
+    }
+}
@@ -13,6 +13,8 @@ public class FileInfo {
     private final String extension; // Расширение файла (без точки)
     private final String type; // Тип файла (FILE, DATA, SCRIPT, DOC, etc.)
     private boolean priority; // Приоритетный ли файл (соответствует include-паттернам)
+    private ContentKind contentKind = ContentKind.UNKNOWN; // Вид содержимого, если уже определён
+    private String duplicateOf; // Путь первого файла с тем же содержимым; null - не дубликат
 
     public FileInfo(Path fullName, String name, String relativePath, long length, String extension, String type) {
         // Вызов конструктора с приоритетом по умолчанию false
@@ -30,6 +32,13 @@ public class FileInfo {
         this.priority = priority; // Установка приоритета
     }
 
+    /**
+     * Конструктор для представлений, которые хранят данные сами и переопределяют геттеры (см. {@link FileTable}).
+     */
+    protected FileInfo() {
+        this(null, null, null, 0, null, null, false);
+    }
+
     // Геттеры
     public Path getFullName() {
         return fullName;
@@ -63,4 +72,22 @@ public class FileInfo {
     public void setPriority(boolean priority) {
         this.priority = priority;
     }
+
+    // Вид содержимого (текст, UTF-16, бинарный); UNKNOWN - определяется при первом чтении
+    public ContentKind getContentKind() {
+        return contentKind;
+    }
+
+    public void setContentKind(ContentKind contentKind) {
+        this.contentKind = contentKind != null ? contentKind : ContentKind.UNKNOWN;
+    }
+
+    // Относительный путь первого (в порядке отчёта) файла с тем же содержимым; null - файл не дубликат
+    public String getDuplicateOf() {
+        return duplicateOf;
+    }
+
+    public void setDuplicateOf(String duplicateOf) {
+        this.duplicateOf = duplicateOf;
+    }
 }
\ No newline at end of file
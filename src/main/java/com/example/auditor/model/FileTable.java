@@ -0,0 +1,305 @@
+package com.example.auditor.model;
+
+import java.nio.file.Path;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Компактный список файлов проекта, хранящий поля {@link FileInfo} по столбцам.
+ * <p>
+ * Каждая директория хранится один раз (номер, относительный путь и {@link Path}), имена файлов
+ * лежат в общем массиве символов, размеры - в {@code long[]}, типы и вид содержимого - байтовыми кодами,
+ * расширения - номерами в словаре, признак приоритета - в {@link BitSet}, пути оригиналов
+ * у немногих файлов-дубликатов - в отдельной таблице по номеру строки.
+ * На файл приходится несколько десятков байт вместо нескольких объектов.
+ * <p>
+ * {@link #get(int)} возвращает лёгкое представление FileInfo: строки (имя, относительный путь)
+ * и полный путь собираются при обращении, {@link FileInfo#setPriority(boolean)} и
+ * {@link FileInfo#setContentKind(ContentKind)} и {@link FileInfo#setDuplicateOf(String)} пишут в таблицу.
+ * Представления одной строки таблицы равны между собой ({@code equals}), но не идентичны.
+ * Файл, который не раскладывается на столбцы (имя не совпадает с концом относительного пути,
+ * полный путь не лежит в директории остальных файлов и т.п.), хранится как есть.
+ * <p>
+ * Поддерживается только добавление в конец. Не потокобезопасен: заполняется в одном потоке,
+ * после чего может читаться из нескольких.
+ */
+public class FileTable extends AbstractList<FileInfo> implements RandomAccess {
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int MAX_TYPES = 256; // Коды типов - байты
+
+    private int size;
+    private int[] directoryIds = new int[INITIAL_CAPACITY];
+    private int[] nameOffsets = new int[INITIAL_CAPACITY + 1]; // Имя файла i - names[nameOffsets[i], nameOffsets[i + 1])
+    private char[] names = new char[INITIAL_CAPACITY * 16];
+    private long[] lengths = new long[INITIAL_CAPACITY];
+    private byte[] typeCodes = new byte[INITIAL_CAPACITY];
+    private int[] extensionIds = new int[INITIAL_CAPACITY];
+    private byte[] contentKinds = new byte[INITIAL_CAPACITY]; // ContentKind.ordinal()
+    private final BitSet priority = new BitSet();
+    private final Map<Integer, String> duplicateOf = new ConcurrentHashMap<>(); // Только дубликаты; отмечаются во время записи отчётов
+
+    private final Dictionary directories = new Dictionary(); // Относительный путь директории ("" или с '/' в конце)
+    private final List<Path> directoryPaths = new ArrayList<>(); // Полный путь директории по номеру
+    private final Dictionary types = new Dictionary();
+    private final Dictionary extensions = new Dictionary();
+    private final Map<Integer, FileInfo> irregular = new HashMap<>(); // Файлы, хранимые как есть
+
+    /**
+     * Копирует список файлов в таблицу.
+     */
+    public static FileTable of(List<FileInfo> files) {
+        FileTable table = new FileTable();
+        for (FileInfo file : files) {
+            table.add(file);
+        }
+        return table;
+    }
+
+    @Override
+    public boolean add(FileInfo file) {
+        ensureCapacity(size + 1);
+        int index = size;
+        String name = file.getName();
+        String relativePath = file.getRelativePath();
+        Path fullName = file.getFullName();
+        int directoryLength = name != null && relativePath != null ? relativePath.length() - name.length() : -1;
+
+        if (directoryLength < 0 || !relativePath.endsWith(name)
+                || directoryLength > 0 && relativePath.charAt(directoryLength - 1) != '/'
+                || (types.size() == MAX_TYPES && types.find(file.getType()) < 0)) {
+            return addIrregular(index, file);
+        }
+        Path parent = fullName != null ? fullName.getParent() : null;
+        if (parent == null || !fullName.getFileName().toString().equals(name)) {
+            return addIrregular(index, file); // Полный путь не восстанавливается как директория + имя
+        }
+        int directoryId = directories.find(relativePath, directoryLength);
+        if (directoryId < 0) {
+            directoryId = directories.add(relativePath.substring(0, directoryLength));
+            directoryPaths.add(parent);
+        } else if (!directoryPaths.get(directoryId).equals(parent)) {
+            return addIrregular(index, file); // Полный путь не в той директории, что у соседей
+        }
+
+        directoryIds[index] = directoryId;
+        appendName(index, name);
+        lengths[index] = file.getLength();
+        typeCodes[index] = (byte) types.intern(file.getType());
+        extensionIds[index] = extensions.intern(file.getExtension());
+        priority.set(index, file.isPriority());
+        contentKinds[index] = (byte) file.getContentKind().ordinal();
+        if (file.getDuplicateOf() != null) {
+            duplicateOf.put(index, file.getDuplicateOf());
+        }
+        size++;
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public void add(int index, FileInfo file) {
+        if (index != size) {
+            throw new UnsupportedOperationException("FileTable supports appending only");
+        }
+        add(file);
+    }
+
+    @Override
+    public FileInfo get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+        if (!irregular.isEmpty()) {
+            FileInfo file = irregular.get(index);
+            if (file != null) {
+                return file;
+            }
+        }
+        return new Row(index);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    // Файл хранится целиком; в столбцах остаётся пустая строка, чтобы номера совпадали с индексами
+    private boolean addIrregular(int index, FileInfo file) {
+        irregular.put(index, file);
+        nameOffsets[index + 1] = nameOffsets[index];
+        size++;
+        modCount++;
+        return true;
+    }
+
+    private void appendName(int index, String name) {
+        int start = nameOffsets[index];
+        int end = start + name.length();
+        if (end > names.length) {
+            names = Arrays.copyOf(names, Math.max(end, names.length * 2));
+        }
+        name.getChars(0, name.length(), names, start);
+        nameOffsets[index + 1] = end;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= lengths.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, lengths.length * 2);
+        directoryIds = Arrays.copyOf(directoryIds, newCapacity);
+        nameOffsets = Arrays.copyOf(nameOffsets, newCapacity + 1);
+        lengths = Arrays.copyOf(lengths, newCapacity);
+        typeCodes = Arrays.copyOf(typeCodes, newCapacity);
+        extensionIds = Arrays.copyOf(extensionIds, newCapacity);
+        contentKinds = Arrays.copyOf(contentKinds, newCapacity);
+    }
+
+    private String name(int index) {
+        return new String(names, nameOffsets[index], nameOffsets[index + 1] - nameOffsets[index]);
+    }
+
+    // Представление строки таблицы
+    private final class Row extends FileInfo {
+        private final int index;
+
+        private Row(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public Path getFullName() {
+            return directoryPaths.get(directoryIds[index]).resolve(name(index));
+        }
+
+        @Override
+        public String getName() {
+            return name(index);
+        }
+
+        @Override
+        public String getRelativePath() {
+            return directories.get(directoryIds[index]).concat(name(index));
+        }
+
+        @Override
+        public long getLength() {
+            return lengths[index];
+        }
+
+        @Override
+        public String getExtension() {
+            return extensions.get(extensionIds[index]);
+        }
+
+        @Override
+        public String getType() {
+            return types.get(typeCodes[index] & 0xFF);
+        }
+
+        @Override
+        public boolean isPriority() {
+            return priority.get(index);
+        }
+
+        @Override
+        public void setPriority(boolean value) {
+            priority.set(index, value);
+        }
+
+        @Override
+        public ContentKind getContentKind() {
+            return ContentKind.fromCode(contentKinds[index]);
+        }
+
+        @Override
+        public void setContentKind(ContentKind contentKind) {
+            contentKinds[index] = (byte) (contentKind != null ? contentKind : ContentKind.UNKNOWN).ordinal();
+        }
+
+        @Override
+        public String getDuplicateOf() {
+            return duplicateOf.isEmpty() ? null : duplicateOf.get(index);
+        }
+
+        @Override
+        public void setDuplicateOf(String path) {
+            if (path != null) {
+                duplicateOf.put(index, path);
+            } else if (!duplicateOf.isEmpty()) {
+                duplicateOf.remove(index);
+            }
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Row && ((Row) other).index == index && ((Row) other).table() == table();
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(table()) + index;
+        }
+
+        private FileTable table() {
+            return FileTable.this;
+        }
+    }
+
+    // Словарь строк: строка -> номер в порядке добавления
+    private static final class Dictionary {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+        private int last = -1; // Последний найденный номер: файлы одной директории обычно идут подряд
+
+        int intern(String value) {
+            int id = find(value);
+            return id >= 0 ? id : add(value);
+        }
+
+        int find(String value) {
+            Integer id = ids.get(value);
+            return id != null ? id : -1;
+        }
+
+        // Поиск по префиксу строки text длиной length без создания подстроки для повторного ключа
+        int find(String text, int length) {
+            if (last >= 0) {
+                String candidate = values.get(last);
+                if (candidate.length() == length && text.startsWith(candidate)) {
+                    return last;
+                }
+            }
+            Integer id = ids.get(text.substring(0, length));
+            if (id != null) {
+                last = id;
+                return id;
+            }
+            return -1;
+        }
+
+        int add(String value) {
+            int id = values.size();
+            values.add(value);
+            ids.put(value, id);
+            last = id;
+            return id;
+        }
+
+        String get(int id) {
+            return values.get(id);
+        }
+
+        int size() {
+            return values.size();
+        }
+    }
+}
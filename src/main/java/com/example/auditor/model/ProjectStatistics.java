@@ -0,0 +1,226 @@
+package com.example.auditor.model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Статистика по отфильтрованным файлам проекта, собираемая за один проход.
+ * <p>
+ * Файлы добавляются по одному ({@link #add(FileInfo)}); по ним накапливаются число файлов и байтов
+ * по расширениям, число файлов по типам, сводки по директориям (с учётом вложенных) и гистограмма
+ * размеров. Ключи (расширение, тип, директория) один раз переводятся в порядковый номер,
+ * а счётчики хранятся в массивах примитивов - без упаковки Long на каждый файл.
+ * Номера выдаются в порядке первого появления ключа. Директории-предки ищутся по длине префикса пути,
+ * начиная с директорий предыдущего файла: для файлов одной директории подстроки не создаются.
+ * <p>
+ * Не потокобезопасен: заполняется в одном потоке, после чего только читается.
+ */
+public class ProjectStatistics {
+
+    /**
+     * Число корзин гистограммы размеров: корзина i (i > 0) - файлы размером [2^(i-1), 2^i) байт,
+     * корзина 0 - пустые файлы.
+     */
+    public static final int SIZE_BUCKETS = 64;
+
+    private int totalFiles;
+    private long totalBytes;
+
+    private final Counters extensions = new Counters();
+    private final Counters types = new Counters();
+    private final Counters directories = new Counters(); // Директория и все её предки, без корня
+    private int[] lastDirectories = new int[8]; // Номера директорий-предков предыдущего файла по глубине
+    private final long[] sizeHistogram = new long[SIZE_BUCKETS];
+    private final Set<String> fileNames = new HashSet<>(); // Имена файлов в нижнем регистре (определение типа проекта)
+
+    /**
+     * Собирает статистику по списку файлов.
+     */
+    public static ProjectStatistics of(List<FileInfo> files) {
+        ProjectStatistics statistics = new ProjectStatistics();
+        for (FileInfo file : files) {
+            statistics.add(file);
+        }
+        return statistics;
+    }
+
+    /**
+     * Учитывает один файл.
+     */
+    public void add(FileInfo file) {
+        long length = file.getLength();
+        totalFiles++;
+        totalBytes += length;
+        extensions.add(file.getExtension(), length);
+        types.add(file.getType(), length);
+        sizeHistogram[sizeBucket(length)]++;
+
+        String relativePath = file.getRelativePath();
+        int depth = 0;
+        for (int slash = relativePath.indexOf('/'); slash > 0; slash = relativePath.indexOf('/', slash + 1)) {
+            if (depth == lastDirectories.length) {
+                lastDirectories = Arrays.copyOf(lastDirectories, depth * 2);
+            }
+            int id = directories.find(relativePath, slash, lastDirectories[depth]);
+            lastDirectories[depth++] = id;
+            directories.add(id, length);
+        }
+        int lastSlash = relativePath.lastIndexOf('/');
+        fileNames.add(relativePath.substring(lastSlash + 1).toLowerCase(Locale.ROOT));
+    }
+
+    public int getTotalFiles() {
+        return totalFiles;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public long getTotalSizeKB() {
+        return totalBytes / 1024;
+    }
+
+    /**
+     * Число файлов по расширениям. Порядок обхода совпадает с
+     * {@code groupingBy(FileInfo::getExtension, counting())} по тому же списку файлов.
+     */
+    public Map<String, Long> getExtensionCounts() {
+        return extensions.countsAsHashMap();
+    }
+
+    /**
+     * Суммарный размер файлов (в байтах) по расширениям, в порядке первого появления.
+     */
+    public Map<String, Long> getExtensionBytes() {
+        return extensions.bytesAsMap();
+    }
+
+    public boolean hasExtension(String extension) {
+        return extensions.contains(extension);
+    }
+
+    /**
+     * Число файлов по типам (FILE, DATA, SCRIPT, ...), в порядке первого появления.
+     */
+    public Map<String, Long> getTypeCounts() {
+        return types.countsAsMap();
+    }
+
+    /**
+     * Число файлов по директориям, включая файлы вложенных директорий (ключ - относительный путь через '/').
+     */
+    public Map<String, Long> getDirectoryFileCounts() {
+        return directories.countsAsMap();
+    }
+
+    /**
+     * Суммарный размер файлов (в байтах) по директориям, включая вложенные.
+     */
+    public Map<String, Long> getDirectoryBytes() {
+        return directories.bytesAsMap();
+    }
+
+    /**
+     * Гистограмма размеров файлов (см. {@link #SIZE_BUCKETS}); возвращается копия.
+     */
+    public long[] getSizeHistogram() {
+        return sizeHistogram.clone();
+    }
+
+    /**
+     * Есть ли среди файлов (в любой директории) файл с таким именем, без учёта регистра.
+     */
+    public boolean hasFileName(String name) {
+        return fileNames.contains(name.toLowerCase(Locale.ROOT));
+    }
+
+    public Set<String> getFileNames() {
+        return Collections.unmodifiableSet(fileNames);
+    }
+
+    /**
+     * Номер корзины гистограммы для размера файла.
+     */
+    public static int sizeBucket(long length) {
+        return length <= 0 ? 0 : 64 - Long.numberOfLeadingZeros(length);
+    }
+
+    // Счётчики числа файлов и байтов по строковому ключу; ключ -> номер, номер -> счётчики в массивах
+    private static final class Counters {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private String[] keys = new String[16];
+        private long[] counts = new long[16];
+        private long[] bytes = new long[16];
+        private int size;
+
+        void add(String key, long length) {
+            Integer id = ids.get(key);
+            add(id != null ? id : put(key), length);
+        }
+
+        void add(int id, long length) {
+            counts[id]++;
+            bytes[id] += length;
+        }
+
+        // Номер ключа - префикса text длиной length (добавляется, если нового); hint - вероятный номер
+        int find(String text, int length, int hint) {
+            if (hint < size && keys[hint].length() == length && text.startsWith(keys[hint])) {
+                return hint;
+            }
+            String key = text.substring(0, length);
+            Integer id = ids.get(key);
+            return id != null ? id : put(key);
+        }
+
+        private int put(String key) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                counts = Arrays.copyOf(counts, size * 2);
+                bytes = Arrays.copyOf(bytes, size * 2);
+            }
+            int id = size++;
+            ids.put(key, id);
+            keys[id] = key;
+            return id;
+        }
+
+        boolean contains(String key) {
+            return ids.containsKey(key);
+        }
+
+        // Те же вставки, что делает groupingBy (computeIfAbsent в порядке первого появления), - тот же порядок обхода
+        Map<String, Long> countsAsHashMap() {
+            Map<String, Long> result = new HashMap<>();
+            for (int i = 0; i < size; i++) {
+                long count = counts[i];
+                result.computeIfAbsent(keys[i], key -> count);
+            }
+            return result;
+        }
+
+        Map<String, Long> countsAsMap() {
+            Map<String, Long> result = new LinkedHashMap<>();
+            for (int i = 0; i < size; i++) {
+                result.put(keys[i], counts[i]);
+            }
+            return result;
+        }
+
+        Map<String, Long> bytesAsMap() {
+            Map<String, Long> result = new LinkedHashMap<>();
+            for (int i = 0; i < size; i++) {
+                result.put(keys[i], bytes[i]);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.auditor.reporting;
+
+import com.example.auditor.model.BatchProjectResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Сводный отчёт пакетного аудита: по строке на проект (тип, число файлов, размер, время, ошибка)
+ * в Markdown ({@code batch-summary.md}) и JSON ({@code batch-summary.json}).
+ */
+public class BatchSummaryGenerator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchSummaryGenerator.class);
+
+    public static final String MARKDOWN_FILE = "batch-summary.md";
+    public static final String JSON_FILE = "batch-summary.json";
+
+    public void generate(List<BatchProjectResult> results, Path outputDir) {
+        try {
+            Files.createDirectories(outputDir);
+        } catch (IOException e) {
+            LOGGER.error("Ошибка при создании директории вывода: {}", e.getMessage(), e);
+            return;
+        }
+        String currentDate = ReportUtils.getCurrentDate();
+        writeMarkdown(results, outputDir.resolve(MARKDOWN_FILE).toString(), currentDate);
+        writeJson(results, outputDir.resolve(JSON_FILE).toString(), currentDate);
+    }
+
+    private void writeMarkdown(List<BatchProjectResult> results, String outputFile, String currentDate) {
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(outputFile), StandardCharsets.UTF_8))) {
+            long successful = results.stream().filter(BatchProjectResult::isSuccessful).count();
+            writer.write("# Пакетный аудит проектов\n\n");
+            writer.write("**Сгенерировано:** " + currentDate + "\n");
+            writer.write("**Проектов:** " + results.size() + " (успешно: " + successful + ", с ошибками: " + (results.size() - successful) + ")\n");
+            writer.write("**Всего файлов:** " + results.stream().mapToLong(BatchProjectResult::getTotalFiles).sum() + "\n");
+            writer.write("**Общий размер:** " + results.stream().mapToLong(BatchProjectResult::getTotalSizeKB).sum() + " KB\n\n");
+
+            writer.write("| Проект | Тип | Файлов | Размер, KB | Время, сек | Отчеты |\n");
+            writer.write("|---|---|---:|---:|---:|---|\n");
+            for (BatchProjectResult result : results) {
+                writer.write("| " + escapeCell(result.getProjectName())
+                        + " | " + (result.isSuccessful() ? escapeCell(result.getProjectType()) : "**Ошибка:** " + escapeCell(result.getError()))
+                        + " | " + result.getTotalFiles()
+                        + " | " + result.getTotalSizeKB()
+                        + " | " + String.format("%.2f", result.getDurationMillis() / 1000.0)
+                        + " | " + (result.getOutputDir() != null ? escapeCell(result.getOutputDir().toString()) : "")
+                        + " |\n");
+            }
+        } catch (IOException e) {
+            LOGGER.error("Ошибка при записи сводного отчета: {}", e.getMessage(), e);
+        }
+    }
+
+    private void writeJson(List<BatchProjectResult> results, String outputFile, String currentDate) {
+        try (PrintWriter writer = new PrintWriter(new OutputStreamWriter(new FileOutputStream(outputFile), StandardCharsets.UTF_8))) {
+            writer.write("{\n");
+            writer.write("  \"generatedAt\": \"" + currentDate + "\",\n");
+            writer.write("  \"projects\": [\n");
+            for (int i = 0; i < results.size(); i++) {
+                BatchProjectResult result = results.get(i);
+                writer.write("    {\n");
+                writer.write("      \"projectName\": \"" + ReportUtils.escapeJson(result.getProjectName()) + "\",\n");
+                writer.write("      \"projectPath\": \"" + ReportUtils.escapeJson(result.getProjectPath().toString()) + "\",\n");
+                if (result.getOutputDir() != null) {
+                    writer.write("      \"outputDir\": \"" + ReportUtils.escapeJson(result.getOutputDir().toString()) + "\",\n");
+                }
+                if (result.isSuccessful()) {
+                    writer.write("      \"projectType\": \"" + ReportUtils.escapeJson(result.getProjectType()) + "\",\n");
+                    writer.write("      \"totalFiles\": " + result.getTotalFiles() + ",\n");
+                    writer.write("      \"totalSizeKB\": " + result.getTotalSizeKB() + ",\n");
+                } else {
+                    writer.write("      \"error\": \"" + ReportUtils.escapeJson(result.getError()) + "\",\n");
+                }
+                writer.write("      \"durationMillis\": " + result.getDurationMillis() + "\n");
+                writer.write("    }");
+                if (i < results.size() - 1) writer.write(",");
+                writer.write("\n");
+            }
+            writer.write("  ]\n");
+            writer.write("}\n");
+        } catch (IOException e) {
+            LOGGER.error("Ошибка при записи сводного отчета JSON: {}", e.getMessage(), e);
+        }
+    }
+
+    // Ячейка таблицы Markdown: без переводов строк и с экранированным разделителем столбцов
+    private static String escapeCell(String input) {
+        return ReportUtils.escapeMarkdown(input).replace("|", "\\|").replace("\r", " ").replace("\n", " ");
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.auditor.reporting;
+
+import com.example.auditor.model.AnalysisResult;
+import com.example.auditor.model.FileInfo;
+import com.example.auditor.model.FileTable;
+import com.example.auditor.model.ProjectStatistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Бинарные метаданные проекта: результат анализа, который можно загрузить обратно
+ * ({@link #load(Path, Path)}) и заново отрендерить в любом формате без сканирования.
+ * <p>
+ * Формат - DataOutputStream (строки с префиксом длины), с сигнатурой и версией:
+ * путь, имя и тип проекта, затем словари директорий, расширений и типов и записи файлов
+ * фиксированного вида (номер директории, имя, размер, номер расширения, номер типа, приоритет).
+ * Разбор не требует JSON-парсера и сразу заполняет {@link FileTable}.
+ */
+public class BinaryMetadataGenerator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BinaryMetadataGenerator.class);
+
+    public static final String FILE_EXTENSION = ".meta.bin";
+
+    private static final int MAGIC = 0x41444D42; // "ADMB"
+    private static final int VERSION = 1;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Записывает метаданные.
+     *
+     * @param result      Результат анализа.
+     * @param projectPath Корень проекта (сохраняется для справки; при загрузке можно указать другой).
+     * @param outputFile  Файл метаданных.
+     */
+    public void generate(AnalysisResult result, Path projectPath, String outputFile) {
+        List<FileInfo> files = result.getFileInfoList();
+        int[] directoryIds = new int[files.size()];
+        int[] extensionIds = new int[files.size()];
+        int[] typeIds = new int[files.size()];
+        Map<String, Integer> directories = new HashMap<>();
+        Map<String, Integer> extensions = new HashMap<>();
+        Map<String, Integer> types = new HashMap<>();
+        for (int i = 0; i < files.size(); i++) {
+            FileInfo file = files.get(i);
+            String relativePath = file.getRelativePath();
+            directoryIds[i] = directories.computeIfAbsent(relativePath.substring(0, relativePath.lastIndexOf('/') + 1),
+                    key -> directories.size());
+            extensionIds[i] = extensions.computeIfAbsent(file.getExtension(), key -> extensions.size());
+            typeIds[i] = types.computeIfAbsent(file.getType(), key -> types.size());
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(outputFile), BUFFER_SIZE))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(projectPath.toAbsolutePath().normalize().toString());
+            out.writeUTF(result.getProjectName());
+            out.writeUTF(result.getProjectType());
+            writeDictionary(out, directories);
+            writeDictionary(out, extensions);
+            writeDictionary(out, types);
+
+            out.writeInt(files.size());
+            for (int i = 0; i < files.size(); i++) {
+                FileInfo file = files.get(i);
+                String relativePath = file.getRelativePath();
+                out.writeInt(directoryIds[i]);
+                out.writeUTF(relativePath.substring(relativePath.lastIndexOf('/') + 1)); // Имя - последний элемент пути
+                out.writeLong(file.getLength());
+                out.writeInt(extensionIds[i]);
+                out.writeInt(typeIds[i]);
+                out.writeBoolean(file.isPriority());
+            }
+        } catch (IOException e) {
+            LOGGER.error("Ошибка при записи бинарных метаданных: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Загружает результат анализа из файла метаданных.
+     *
+     * @param metadataFile Файл, записанный {@link #generate}.
+     * @param projectPath  Корень проекта, от которого строятся полные пути файлов
+     *                     (null - путь, сохранённый в метаданных).
+     * @return Результат анализа.
+     * @throws IOException Файл не читается или имеет другой формат.
+     */
+    public static AnalysisResult load(Path metadataFile, Path projectPath) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(metadataFile), BUFFER_SIZE))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Файл не является бинарными метаданными: " + metadataFile);
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Неподдерживаемая версия бинарных метаданных " + version + ": " + metadataFile);
+            }
+            String savedProjectPath = in.readUTF();
+            Path root = projectPath != null ? projectPath : Path.of(savedProjectPath);
+            String projectName = in.readUTF();
+            String projectType = in.readUTF();
+            List<String> directories = readDictionary(in);
+            List<String> extensions = readDictionary(in);
+            List<String> types = readDictionary(in);
+
+            List<Path> directoryPaths = new ArrayList<>(directories.size());
+            for (String directory : directories) {
+                directoryPaths.add(directory.isEmpty() ? root : root.resolve(directory));
+            }
+
+            int fileCount = in.readInt();
+            FileTable files = new FileTable();
+            for (int i = 0; i < fileCount; i++) {
+                int directoryId = in.readInt();
+                String name = in.readUTF();
+                long length = in.readLong();
+                String extension = extensions.get(in.readInt());
+                String type = types.get(in.readInt());
+                boolean priority = in.readBoolean();
+                files.add(new FileInfo(directoryPaths.get(directoryId).resolve(name), name, directories.get(directoryId) + name,
+                        length, extension, type, priority));
+            }
+            LOGGER.info("Загружены метаданные {}: {} файлов (проект {})", metadataFile, fileCount, savedProjectPath);
+            return new AnalysisResult(files, projectName, projectType, ProjectStatistics.of(files));
+        } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Повреждённые бинарные метаданные: " + metadataFile, e);
+        }
+    }
+
+    // Строки словаря в порядке номеров
+    private static void writeDictionary(DataOutputStream out, Map<String, Integer> dictionary) throws IOException {
+        String[] values = new String[dictionary.size()];
+        for (Map.Entry<String, Integer> entry : dictionary.entrySet()) {
+            values[entry.getValue()] = entry.getKey();
+        }
+        out.writeInt(values.length);
+        for (String value : values) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static List<String> readDictionary(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(in.readUTF());
+        }
+        return values;
+    }
+}
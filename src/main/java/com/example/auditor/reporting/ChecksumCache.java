@@ -0,0 +1,70 @@
+package com.example.auditor.reporting;
+
+import com.example.auditor.model.FileInfo;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Кэш контрольных сумм содержимого файлов между генерациями (режим наблюдения).
+ * <p>
+ * Сумма, посчитанная при чтении файла для отчёта, запоминается вместе с размером и временем
+ * изменения файла. Пока они не изменились, {@link DuplicateFinder} сравнивает файл, раздел
+ * которого взят из {@link SectionCache}, не читая его заново: перечитываются только изменённые файлы.
+ */
+final class ChecksumCache {
+
+    private final Map<String, Entry> checksums = new ConcurrentHashMap<>(); // относительный путь -> сумма
+
+    /**
+     * Сумма файла, если размер и время изменения совпадают с запомненными.
+     *
+     * @return CRC32C или {@link RawFileContent#NO_CHECKSUM}.
+     */
+    long get(FileInfo file) {
+        Entry entry = checksums.get(file.getRelativePath());
+        if (entry == null || entry.size != file.getLength()) {
+            return RawFileContent.NO_CHECKSUM;
+        }
+        try {
+            if (Files.getLastModifiedTime(file.getFullName()).equals(entry.lastModified)) {
+                return entry.checksum;
+            }
+        } catch (IOException e) {
+            // Файл недоступен - сумму не доверяем
+        }
+        return RawFileContent.NO_CHECKSUM;
+    }
+
+    void put(FileInfo file, FileTime lastModified, long checksum) {
+        if (lastModified != null && checksum != RawFileContent.NO_CHECKSUM) {
+            checksums.put(file.getRelativePath(), new Entry(file.getLength(), lastModified, checksum));
+        }
+    }
+
+    void invalidate(Collection<String> relativePaths) {
+        for (String relativePath : relativePaths) {
+            checksums.remove(relativePath);
+        }
+    }
+
+    void clear() {
+        checksums.clear();
+    }
+
+    private static final class Entry {
+        private final long size;
+        private final FileTime lastModified;
+        private final long checksum;
+
+        private Entry(long size, FileTime lastModified, long checksum) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.checksum = checksum;
+        }
+    }
+}
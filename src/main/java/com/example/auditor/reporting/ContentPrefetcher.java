@@ -0,0 +1,135 @@
+package com.example.auditor.reporting;
+
+import com.example.auditor.model.FileInfo;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Упреждающее чтение содержимого файлов для записи отчёта.
+ * <p>
+ * Пул читающих потоков заранее загружает содержимое следующих по порядку файлов, пока поток
+ * записи выводит текущий, так что диск и запись отчёта работают одновременно. Содержимое
+ * выдаётся строго в исходном порядке списка, поэтому отчёт не отличается от последовательного.
+ * <p>
+ * Объём прочитанного, но ещё не записанного содержимого ограничен {@code maxInFlightBytes}
+ * (оценка по размеру файлов на диске). Файл больше лимита читается, только когда
+ * он единственный в очереди, - один огромный файл не тянет за собой ещё и соседей.
+ * <p>
+ * Не потокобезопасен: {@link #next(FileInfo)} вызывается только из потока записи.
+ *
+ * @param <T> Представление содержимого (например, {@link RawFileContent}).
+ */
+final class ContentPrefetcher<T> implements AutoCloseable {
+
+    static final int DEFAULT_THREADS = Math.min(4, Runtime.getRuntime().availableProcessors());
+    static final long DEFAULT_MAX_IN_FLIGHT_BYTES = 64L * 1024 * 1024;
+    private static final int MAX_FILES_AHEAD_PER_THREAD = 16; // Ограничение очереди для множества мелких файлов
+
+    private static final AtomicInteger POOL_COUNTER = new AtomicInteger();
+
+    private final List<FileInfo> files;
+    private final ContentLoader<T> loader;
+    private final long maxInFlightBytes;
+    private final int maxFilesAhead;
+    private final ExecutorService executor;
+    private final Deque<Future<T>> pending = new ArrayDeque<>(); // Задачи чтения в порядке списка
+    private int nextToSubmit;
+    private int nextToTake;
+    private long inFlightBytes;
+
+    ContentPrefetcher(List<FileInfo> files, ContentLoader<T> loader) {
+        this(files, loader, DEFAULT_THREADS, DEFAULT_MAX_IN_FLIGHT_BYTES);
+    }
+
+    /**
+     * @param files            Файлы в порядке записи в отчёт.
+     * @param loader           Чтение содержимого одного файла (вызывается из потоков пула).
+     * @param threads          Число читающих потоков.
+     * @param maxInFlightBytes Лимит суммарного размера прочитанных заранее файлов.
+     */
+    ContentPrefetcher(List<FileInfo> files, ContentLoader<T> loader, int threads, long maxInFlightBytes) {
+        this.files = files;
+        this.loader = loader;
+        this.maxInFlightBytes = maxInFlightBytes;
+        this.maxFilesAhead = Math.max(1, threads) * MAX_FILES_AHEAD_PER_THREAD;
+        int poolId = POOL_COUNTER.incrementAndGet();
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "auditor-prefetch-" + poolId + "-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Возвращает содержимое очередного файла, при необходимости дожидаясь его чтения.
+     *
+     * @param file Файл; должен совпадать с очередным файлом списка.
+     * @return Содержимое файла.
+     * @throws IOException Ошибка чтения файла.
+     */
+    T next(FileInfo file) throws IOException {
+        if (nextToTake >= files.size() || !files.get(nextToTake).equals(file)) {
+            // Порядок нарушен вызывающим кодом - читаем напрямую, не сбивая очередь
+            return loader.load(file);
+        }
+        fill();
+        Future<T> task = pending.poll();
+        long size = files.get(nextToTake++).getLength();
+        try {
+            return task.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Чтение файла прервано: " + file.getFullName());
+        } finally {
+            inFlightBytes -= size;
+            fill(); // Освободившийся лимит сразу отдаём следующим файлам
+        }
+    }
+
+    // Ставит в очередь чтения следующие файлы, пока позволяют лимиты
+    private void fill() {
+        while (nextToSubmit < files.size() && pending.size() < maxFilesAhead) {
+            FileInfo file = files.get(nextToSubmit);
+            long size = file.getLength();
+            if (!pending.isEmpty() && inFlightBytes + size > maxInFlightBytes) {
+                break;
+            }
+            pending.add(executor.submit(() -> loader.load(file)));
+            inFlightBytes += size;
+            nextToSubmit++;
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        pending.clear();
+    }
+
+    /**
+     * Чтение содержимого одного файла.
+     */
+    @FunctionalInterface
+    interface ContentLoader<T> {
+        T load(FileInfo file) throws IOException;
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.auditor.reporting;
+
+import com.example.auditor.model.FileInfo;
+import com.example.auditor.reporting.ContentPrefetcher.ContentLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Поиск файлов с одинаковым содержимым (вендорные копии, сгенерированные заглушки, одинаковые конфиги).
+ * <p>
+ * Отдельного прохода по файлам нет: сравнивается CRC32C, которую {@link RawFileContent} считает,
+ * читая файл для отчёта. Файлы проверяются в порядке записи отчёта; совпадение размера и CRC
+ * с уже записанным файлом подтверждается побайтовым сравнением этих двух файлов. Первый файл
+ * группы остаётся оригиналом, остальным записывается путь оригинала ({@link FileInfo#setDuplicateOf(String)}):
+ * отчёты выводят вместо их содержимого ссылку, JSON-метаданные перечисляют группы.
+ * <p>
+ * Выдержки из больших файлов и бинарные файлы целиком не читаются и не сравниваются, как и файлы
+ * меньше {@link #MIN_BYTES} - ссылка на оригинал была бы не короче содержимого. В режиме наблюдения
+ * суммы неизменившихся файлов берутся из {@link ChecksumCache}.
+ * <p>
+ * Не потокобезопасен: проверки одного экземпляра идут из потока записи отчёта.
+ */
+final class DuplicateFinder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DuplicateFinder.class);
+
+    static final long MIN_BYTES = 128;
+
+    private final ChecksumCache checksums; // null - суммы не сохраняются между генерациями
+    private final AtomicInteger duplicates; // Общий для частей отчёта
+    private final Map<String, Long> checked; // Суммы файлов, проверенных в этой генерации (общие для частей)
+    private final Map<Long, List<FileInfo>> originals = new HashMap<>(); // Размер и CRC32C -> уже записанные файлы
+
+    /**
+     * Поиск для одной генерации отчётов; отметки прошлой генерации снимаются.
+     *
+     * @param files     Файлы отчёта.
+     * @param checksums Кэш сумм между генерациями или null.
+     */
+    DuplicateFinder(List<FileInfo> files, ChecksumCache checksums) {
+        this(checksums, new AtomicInteger(), new ConcurrentHashMap<>());
+        for (FileInfo file : files) {
+            file.setDuplicateOf(null);
+        }
+    }
+
+    private DuplicateFinder(ChecksumCache checksums, AtomicInteger duplicates, Map<String, Long> checked) {
+        this.checksums = checksums;
+        this.duplicates = duplicates;
+        this.checked = checked;
+    }
+
+    /**
+     * Независимый поиск с тем же кэшем сумм и счётчиком: для частей отчёта, которые пишутся
+     * параллельно (оригинал дубликата - в той же части). Группы разных частей объединяет {@link #mergeParts(List)}.
+     */
+    DuplicateFinder fork() {
+        return new DuplicateFinder(checksums, duplicates, checked);
+    }
+
+    /**
+     * Объединяет группы, найденные частями отчёта, по суммам, посчитанным при их записи: файл,
+     * совпавший с оригиналом из более ранней части, отмечается дубликатом, а отметки его дубликатов
+     * переводятся на этот оригинал. Файлы заново не читаются (кроме побайтового сравнения совпавших).
+     * Уже записанные части не меняются; отметки используют JSON-метаданные и следующий за частями HTML.
+     *
+     * @param files Файлы отчёта в порядке частей.
+     */
+    void mergeParts(List<FileInfo> files) {
+        Map<String, String> merged = new HashMap<>(); // оригинал части -> оригинал из более ранней части
+        for (FileInfo file : files) {
+            String original = file.getDuplicateOf();
+            if (original != null) {
+                String root = merged.get(original);
+                if (root != null) {
+                    file.setDuplicateOf(root);
+                }
+                continue;
+            }
+            Long checksum = checked.get(file.getRelativePath());
+            if (checksum != null && check(file, checksum)) {
+                merged.put(file.getRelativePath(), file.getDuplicateOf());
+            }
+        }
+    }
+
+    /**
+     * Проверяет файл по содержимому, прочитанному для отчёта.
+     *
+     * @return true, если файл отмечен дубликатом.
+     */
+    boolean check(FileInfo file, RawFileContent content) {
+        if (file.getDuplicateOf() != null) {
+            return true;
+        }
+        if (checksums != null) {
+            checksums.put(file, content.getLastModified(), content.getChecksum());
+        }
+        return check(file, content.getChecksum());
+    }
+
+    /**
+     * Проверяет файл, раздел которого берётся из кэша, по сумме из {@link ChecksumCache} - без чтения.
+     * Файл без запомненной суммы считается уникальным.
+     *
+     * @return true, если файл отмечен дубликатом.
+     */
+    boolean checkCached(FileInfo file) {
+        if (file.getDuplicateOf() != null) {
+            return true;
+        }
+        return checksums != null && check(file, checksums.get(file));
+    }
+
+    /**
+     * Проверка перед записью раздела: файл, раздела которого нет в кэше, читается сразу,
+     * и прочитанное содержимое отдаётся разделу; иначе он сравнивается по запомненной сумме.
+     * Файл, уже отмеченный дубликатом (предыдущим отчётом той же генерации), не читается.
+     *
+     * @param content Источник содержимого раздела.
+     * @param cached  Раздел файла будет взят из кэша разделов.
+     * @return Источник содержимого для раздела.
+     */
+    ContentLoader<RawFileContent> check(FileInfo file, ContentLoader<RawFileContent> content, boolean cached) {
+        if (file.getDuplicateOf() != null) {
+            return content;
+        }
+        if (cached) {
+            checkCached(file);
+            return content;
+        }
+        RawFileContent loaded;
+        try {
+            loaded = content.load(file);
+        } catch (IOException e) {
+            return source -> {
+                throw e; // Раздел запишет пометку об ошибке чтения
+            };
+        }
+        check(file, loaded);
+        return source -> loaded;
+    }
+
+    /**
+     * Число файлов, отмеченных дубликатами (всеми частями отчёта).
+     */
+    int getDuplicateCount() {
+        return duplicates.get();
+    }
+
+    /**
+     * Файлы, содержимое которых выводится в отчёт (без дубликатов), в том же порядке.
+     */
+    static List<FileInfo> withoutDuplicates(List<FileInfo> files) {
+        List<FileInfo> unique = new ArrayList<>(files.size());
+        for (FileInfo file : files) {
+            if (file.getDuplicateOf() == null) {
+                unique.add(file);
+            }
+        }
+        return unique.size() == files.size() ? files : unique;
+    }
+
+    private boolean check(FileInfo file, long checksum) {
+        if (checksum == RawFileContent.NO_CHECKSUM || file.getLength() < MIN_BYTES) {
+            return false;
+        }
+        checked.put(file.getRelativePath(), checksum);
+        // Размер и CRC32C в одном ключе; случайное совпадение ключей отсеет сравнение файлов
+        List<FileInfo> candidates = originals.computeIfAbsent(file.getLength() * 31 + checksum, key -> new ArrayList<>(1));
+        for (FileInfo original : candidates) {
+            if (original.getRelativePath().equals(file.getRelativePath())) {
+                return false; // Тот же файл повторно
+            }
+            if (original.getLength() == file.getLength() && sameContent(original, file)) {
+                file.setDuplicateOf(original.getRelativePath());
+                duplicates.incrementAndGet();
+                return true;
+            }
+        }
+        candidates.add(file);
+        return false;
+    }
+
+    // Побайтовое сравнение; читаются только два файла с совпавшей суммой
+    private static boolean sameContent(FileInfo original, FileInfo file) {
+        try {
+            return Files.mismatch(original.getFullName(), file.getFullName()) == -1;
+        } catch (IOException e) {
+            LOGGER.debug("Не удалось сравнить файлы {} и {}: {}", original.getFullName(), file.getFullName(), e.getMessage());
+            return false;
+        }
+    }
+}
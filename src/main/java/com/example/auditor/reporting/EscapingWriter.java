@@ -0,0 +1,168 @@
+package com.example.auditor.reporting;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writer-обёртка, экранирующая текст для HTML, Markdown или строк JSON за один проход.
+ * <p>
+ * Символы без замены передаются в исходный Writer целыми отрезками, замены - готовыми строками,
+ * поэтому промежуточные копии текста не создаются: содержимое файла любого размера
+ * экранируется с постоянным расходом памяти. Все экранируемые символы - ASCII,
+ * замены берутся из таблицы по коду символа.
+ * <p>
+ * {@link #close()} не закрывает исходный Writer, а только сбрасывает его буфер.
+ */
+final class EscapingWriter extends Writer {
+
+    private static final String[] HTML = new String[128];
+    private static final String[] MARKDOWN = new String[128];
+    private static final String[] JSON = new String[128];
+
+    static {
+        HTML['&'] = "&amp;";
+        HTML['<'] = "&lt;";
+        HTML['>'] = "&gt;";
+        HTML['"'] = "&quot;";
+        HTML['\''] = "&#x27;";
+
+        for (char c : "\\*_[]`#".toCharArray()) {
+            MARKDOWN[c] = "\\" + c;
+        }
+
+        for (char c = 0; c < 0x20; c++) {
+            JSON[c] = String.format("\\u%04x", (int) c);
+        }
+        JSON['\\'] = "\\\\";
+        JSON['"'] = "\\\"";
+        JSON['\n'] = "\\n";
+        JSON['\r'] = "\\r";
+        JSON['\t'] = "\\t";
+    }
+
+    private final Writer out;
+    private final String[] replacements;
+
+    private EscapingWriter(Writer out, String[] replacements) {
+        this.out = out;
+        this.replacements = replacements;
+    }
+
+    static EscapingWriter html(Writer out) {
+        return new EscapingWriter(out, HTML);
+    }
+
+    static EscapingWriter markdown(Writer out) {
+        return new EscapingWriter(out, MARKDOWN);
+    }
+
+    static EscapingWriter json(Writer out) {
+        return new EscapingWriter(out, JSON);
+    }
+
+    static String escapeHtml(String input) {
+        return escape(input, HTML);
+    }
+
+    static String escapeMarkdown(String input) {
+        return escape(input, MARKDOWN);
+    }
+
+    static String escapeJson(String input) {
+        return escape(input, JSON);
+    }
+
+    /**
+     * Экранирует и записывает значение; null записывается как пустая строка (как ReportUtils.escape*).
+     */
+    void writeText(String value) throws IOException {
+        if (value != null) {
+            write(value, 0, value.length());
+        }
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        String replacement = replacement((char) c);
+        if (replacement != null) {
+            out.write(replacement);
+        } else {
+            out.write(c);
+        }
+    }
+
+    @Override
+    public void write(char[] chars, int off, int len) throws IOException {
+        int start = off;
+        for (int i = off, end = off + len; i < end; i++) {
+            String replacement = replacement(chars[i]);
+            if (replacement != null) {
+                if (i > start) {
+                    out.write(chars, start, i - start);
+                }
+                out.write(replacement);
+                start = i + 1;
+            }
+        }
+        if (off + len > start) {
+            out.write(chars, start, off + len - start);
+        }
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        int start = off;
+        for (int i = off, end = off + len; i < end; i++) {
+            String replacement = replacement(str.charAt(i));
+            if (replacement != null) {
+                if (i > start) {
+                    out.write(str, start, i - start);
+                }
+                out.write(replacement);
+                start = i + 1;
+            }
+        }
+        if (off + len > start) {
+            out.write(str, start, off + len - start);
+        }
+    }
+
+    private String replacement(char c) {
+        return c < 128 ? replacements[c] : null;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.flush();
+    }
+
+    // Строковый вариант: без замен возвращается исходная строка, иначе - один StringBuilder
+    private static String escape(String input, String[] replacements) {
+        if (input == null) return "";
+        int length = input.length();
+        int i = 0;
+        while (i < length && (input.charAt(i) >= 128 || replacements[input.charAt(i)] == null)) {
+            i++;
+        }
+        if (i == length) {
+            return input;
+        }
+        StringBuilder result = new StringBuilder(length + 16);
+        result.append(input, 0, i);
+        for (; i < length; i++) {
+            char c = input.charAt(i);
+            String replacement = c < 128 ? replacements[c] : null;
+            if (replacement != null) {
+                result.append(replacement);
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.auditor.reporting;
+
+import com.example.auditor.model.FileInfo;
+import com.example.auditor.utils.FileIcon;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Дерево структуры проекта (префиксное дерево по относительным путям).
+ * <p>
+ * Строится за один проход по файлам: каждая директория хранится один раз, имя файла
+ * берётся из {@link FileInfo#getName()}. Подряд идущие файлы одной директории (обычный
+ * порядок сканирования) находят её без выделения подстрок. Дерево выводится обходом
+ * в глубину прямо в отчёт.
+ * <p>
+ * Порядок вывода совпадает с сортировкой полных относительных путей как строк:
+ * директория сравнивается с соседями как "имя/".
+ */
+final class FileTree {
+
+    private static final String INDENT = "   ";
+
+    private final Directory root = new Directory("");
+
+    /**
+     * Строит дерево по списку файлов.
+     */
+    static FileTree of(List<FileInfo> files) {
+        FileTree tree = new FileTree();
+        for (FileInfo file : files) {
+            tree.add(file);
+        }
+        return tree;
+    }
+
+    void add(FileInfo file) {
+        String path = file.getRelativePath();
+        Directory directory = root;
+        int start = 0;
+        for (int slash = path.indexOf('/'); slash >= 0; slash = path.indexOf('/', start)) {
+            directory = directory.subdirectory(path, start, slash);
+            start = slash + 1;
+        }
+        String name = file.getName();
+        if (name == null || name.length() != path.length() - start || !path.startsWith(name, start)) {
+            name = path.substring(start); // Имя не совпадает с последним элементом пути
+        }
+        directory.files.add(name);
+    }
+
+    /**
+     * Выводит дерево в текстовом виде (отступ - три пробела на уровень), как в блоке кода Markdown.
+     * Текст не экранируется.
+     */
+    void writeMarkdown(Appendable out) throws IOException {
+        walk(root, 0, new Visitor() {
+            @Override
+            public void enterDirectory(String name, int depth) throws IOException {
+                indent(out, depth);
+                out.append("📁 ").append(name).append('\n');
+            }
+
+            @Override
+            public void file(String name, int depth) throws IOException {
+                indent(out, depth);
+                out.append(FileIcon.getIcon(name)).append(' ').append(name).append('\n');
+            }
+        });
+    }
+
+    /**
+     * Выводит дерево вложенными списками HTML ({@code <ul class="tree">}), имена экранируются.
+     */
+    void writeHtml(Writer writer) throws IOException {
+        EscapingWriter escaped = EscapingWriter.html(writer);
+        writer.write("<ul class=\"tree\">\n");
+        walk(root, 0, new Visitor() {
+            @Override
+            public void enterDirectory(String name, int depth) throws IOException {
+                writer.write("<li>📁 ");
+                escaped.writeText(name);
+                writer.write("\n<ul>\n");
+            }
+
+            @Override
+            public void exitDirectory(int depth) throws IOException {
+                writer.write("</ul>\n</li>\n");
+            }
+
+            @Override
+            public void file(String name, int depth) throws IOException {
+                writer.write("<li>" + FileIcon.getIcon(name) + " ");
+                escaped.writeText(name);
+                writer.write("</li>\n");
+            }
+        });
+        writer.write("</ul>\n");
+    }
+
+    // Обход в глубину: поддиректории и файлы вперемешку, в порядке сортировки полных путей
+    private static void walk(Directory directory, int depth, Visitor visitor) throws IOException {
+        List<Directory> subdirectories = directory.sortedSubdirectories();
+        String[] files = directory.files.toArray(new String[0]);
+        Arrays.sort(files);
+
+        int d = 0;
+        int f = 0;
+        while (d < subdirectories.size() || f < files.length) {
+            if (f == files.length
+                    || d < subdirectories.size() && compareDirectoryToFile(subdirectories.get(d).name, files[f]) < 0) {
+                Directory subdirectory = subdirectories.get(d++);
+                visitor.enterDirectory(subdirectory.name, depth);
+                walk(subdirectory, depth + 1, visitor);
+                visitor.exitDirectory(depth);
+            } else {
+                String name = files[f++];
+                if (f == 1 || !name.equals(files[f - 2])) { // Повторяющийся путь выводится один раз
+                    visitor.file(name, depth);
+                }
+            }
+        }
+    }
+
+    // Сравнивает "directory/" с file без склейки строк
+    private static int compareDirectoryToFile(String directory, String file) {
+        int common = Math.min(directory.length(), file.length());
+        for (int i = 0; i < common; i++) {
+            char a = directory.charAt(i);
+            char b = file.charAt(i);
+            if (a != b) {
+                return a - b;
+            }
+        }
+        return directory.length() < file.length() ? '/' - file.charAt(directory.length()) : 1;
+    }
+
+    // Сравнивает "first/" с "second/": "a b/" идёт раньше "a/"
+    private static int compareDirectories(Directory first, Directory second) {
+        String a = first.name;
+        String b = second.name;
+        int common = Math.min(a.length(), b.length());
+        for (int i = 0; i < common; i++) {
+            if (a.charAt(i) != b.charAt(i)) {
+                return a.charAt(i) - b.charAt(i);
+            }
+        }
+        if (a.length() == b.length()) {
+            return 0;
+        }
+        return a.length() < b.length() ? '/' - b.charAt(common) : a.charAt(common) - '/';
+    }
+
+    private static void indent(Appendable out, int depth) throws IOException {
+        for (int i = 0; i < depth; i++) {
+            out.append(INDENT);
+        }
+    }
+
+    // Обработчик обхода дерева
+    private interface Visitor {
+        void enterDirectory(String name, int depth) throws IOException;
+
+        default void exitDirectory(int depth) throws IOException {
+        }
+
+        void file(String name, int depth) throws IOException;
+    }
+
+    // Узел дерева: поддиректории по имени и имена файлов
+    private static final class Directory {
+        private final String name;
+        private final List<String> files = new ArrayList<>();
+        private Map<String, Directory> subdirectories; // Создаётся при первой поддиректории
+        private Directory last; // Последняя найденная поддиректория
+
+        private Directory(String name) {
+            this.name = name;
+        }
+
+        // Поддиректория с именем path[from, to); создаётся при отсутствии
+        private Directory subdirectory(String path, int from, int to) {
+            if (last != null && last.name.length() == to - from && path.startsWith(last.name, from)) {
+                return last;
+            }
+            if (subdirectories == null) {
+                subdirectories = new HashMap<>();
+            }
+            last = subdirectories.computeIfAbsent(path.substring(from, to), Directory::new);
+            return last;
+        }
+
+        private List<Directory> sortedSubdirectories() {
+            if (subdirectories == null) {
+                return List.of();
+            }
+            List<Directory> sorted = new ArrayList<>(subdirectories.values());
+            sorted.sort(FileTree::compareDirectories);
+            return sorted;
+        }
+    }
+}
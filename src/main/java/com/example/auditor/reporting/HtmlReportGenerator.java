@@ -2,6 +2,8 @@ package com.example.auditor.reporting;
 
 import com.example.auditor.model.AnalysisResult;
 import com.example.auditor.model.FileInfo;
+import com.example.auditor.model.ProjectStatistics;
+import com.example.auditor.reporting.ContentPrefetcher.ContentLoader;
 import com.example.auditor.utils.FileIcon;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,35 +12,62 @@ import java.io.BufferedWriter;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path; // Добавлен импорт Path
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 public class HtmlReportGenerator {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(HtmlReportGenerator.class);
 
+    private SectionCache sectionCache; // null - разделы файлов рендерятся при каждой генерации
+
     // Метод generate теперь принимает Path projectPath
     public void generate(List<FileInfo> files, String projectName, String projectType, boolean lightMode, Path projectPath, String outputFile) {
-        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(outputFile), StandardCharsets.UTF_8))) {
+        generate(files, ProjectStatistics.of(files), projectName, projectType, lightMode, projectPath, outputFile, null);
+    }
+
+    /**
+     * @param statistics Статистика, уже собранная при анализе (см. {@link AnalysisResult#getStatistics()}).
+     * @param duplicates Поиск дубликатов по читаемому содержимому или null (используются готовые отметки).
+     */
+    void generate(List<FileInfo> files, ProjectStatistics statistics, String projectName, String projectType, boolean lightMode,
+                  Path projectPath, String outputFile, DuplicateFinder duplicates) {
+        try (ReportSink report = openReport(files, statistics, projectName, projectType, lightMode, outputFile, duplicates)) {
+            if (!lightMode) {
+                List<FileInfo> toRead = DuplicateFinder.withoutDuplicates(sectionCache != null ? sectionCache.missing(files) : files);
+                try (ContentPrefetcher<RawFileContent> prefetcher = new ContentPrefetcher<>(toRead,
+                        file -> RawFileContent.load(file, projectPath))) {
+                    for (FileInfo file : files) {
+                        report.writeFile(file, prefetcher::next);
+                    }
+                }
+            }
+            report.finish();
+        } catch (IOException e) {
+            LOGGER.error("Ошибка при записи HTML отчета: {}", e.getMessage(), e); // Логируем с трейсом
+        }
+    }
+
+    /**
+     * Открывает полный отчёт: шапка, статистика и структура пишутся сразу,
+     * разделы файлов - через {@link ReportSink#writeFile}, итоги - в {@link ReportSink#finish()}.
+     *
+     * @param statistics Статистика по файлам (одна на все форматы).
+     * @param duplicates Поиск дубликатов при записи разделов или null (используются готовые отметки).
+     */
+    ReportSink openReport(List<FileInfo> files, ProjectStatistics statistics, String projectName, String projectType,
+                          boolean lightMode, String outputFile, DuplicateFinder duplicates) throws IOException {
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(outputFile), StandardCharsets.UTF_8));
+        try {
             String currentDate = ReportUtils.getCurrentDate();
-            long totalSizeKB = files.stream().mapToLong(FileInfo::getLength).sum() / 1024;
-            int totalFiles = files.size();
-
-            writer.write("<!DOCTYPE html>\n<html lang=\"ru\">\n<head>\n");
-            writer.write("<meta charset=\"UTF-8\">\n");
-            writer.write("<title>Аудит проекта: " + ReportUtils.escapeHtml(projectName) + "</title>\n");
-            writer.write("<style>\n"); // Простая стилизация
-            writer.write("body { font-family: Arial, sans-serif; margin: 20px; background-color: #f5f5f5; }\n");
-            writer.write(".header { background-color: #007acc; color: white; padding: 15px; border-radius: 5px; }\n");
-            writer.write(".section { margin: 20px 0; background-color: white; padding: 15px; border-radius: 5px; box-shadow: 0 2px 4px rgba(0,0,0,0.1); }\n");
-            writer.write("pre { background-color: #f4f4f4; padding: 10px; overflow-x: auto; border-radius: 3px; }\n");
-            writer.write("code { background-color: #f4f4f4; padding: 2px 4px; border-radius: 3px; }\n");
-            writer.write("</style>\n");
-            writer.write("</head>\n<body>\n");
+            long totalSizeKB = statistics.getTotalSizeKB();
+            int totalFiles = statistics.getTotalFiles();
+
+            writeHead(writer, projectName);
 
             writer.write("<div class=\"header\">\n");
             writer.write("<h1>Аудит проекта: " + ReportUtils.escapeHtml(projectName) + "</h1>\n");
@@ -49,52 +78,213 @@ public class HtmlReportGenerator {
             writer.write("<p><strong>Режим:</strong> " + (lightMode ? "Light" : "Full") + "</p>\n");
             writer.write("</div>\n");
 
-            writer.write("<div class=\"section\">\n<h2>Статистика проекта</h2>\n");
-            Map<String, Long> languageCount = files.stream()
-                    .collect(Collectors.groupingBy(FileInfo::getExtension, Collectors.counting()));
-            writer.write("<h3>Распределение по языкам</h3><ul>\n");
-            for (Map.Entry<String, Long> entry : languageCount.entrySet()) {
-                String lang = entry.getKey() != null ? entry.getKey() : "unknown";
-                writer.write("<li><strong>" + ReportUtils.escapeHtml(lang) + ":</strong> " + entry.getValue() + " файлов</li>\n");
-            }
-            writer.write("</ul>\n</div>\n");
+            writeStatistics(writer, statistics.getExtensionCounts());
 
-            writer.write("<div class=\"section\">\n<h2>Структура проекта</h2>\n<pre>\n" + ReportUtils.escapeHtml(ReportUtils.generateTreeMarkdown(files)) + "</pre>\n</div>\n");
+            writeStructure(writer, files);
 
             if (!lightMode) {
                 writer.write("<div class=\"section\">\n<h2>Содержимое файлов</h2>\n");
-                for (FileInfo file : files) {
-                    String icon = FileIcon.getIcon(file.getExtension());
-                    String language = FileIcon.getLanguage(file.getExtension());
-                    double kb = file.getLength() / 1024.0;
-                    writer.write("<h3>" + icon + " " + ReportUtils.escapeHtml(file.getRelativePath()) + " (" + String.format("%.1f", kb) + " KB)</h3>\n");
-                    writer.write("<pre><code class=\"" + ReportUtils.escapeHtml(language) + "\">\n");
-                    try {
-                        // Используем обновлённый метод readFileContent с проверкой безопасности
-                        String content = ReportUtils.escapeHtml(ReportUtils.readFileContent(file.getFullName(), projectPath)).trim();
-                        writer.write(content);
-                    } catch (IOException e) {
-                        writer.write(" <!-- Ошибка чтения файла --> ");
-                    }
-                    writer.write("\n</code></pre>\n");
-                }
+            }
+            return new FullHtmlReport(writer, lightMode, totalFiles, totalSizeKB, projectType, currentDate, duplicates);
+        } catch (IOException | RuntimeException e) {
+            writer.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Открывает отчёт в потоковом режиме: содержимое файлов пишется сразу,
+     * структура, статистика и итоги - в конце.
+     */
+    StreamingReportWriter openStreaming(String projectName, boolean lightMode, Path projectPath, String outputFile) throws IOException {
+        return new StreamingHtmlWriter(projectName, lightMode, projectPath, outputFile);
+    }
+
+    private void writeHead(Writer writer, String projectName) throws IOException {
+        writer.write("<!DOCTYPE html>\n<html lang=\"ru\">\n<head>\n");
+        writer.write("<meta charset=\"UTF-8\">\n");
+        writer.write("<title>Аудит проекта: " + ReportUtils.escapeHtml(projectName) + "</title>\n");
+        writer.write("<style>\n"); // Простая стилизация
+        writer.write("body { font-family: Arial, sans-serif; margin: 20px; background-color: #f5f5f5; }\n");
+        writer.write(".header { background-color: #007acc; color: white; padding: 15px; border-radius: 5px; }\n");
+        writer.write(".section { margin: 20px 0; background-color: white; padding: 15px; border-radius: 5px; box-shadow: 0 2px 4px rgba(0,0,0,0.1); }\n");
+        writer.write("pre { background-color: #f4f4f4; padding: 10px; overflow-x: auto; border-radius: 3px; }\n");
+        writer.write("code { background-color: #f4f4f4; padding: 2px 4px; border-radius: 3px; }\n");
+        writer.write("ul.tree, ul.tree ul { list-style: none; padding-left: 20px; margin: 0; font-family: monospace; }\n");
+        writer.write("</style>\n");
+        writer.write("</head>\n<body>\n");
+    }
+
+    private void writeStatistics(Writer writer, Map<String, Long> languageCount) throws IOException {
+        writer.write("<div class=\"section\">\n<h2>Статистика проекта</h2>\n");
+        writer.write("<h3>Распределение по языкам</h3><ul>\n");
+        for (Map.Entry<String, Long> entry : languageCount.entrySet()) {
+            String lang = entry.getKey() != null ? entry.getKey() : "unknown";
+            writer.write("<li><strong>" + ReportUtils.escapeHtml(lang) + ":</strong> " + entry.getValue() + " файлов</li>\n");
+        }
+        writer.write("</ul>\n</div>\n");
+    }
+
+    private void writeStructure(Writer writer, List<FileInfo> files) throws IOException {
+        writer.write("<div class=\"section\">\n<h2>Структура проекта</h2>\n");
+        FileTree.of(files).writeHtml(writer);
+        writer.write("</div>\n");
+    }
+
+    /**
+     * Включает кэширование разделов файлов между генерациями (режим наблюдения).
+     */
+    void setSectionCache(SectionCache sectionCache) {
+        this.sectionCache = sectionCache;
+    }
+
+    // content - источник содержимого (упреждающее чтение или чтение при записи раздела); duplicates - поиск дубликатов или null
+    private void writeFileSection(Writer writer, FileInfo file, ContentLoader<RawFileContent> content, DuplicateFinder duplicates)
+            throws IOException {
+        ContentLoader<RawFileContent> source = duplicates != null
+                ? duplicates.check(file, content, sectionCache != null && sectionCache.contains(file.getRelativePath()))
+                : content;
+        if (file.getDuplicateOf() != null) {
+            renderDuplicateSection(writer, file); // Не кэшируется: отметка зависит от других файлов
+        } else if (sectionCache != null) {
+            sectionCache.write(writer, file.getRelativePath(), buffer -> renderFileSection(buffer, file, source));
+        } else {
+            renderFileSection(writer, file, source);
+        }
+    }
+
+    private void renderFileSection(Writer writer, FileInfo file, ContentLoader<RawFileContent> content) throws IOException {
+        String language = FileIcon.getLanguage(file.getExtension());
+        EscapingWriter escaped = EscapingWriter.html(writer);
+        writeSectionHeading(writer, file);
+        writer.write("<pre><code class=\"" + ReportUtils.escapeHtml(language) + "\">\n");
+        try {
+            // Содержимое экранируется потоково, без промежуточных строк размером с файл
+            content.load(file).writeTo(escaped);
+        } catch (IOException e) {
+            writer.write(" <!-- Ошибка чтения файла --> ");
+        }
+        writer.write("\n</code></pre>\n");
+    }
+
+    // Раздел дубликата: ссылка на первый файл с тем же содержимым вместо содержимого
+    private void renderDuplicateSection(Writer writer, FileInfo file) throws IOException {
+        writeSectionHeading(writer, file);
+        writer.write("<p><strong>Дубликат:</strong> содержимое совпадает с файлом <code>");
+        EscapingWriter.html(writer).writeText(file.getDuplicateOf());
+        writer.write("</code></p>\n");
+    }
+
+    private void writeSectionHeading(Writer writer, FileInfo file) throws IOException {
+        writer.write("<h3>" + FileIcon.getIcon(file.getExtension()) + " ");
+        EscapingWriter.html(writer).writeText(file.getRelativePath());
+        writer.write(" (" + String.format("%.1f", file.getLength() / 1024.0) + " KB)</h3>\n");
+    }
+
+    private void writeSummary(Writer writer, int totalFiles, long totalSizeKB, String projectType, boolean lightMode,
+                              String currentDate) throws IOException {
+        writer.write("<div class=\"section\">\n<h2>Итоги</h2>\n");
+        writer.write("<ul>\n<li><strong>Всего файлов:</strong> " + totalFiles + "</li>\n");
+        writer.write("<li><strong>Общий размер:</strong> " + totalSizeKB + " KB</li>\n");
+        writer.write("<li><strong>Тип проекта:</strong> " + ReportUtils.escapeHtml(projectType) + "</li>\n");
+        writer.write("<li><strong>Режим:</strong> " + (lightMode ? "Light" : "Full") + "</li>\n");
+        writer.write("<li><strong>Сгенерировано:</strong> " + currentDate + "</li>\n");
+        writer.write("</ul>\n");
+        writer.write("<blockquote><strong>ВАЖНО:</strong> Сфокусируйся на критических проблемах безопасности!</blockquote>\n");
+        writer.write("</div>\n");
+    }
+
+    // Полный HTML-отчёт: шапка уже записана, остаются разделы файлов и итоги
+    private final class FullHtmlReport implements ReportSink {
+
+        private final BufferedWriter writer;
+        private final boolean lightMode;
+        private final int totalFiles;
+        private final long totalSizeKB;
+        private final String projectType;
+        private final String currentDate;
+        private final DuplicateFinder duplicates;
+
+        private FullHtmlReport(BufferedWriter writer, boolean lightMode, int totalFiles, long totalSizeKB,
+                               String projectType, String currentDate, DuplicateFinder duplicates) {
+            this.writer = writer;
+            this.lightMode = lightMode;
+            this.totalFiles = totalFiles;
+            this.totalSizeKB = totalSizeKB;
+            this.projectType = projectType;
+            this.currentDate = currentDate;
+            this.duplicates = duplicates;
+        }
+
+        @Override
+        public void writeFile(FileInfo file, ContentLoader<RawFileContent> content) throws IOException {
+            if (!lightMode) {
+                writeFileSection(writer, file, content, duplicates);
+            }
+        }
+
+        @Override
+        public void finish() throws IOException {
+            if (!lightMode) {
                 writer.write("</div>\n");
             }
+            writeSummary(writer, totalFiles, totalSizeKB, projectType, lightMode, currentDate);
+            writer.write("</body>\n</html>");
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
+
+    // Потоковый HTML-отчёт: итоговые разделы переносятся в конец, т.к. заранее неизвестны
+    private final class StreamingHtmlWriter implements StreamingReportWriter {
+
+        private final BufferedWriter writer;
+        private final boolean lightMode;
+        private final Path projectPath;
+        private final String currentDate = ReportUtils.getCurrentDate();
 
-            writer.write("<div class=\"section\">\n<h2>Итоги</h2>\n");
-            writer.write("<ul>\n<li><strong>Всего файлов:</strong> " + files.size() + "</li>\n");
-            writer.write("<li><strong>Общий размер:</strong> " + totalSizeKB + " KB</li>\n");
-            writer.write("<li><strong>Тип проекта:</strong> " + ReportUtils.escapeHtml(projectType) + "</li>\n");
-            writer.write("<li><strong>Режим:</strong> " + (lightMode ? "Light" : "Full") + "</li>\n");
-            writer.write("<li><strong>Сгенерировано:</strong> " + currentDate + "</li>\n");
-            writer.write("</ul>\n");
-            writer.write("<blockquote><strong>ВАЖНО:</strong> Сфокусируйся на критических проблемах безопасности!</blockquote>\n");
+        private StreamingHtmlWriter(String projectName, boolean lightMode, Path projectPath, String outputFile) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(outputFile), StandardCharsets.UTF_8));
+            this.lightMode = lightMode;
+            this.projectPath = projectPath;
+
+            writeHead(writer, projectName);
+            writer.write("<div class=\"header\">\n");
+            writer.write("<h1>Аудит проекта: " + ReportUtils.escapeHtml(projectName) + "</h1>\n");
+            writer.write("<p><strong>Сгенерировано:</strong> " + currentDate + "</p>\n");
+            writer.write("<p><strong>Режим:</strong> " + (lightMode ? "Light" : "Full") + "</p>\n");
+            writer.write("<p>Отчет сформирован в потоковом режиме: структура, статистика и итоги приведены в конце.</p>\n");
             writer.write("</div>\n");
+            if (!lightMode) {
+                writer.write("<div class=\"section\">\n<h2>Содержимое файлов</h2>\n");
+            }
+        }
 
+        @Override
+        public void writeFile(FileInfo file) throws IOException {
+            if (!lightMode) {
+                writeFileSection(writer, file, source -> RawFileContent.load(source, projectPath), null);
+            }
+        }
+
+        @Override
+        public void finish(AnalysisResult result) throws IOException {
+            List<FileInfo> files = result.getFileInfoList();
+            if (!lightMode) {
+                writer.write("</div>\n");
+            }
+            writeStructure(writer, files);
+            writeStatistics(writer, result.getStatistics().getExtensionCounts());
+            writeSummary(writer, result.getTotalFiles(), result.getTotalSizeKB(), result.getProjectType(), lightMode, currentDate);
             writer.write("</body>\n</html>");
+        }
 
-        } catch (IOException e) {
-            LOGGER.error("Ошибка при записи HTML отчета: {}", e.getMessage(), e); // Логируем с трейсом
+        @Override
+        public void close() throws IOException {
+            writer.close();
         }
     }
-}
\ No newline at end of file
+}
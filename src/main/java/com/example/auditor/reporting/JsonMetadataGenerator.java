@@ -1,64 +1,206 @@
 package com.example.auditor.reporting;
 
+import com.example.auditor.config.ReportConfiguration;
+import com.example.auditor.config.ReportConfiguration.JsonMetadataFormat;
 import com.example.auditor.model.AnalysisResult;
 import com.example.auditor.model.FileInfo;
 import com.example.auditor.utils.FileIcon;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonFactoryBuilder;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.DefaultIndenter;
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedOutputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.io.PrintWriter;
-import java.nio.charset.StandardCharsets;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
+/**
+ * JSON-метаданные проекта: сведения о проекте, распределение по языкам и список файлов.
+ * <p>
+ * Пишется потоково через {@link JsonGenerator} в буферизованный файл. В формате
+ * {@link JsonMetadataFormat#DOCUMENT} это один документ с отступами, в формате
+ * {@link JsonMetadataFormat#NDJSON} - строка с записью проекта ({@code "record": "project"}),
+ * затем по строке на файл ({@code "record": "file"}): такой файл можно разбирать построчно,
+ * не держа весь список в памяти.
+ * <p>
+ * Если в проекте найдены файлы с одинаковым содержимым (см. {@link DuplicateFinder}), после списка
+ * файлов пишутся их группы: массив {@code duplicateGroups} документа или записи {@code "record": "duplicates"}.
+ * Первый путь группы - оригинал, содержимое которого выводится в отчёты.
+ */
 public class JsonMetadataGenerator {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(JsonMetadataGenerator.class);
 
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // Записи NDJSON разделяются переводом строки (по умолчанию Jackson ставит пробел)
+    private static final JsonFactory JSON_FACTORY = new JsonFactoryBuilder().rootValueSeparator("\n").build();
+
+    private final JsonMetadataFormat format;
+
+    public JsonMetadataGenerator() {
+        this(ReportConfiguration.getDefault().getJsonMetadataFormat());
+    }
+
+    public JsonMetadataGenerator(JsonMetadataFormat format) {
+        this.format = format;
+    }
+
+    /**
+     * Расширение файла метаданных для текущего формата (".json" или ".ndjson").
+     */
+    public String getFileExtension() {
+        return format.getFileExtension();
+    }
+
     public void generate(AnalysisResult result, String outputFile) {
-        try (PrintWriter writer = new PrintWriter(new OutputStreamWriter(new FileOutputStream(outputFile), StandardCharsets.UTF_8))) {
-            writer.write("{\n");
-            writer.write("  \"metadata\": {\n");
-            writer.write("    \"projectName\": \"" + ReportUtils.escapeJson(result.getProjectName()) + "\",\n");
-            writer.write("    \"totalFiles\": " + result.getTotalFiles() + ",\n");
-            writer.write("    \"totalSizeKB\": " + result.getTotalSizeKB() + ",\n");
-            writer.write("    \"projectType\": \"" + ReportUtils.escapeJson(result.getProjectType()) + "\",\n");
-            writer.write("    \"generatedAt\": \"" + ReportUtils.getCurrentDate() + "\"\n");
-            writer.write("  },\n");
-            writer.write("  \"statistics\": {\n");
-            writer.write("    \"languages\": {\n");
-            Map<String, Long> languageCount = result.getFileInfoList().stream()
-                    .collect(Collectors.groupingBy(FileInfo::getExtension, Collectors.counting()));
-            boolean first = true;
-            for (Map.Entry<String, Long> entry : languageCount.entrySet()) {
-                if (!first) writer.write(",\n");
-                String lang = entry.getKey() != null ? entry.getKey() : "unknown";
-                writer.write("      \"" + ReportUtils.escapeJson(lang) + "\": " + entry.getValue());
-                first = false;
-            }
-            writer.write("\n    }\n  },\n");
-            writer.write("  \"fileTree\": [\n");
-            List<FileInfo> files = result.getFileInfoList();
-            for (int i = 0; i < files.size(); i++) {
-                FileInfo file = files.get(i);
-                writer.write("    {\n");
-                writer.write("      \"name\": \"" + ReportUtils.escapeJson(file.getName()) + "\",\n");
-                writer.write("      \"path\": \"" + ReportUtils.escapeJson(file.getRelativePath()) + "\",\n");
-                writer.write("      \"sizeKB\": " + (file.getLength() / 1024) + ",\n");
-                writer.write("      \"language\": \"" + ReportUtils.escapeJson(file.getExtension()) + "\",\n");
-                writer.write("      \"icon\": \"" + FileIcon.getIcon(file.getExtension()) + "\"\n"); // Иконка как строка
-                writer.write("    }");
-                if (i < files.size() - 1) writer.write(",");
-                writer.write("\n");
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(outputFile), BUFFER_SIZE);
+             JsonGenerator json = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8)) {
+            if (format == JsonMetadataFormat.NDJSON) {
+                writeRecords(json, result);
+            } else {
+                json.setPrettyPrinter(new ReportPrettyPrinter());
+                writeDocument(json, result);
             }
-            writer.write("  ]\n");
-            writer.write("}\n");
+            json.writeRaw('\n');
         } catch (IOException e) {
             LOGGER.error("Ошибка при записи JSON метаданных: {}", e.getMessage(), e);
         }
     }
-}
\ No newline at end of file
+
+    private void writeDocument(JsonGenerator json, AnalysisResult result) throws IOException {
+        json.writeStartObject();
+        json.writeObjectFieldStart("metadata");
+        writeProjectFields(json, result);
+        json.writeEndObject();
+
+        json.writeObjectFieldStart("statistics");
+        writeLanguages(json, result);
+        json.writeEndObject();
+
+        json.writeArrayFieldStart("fileTree");
+        for (FileInfo file : result.getFileInfoList()) {
+            json.writeStartObject();
+            writeFileFields(json, file);
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+
+        Map<String, List<FileInfo>> duplicateGroups = duplicateGroups(result.getFileInfoList());
+        if (!duplicateGroups.isEmpty()) {
+            json.writeArrayFieldStart("duplicateGroups");
+            for (Map.Entry<String, List<FileInfo>> group : duplicateGroups.entrySet()) {
+                json.writeStartObject();
+                writeDuplicateGroupFields(json, group.getKey(), group.getValue());
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+        }
+        json.writeEndObject();
+    }
+
+    // Первая запись - проект со статистикой, далее по записи на файл; записи разделяет фабрика
+    private void writeRecords(JsonGenerator json, AnalysisResult result) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("record", "project");
+        writeProjectFields(json, result);
+        writeLanguages(json, result);
+        json.writeEndObject();
+
+        for (FileInfo file : result.getFileInfoList()) {
+            json.writeStartObject();
+            json.writeStringField("record", "file");
+            writeFileFields(json, file);
+            json.writeEndObject();
+        }
+
+        for (Map.Entry<String, List<FileInfo>> group : duplicateGroups(result.getFileInfoList()).entrySet()) {
+            json.writeStartObject();
+            json.writeStringField("record", "duplicates");
+            writeDuplicateGroupFields(json, group.getKey(), group.getValue());
+            json.writeEndObject();
+        }
+    }
+
+    private void writeProjectFields(JsonGenerator json, AnalysisResult result) throws IOException {
+        json.writeStringField("projectName", result.getProjectName());
+        json.writeNumberField("totalFiles", result.getTotalFiles());
+        json.writeNumberField("totalSizeKB", result.getTotalSizeKB());
+        json.writeStringField("projectType", result.getProjectType());
+        json.writeStringField("generatedAt", ReportUtils.getCurrentDate());
+    }
+
+    private void writeLanguages(JsonGenerator json, AnalysisResult result) throws IOException {
+        json.writeObjectFieldStart("languages");
+        for (Map.Entry<String, Long> entry : result.getStatistics().getExtensionCounts().entrySet()) {
+            String lang = entry.getKey() != null ? entry.getKey() : "unknown";
+            json.writeNumberField(lang, entry.getValue());
+        }
+        json.writeEndObject();
+    }
+
+    private void writeFileFields(JsonGenerator json, FileInfo file) throws IOException {
+        json.writeStringField("name", file.getName());
+        json.writeStringField("path", file.getRelativePath());
+        json.writeNumberField("sizeKB", file.getLength() / 1024);
+        json.writeStringField("language", file.getExtension());
+        json.writeStringField("icon", FileIcon.getIcon(file.getExtension())); // Иконка как строка
+    }
+
+    // Группы одинаковых файлов: путь оригинала -> дубликаты в порядке отчёта
+    private static Map<String, List<FileInfo>> duplicateGroups(List<FileInfo> files) {
+        Map<String, List<FileInfo>> groups = new LinkedHashMap<>();
+        for (FileInfo file : files) {
+            String original = file.getDuplicateOf();
+            if (original != null) {
+                groups.computeIfAbsent(original, path -> new ArrayList<>()).add(file);
+            }
+        }
+        return groups;
+    }
+
+    private void writeDuplicateGroupFields(JsonGenerator json, String original, List<FileInfo> duplicates) throws IOException {
+        json.writeNumberField("sizeKB", duplicates.get(0).getLength() / 1024);
+        json.writeArrayFieldStart("paths");
+        json.writeString(original);
+        for (FileInfo duplicate : duplicates) {
+            json.writeString(duplicate.getRelativePath());
+        }
+        json.writeEndArray();
+    }
+
+    // Отступ в два пробела и "ключ": значение - тот же вид, что у прежнего ручного вывода
+    private static final class ReportPrettyPrinter extends DefaultPrettyPrinter {
+
+        private static final long serialVersionUID = 1L;
+
+        private ReportPrettyPrinter() {
+            DefaultIndenter indenter = new DefaultIndenter("  ", "\n");
+            indentObjectsWith(indenter);
+            indentArraysWith(indenter);
+        }
+
+        private ReportPrettyPrinter(ReportPrettyPrinter base) {
+            super(base);
+        }
+
+        @Override
+        public DefaultPrettyPrinter createInstance() {
+            return new ReportPrettyPrinter(this);
+        }
+
+        @Override
+        public void writeObjectFieldValueSeparator(JsonGenerator json) throws IOException {
+            json.writeRaw(": ");
+        }
+    }
+}
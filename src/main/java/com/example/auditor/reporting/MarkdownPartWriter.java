@@ -0,0 +1,165 @@
+package com.example.auditor.reporting;
+
+import com.example.auditor.config.ReportConfiguration;
+import com.example.auditor.model.AnalysisResult;
+import com.example.auditor.model.FileInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Markdown-отчёт, разбитый на части ({@code имя.part-001.md}, {@code имя.part-002.md}, ...)
+ * с оглавлением {@code имя.index.md}.
+ * <p>
+ * Файлы раскладываются по частям подряд, в порядке отчёта: часть закрывается, когда следующий
+ * файл вывел бы её за лимит. Размер раздела оценивается заранее по размеру файла на диске
+ * и длине пути ({@link RawFileContent#expectedBytes}); файл, который один больше лимита, не делится,
+ * а занимает отдельную часть. Лимит соблюдается для UTF-8 и для файлов, кодировка которых известна
+ * по прошлому чтению; файл в однобайтовой кодировке, который ещё не читался (первая генерация без
+ * инкрементального сканирования), может вывести часть за лимит - до трёх раз на свой размер.
+ * Каждая часть содержит свою структуру (только свои файлы) и пишется в отдельном потоке;
+ * дубликат ({@link DuplicateFinder}) выводится ссылкой, если оригинал - в той же части.
+ */
+final class MarkdownPartWriter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MarkdownPartWriter.class);
+
+    static final String INDEX_SUFFIX = ".index.md";
+
+    private static final long PART_HEADER_BYTES = 1024; // Шапка части и обрамление структуры
+    private static final long SECTION_OVERHEAD_BYTES = 128; // Заголовок раздела, блок кода, строка в структуре
+    private static final int MAX_BYTES_PER_PATH_CHAR = 6; // Путь - в заголовке раздела и в структуре, до 3 байт на символ
+
+    private static final AtomicInteger POOL_COUNTER = new AtomicInteger();
+
+    private MarkdownPartWriter() {
+    }
+
+    /**
+     * Лимит части в байтах по настройкам отчётов: меньший из лимита в байтах и лимита
+     * в токенах, переведённого в байты.
+     *
+     * @return Лимит или 0, если отчёт не разбивается.
+     */
+    static long budgetBytes(ReportConfiguration configuration) {
+        long bytes = configuration.getPartMaxBytes();
+        long tokens = configuration.getPartMaxTokens();
+        if (tokens > 0) {
+            long tokenBytes = TokenEstimator.bytesFor(tokens, null); // Оценка для текста (см. TokenEstimator)
+            bytes = bytes > 0 ? Math.min(bytes, tokenBytes) : tokenBytes;
+        }
+        return bytes;
+    }
+
+    /**
+     * Раскладывает файлы по частям.
+     *
+     * @param files       Файлы в порядке отчёта.
+     * @param budgetBytes Лимит части в байтах.
+     * @param lightMode   Light режим: содержимое файлов не выводится и не учитывается.
+     * @return Непустые части в порядке отчёта (для пустого списка - ни одной).
+     */
+    static List<List<FileInfo>> plan(List<FileInfo> files, long budgetBytes, boolean lightMode) {
+        long sectionBudget = Math.max(1, budgetBytes - PART_HEADER_BYTES);
+        List<List<FileInfo>> parts = new ArrayList<>();
+        int start = 0;
+        long used = 0;
+        for (int i = 0; i < files.size(); i++) {
+            long section = estimateSection(files.get(i), lightMode);
+            if (i > start && used + section > sectionBudget) {
+                parts.add(files.subList(start, i));
+                start = i;
+                used = 0;
+            }
+            used += section;
+        }
+        if (start < files.size()) {
+            parts.add(files.subList(start, files.size()));
+        }
+        return parts;
+    }
+
+    /**
+     * Пишет части параллельно, затем оглавление.
+     * Ошибки отдельных частей логируются, остальные части и оглавление всё равно записываются.
+     *
+     * @param duplicates Поиск дубликатов или null; каждая часть ищет независимо, после записи частей группы объединяются.
+     * @return Путь к оглавлению или null, если его не удалось записать.
+     */
+    static String write(MarkdownReportGenerator generator, AnalysisResult result, boolean lightMode, Path projectPath,
+                        long budgetBytes, Path outputDir, String outputFileName, DuplicateFinder duplicates) {
+        List<List<FileInfo>> parts = plan(result.getFileInfoList(), budgetBytes, lightMode);
+        String indexFile = outputFileName + INDEX_SUFFIX;
+        String currentDate = ReportUtils.getCurrentDate();
+        List<String> partFiles = new ArrayList<>(parts.size());
+        for (int i = 1; i <= parts.size(); i++) {
+            partFiles.add(String.format("%s.part-%03d.md", outputFileName, i));
+        }
+
+        if (!parts.isEmpty()) {
+            int poolId = POOL_COUNTER.incrementAndGet();
+            AtomicInteger threadCounter = new AtomicInteger();
+            ExecutorService executor = Executors.newFixedThreadPool(Math.min(parts.size(), ContentPrefetcher.DEFAULT_THREADS), runnable -> {
+                Thread thread = new Thread(runnable, "auditor-part-" + poolId + "-" + threadCounter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            try {
+                List<Future<Void>> futures = new ArrayList<>(parts.size());
+                for (int i = 0; i < parts.size(); i++) {
+                    List<FileInfo> part = parts.get(i);
+                    int partNumber = i + 1;
+                    String partFile = outputDir.resolve(partFiles.get(i)).toString();
+                    DuplicateFinder partDuplicates = duplicates != null ? duplicates.fork() : null;
+                    futures.add(executor.submit(() -> {
+                        generator.writePart(part, result.getProjectName(), result.getProjectType(), lightMode, projectPath,
+                                currentDate, partNumber, parts.size(), indexFile, partFile, partDuplicates);
+                        return null;
+                    }));
+                }
+                for (Future<Void> future : futures) {
+                    try {
+                        future.get();
+                    } catch (ExecutionException e) {
+                        LOGGER.error("Ошибка при записи части отчета: {}", e.getCause().getMessage(), e.getCause());
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                LOGGER.error("Запись частей отчета прервана");
+                return null;
+            } finally {
+                executor.shutdownNow();
+            }
+            if (duplicates != null) {
+                duplicates.mergeParts(result.getFileInfoList());
+            }
+        }
+
+        String indexPath = outputDir.resolve(indexFile).toString();
+        try {
+            generator.writePartIndex(parts, partFiles, result.getStatistics(), result.getProjectName(), result.getProjectType(),
+                    lightMode, currentDate, indexPath);
+        } catch (IOException e) {
+            LOGGER.error("Ошибка при записи оглавления отчета: {}", e.getMessage(), e);
+            return null;
+        }
+        LOGGER.info("Markdown отчет разбит на {} частей (лимит части {} байт)", parts.size(), budgetBytes);
+        return indexPath;
+    }
+
+    // Оценка размера раздела файла в отчёте (сверху для обычного текста)
+    private static long estimateSection(FileInfo file, boolean lightMode) {
+        long pathBytes = (long) file.getRelativePath().length() * MAX_BYTES_PER_PATH_CHAR;
+        return SECTION_OVERHEAD_BYTES + pathBytes + (lightMode ? 0 : RawFileContent.expectedBytes(file));
+    }
+}
@@ -2,30 +2,66 @@ package com.example.auditor.reporting;
 
 import com.example.auditor.model.AnalysisResult;
 import com.example.auditor.model.FileInfo;
+import com.example.auditor.model.ProjectStatistics;
+import com.example.auditor.reporting.ContentPrefetcher.ContentLoader;
 import com.example.auditor.utils.FileIcon;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedWriter;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.nio.charset.StandardCharsets;
+import java.io.Writer;
 import java.nio.file.Path; // Добавлен импорт Path
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 public class MarkdownReportGenerator {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MarkdownReportGenerator.class);
 
+    private SectionCache sectionCache; // null - разделы файлов рендерятся при каждой генерации
+
     // Метод generate теперь принимает Path projectPath
     public void generate(List<FileInfo> files, String projectName, String projectType, boolean lightMode, Path projectPath, String outputFile) {
-        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(outputFile), StandardCharsets.UTF_8))) {
+        generate(files, ProjectStatistics.of(files), projectName, projectType, lightMode, projectPath, outputFile, null);
+    }
+
+    /**
+     * @param statistics Статистика, уже собранная при анализе (см. {@link AnalysisResult#getStatistics()}).
+     * @param duplicates Поиск дубликатов по читаемому содержимому или null (используются готовые отметки).
+     */
+    void generate(List<FileInfo> files, ProjectStatistics statistics, String projectName, String projectType, boolean lightMode,
+                  Path projectPath, String outputFile, DuplicateFinder duplicates) {
+        try (ReportSink report = openReport(files, statistics, projectName, projectType, lightMode, outputFile, duplicates)) {
+            // Содержимое файлов (если не Light режим)
+            if (!lightMode) {
+                List<FileInfo> toRead = DuplicateFinder.withoutDuplicates(sectionCache != null ? sectionCache.missing(files) : files);
+                try (ContentPrefetcher<RawFileContent> prefetcher = new ContentPrefetcher<>(toRead,
+                        file -> RawFileContent.load(file, projectPath))) {
+                    for (FileInfo file : files) {
+                        report.writeFile(file, prefetcher::next);
+                    }
+                }
+            }
+            report.finish();
+        } catch (IOException e) {
+            LOGGER.error("Ошибка при записи Markdown отчета: {}", e.getMessage(), e); // Логируем с трейсом
+        }
+    }
+
+    /**
+     * Открывает полный отчёт: заголовок, статистика и структура пишутся сразу,
+     * разделы файлов - через {@link ReportSink#writeFile}, итоги - в {@link ReportSink#finish()}.
+     *
+     * @param statistics Статистика по файлам (одна на все форматы).
+     * @param duplicates Поиск дубликатов при записи разделов или null (используются готовые отметки).
+     */
+    ReportSink openReport(List<FileInfo> files, ProjectStatistics statistics, String projectName, String projectType,
+                          boolean lightMode, String outputFile, DuplicateFinder duplicates) throws IOException {
+        Utf8ChannelWriter writer = new Utf8ChannelWriter(outputFile);
+        try {
             String currentDate = ReportUtils.getCurrentDate();
-            long totalSizeKB = files.stream().mapToLong(FileInfo::getLength).sum() / 1024;
-            int totalFiles = files.size();
+            long totalSizeKB = statistics.getTotalSizeKB();
+            int totalFiles = statistics.getTotalFiles();
 
             writer.write("# Аудит проекта: " + ReportUtils.escapeMarkdown(projectName) + "\n\n");
             writer.write("**Сгенерировано:** " + currentDate + "\n");
@@ -35,64 +71,344 @@ public class MarkdownReportGenerator {
             writer.write("**Режим:** " + (lightMode ? "Light" : "Full") + "\n\n");
 
             // Статистика
-            writer.write("## Статистика проекта\n\n");
-            Map<String, Long> languageCount = files.stream()
-                    .collect(Collectors.groupingBy(FileInfo::getExtension, Collectors.counting()));
-            writer.write("### Распределение по языкам\n");
-            for (Map.Entry<String, Long> entry : languageCount.entrySet()) {
-                String lang = entry.getKey() != null ? entry.getKey() : "unknown";
-                writer.write("- **" + lang + ":** " + entry.getValue() + " файлов\n");
-            }
-            writer.write("\n");
+            writeStatistics(writer, statistics.getExtensionCounts());
 
             // Структура
-            writer.write("## Структура проекта\n");
-            writer.write("```\n");
-            writer.write(ReportUtils.generateTreeMarkdown(files));
-            writer.write("```\n");
+            writeStructure(writer, files);
 
-            // Содержимое файлов (если не Light режим)
             if (!lightMode) {
                 writer.write("\n## Содержимое файлов\n");
+            }
+            return new FullMarkdownReport(writer, lightMode, totalFiles, totalSizeKB, projectName, projectType, currentDate, duplicates);
+        } catch (IOException | RuntimeException e) {
+            writer.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Открывает отчёт в потоковом режиме: содержимое файлов пишется сразу,
+     * структура, статистика и итоги - в конце.
+     */
+    StreamingReportWriter openStreaming(String projectName, boolean lightMode, Path projectPath, String outputFile) throws IOException {
+        return new StreamingMarkdownWriter(projectName, lightMode, projectPath, outputFile);
+    }
+
+    /**
+     * Пишет отчёт в пределах бюджета токенов (см. {@link TokenBudgetPacker}): только отобранные файлы
+     * в порядке важности, последний не поместившийся - с обрезанным концом. Статистика и структура
+     * описывают отобранные файлы. Содержимое читается только у них; дубликаты ищутся среди них же,
+     * в порядке записи, так что оригинал всегда уже вошёл в отчёт.
+     *
+     * @param selection    Отобранные файлы.
+     * @param totalFiles   Число файлов проекта (до отбора).
+     * @param budgetTokens Бюджет в токенах.
+     * @param duplicates   Поиск дубликатов или null.
+     */
+    void generateWithinBudget(TokenBudgetPacker.Selection selection, int totalFiles, String projectName, String projectType,
+                              Path projectPath, long budgetTokens, String outputFile, DuplicateFinder duplicates) {
+        List<FileInfo> files = selection.getFiles();
+        ProjectStatistics statistics = ProjectStatistics.of(files);
+        try (Utf8ChannelWriter writer = new Utf8ChannelWriter(outputFile)) {
+            String currentDate = ReportUtils.getCurrentDate();
+            writer.write("# Аудит проекта: " + ReportUtils.escapeMarkdown(projectName) + "\n\n");
+            writer.write("**Сгенерировано:** " + currentDate + "\n");
+            writer.write("**Файлов включено:** " + files.size() + " из " + totalFiles + "\n");
+            writer.write("**Общий размер:** " + statistics.getTotalSizeKB() + " KB\n");
+            writer.write("**Тип проекта:** " + ReportUtils.escapeMarkdown(projectType) + "\n");
+            writer.write("**Режим:** Full\n");
+            writer.write("**Бюджет токенов:** " + budgetTokens + " (оценка отчета: ~" + selection.getEstimatedTokens()
+                    + ", не вошло файлов: " + selection.getOmittedFiles() + ", обрезано: " + selection.getTruncatedFiles() + ")\n\n");
+
+            writeStatistics(writer, statistics.getExtensionCounts());
+            writeStructure(writer, files);
+
+            writer.write("\n## Содержимое файлов\n");
+            try (ContentPrefetcher<RawFileContent> prefetcher = new ContentPrefetcher<>(files,
+                    file -> RawFileContent.load(file, projectPath))) {
                 for (FileInfo file : files) {
-                    String icon = FileIcon.getIcon(file.getExtension());
-                    String language = FileIcon.getLanguage(file.getExtension());
-                    double kb = file.getLength() / 1024.0;
-                    String warning = "";
-                    if (kb > 50) { // Пример: предупреждение для файлов > 50KB
-                        warning = "  > **Примечание:** Файл большого размера (" + String.format("%.0f", kb) + " KB). LLM может пропустить часть контента.\n\n";
+                    long limit = selection.getByteLimit(file);
+                    ContentLoader<RawFileContent> content = duplicates != null
+                            ? duplicates.check(file, prefetcher::next, false)
+                            : prefetcher::next;
+                    if (file.getDuplicateOf() != null) {
+                        renderDuplicateSection(writer, file);
+                    } else if (limit < 0) {
+                        renderFileSection(writer, file, content); // Без кэша разделов: отбор меняется с файлами
+                    } else {
+                        renderFileSection(writer, file, source -> content.load(source).truncate(limit));
+                        writer.write("  > **Примечание:** содержимое обрезано по бюджету токенов (выведено не более "
+                                + limit / 1024 + " KB).\n");
                     }
-                    writer.write("\n" + warning + "### " + icon + " " + escapeMarkdown(file.getRelativePath()) + " (`" + String.format("%.1f", kb) + " KB`)\n");
-                    writer.write("```" + language + "\n");
-                    try {
-                        // Используем обновлённый метод readFileContent с проверкой безопасности
-                        String content = ReportUtils.readFileContent(file.getFullName(), projectPath);
-                        writer.write(content.trim() + "\n");
-                    } catch (IOException e) {
-                        writer.write(" <!-- Ошибка чтения файла -->\n");
-                    }
-                    writer.write("```\n");
                 }
             }
 
-            // Итоги
-            writer.write("\n---\n");
-            writer.write("## Итоги\n");
-            writer.write("- **Всего файлов:** " + files.size() + "\n");
-            writer.write("- **Общий размер:** " + totalSizeKB + " KB\n");
-            writer.write("- **Тип проекта:** " + ReportUtils.escapeMarkdown(projectType) + "\n");
-            writer.write("- **Режим:** " + (lightMode ? "Light" : "Full") + "\n");
-            writer.write("- **Сгенерировано:** " + currentDate + "\n");
-            writer.write("  > Проект **" + ReportUtils.escapeMarkdown(projectName) + "** готов для анализа LLM.\n");
-            writer.write("  > ВАЖНО: Сфокусируйся на критических проблемах безопасности!\n");
+            writeSummary(writer, files.size(), statistics.getTotalSizeKB(), projectName, projectType, false, currentDate);
+        } catch (IOException e) {
+            LOGGER.error("Ошибка при записи Markdown отчета: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Пишет одну часть разбитого отчёта (см. {@link MarkdownPartWriter}): шапку с номером части,
+     * структуру файлов этой части и их разделы. Содержимое читается при записи раздела -
+     * части пишутся параллельно, каждая в своём потоке.
+     *
+     * @param files      Файлы части в порядке отчёта.
+     * @param partNumber Номер части (с 1).
+     * @param partCount  Число частей.
+     * @param indexFile  Имя файла оглавления (ссылка из шапки).
+     * @param duplicates Поиск дубликатов внутри части или null.
+     */
+    void writePart(List<FileInfo> files, String projectName, String projectType, boolean lightMode, Path projectPath,
+                   String currentDate, int partNumber, int partCount, String indexFile, String outputFile,
+                   DuplicateFinder duplicates) throws IOException {
+        try (Utf8ChannelWriter writer = new Utf8ChannelWriter(outputFile)) {
+            writer.write("# Аудит проекта: " + ReportUtils.escapeMarkdown(projectName) + " (часть " + partNumber + " из " + partCount + ")\n\n");
+            writer.write("**Сгенерировано:** " + currentDate + "\n");
+            writer.write("**Файлов в части:** " + files.size() + "\n");
+            writer.write("**Размер части:** " + ProjectStatistics.of(files).getTotalSizeKB() + " KB\n");
+            writer.write("**Тип проекта:** " + ReportUtils.escapeMarkdown(projectType) + "\n");
+            writer.write("**Режим:** " + (lightMode ? "Light" : "Full") + "\n");
+            writer.write("**Оглавление частей:** " + partLink(indexFile) + "\n\n");
+
+            writeStructure(writer, files);
+
+            if (!lightMode) {
+                writer.write("\n## Содержимое файлов\n");
+                for (FileInfo file : files) {
+                    writeFileSection(writer, file, source -> RawFileContent.load(source, projectPath), duplicates);
+                }
+            }
+        }
+    }
+
+    /**
+     * Пишет оглавление разбитого отчёта: сведения о проекте, статистику и список частей
+     * с числом файлов, размером и диапазоном путей каждой.
+     *
+     * @param parts     Файлы каждой части.
+     * @param partFiles Имена файлов частей.
+     */
+    void writePartIndex(List<List<FileInfo>> parts, List<String> partFiles, ProjectStatistics statistics, String projectName,
+                        String projectType, boolean lightMode, String currentDate, String outputFile) throws IOException {
+        try (Utf8ChannelWriter writer = new Utf8ChannelWriter(outputFile)) {
+            writer.write("# Аудит проекта: " + ReportUtils.escapeMarkdown(projectName) + "\n\n");
+            writer.write("**Сгенерировано:** " + currentDate + "\n");
+            writer.write("**Файлов включено:** " + statistics.getTotalFiles() + "\n");
+            writer.write("**Общий размер:** " + statistics.getTotalSizeKB() + " KB\n");
+            writer.write("**Тип проекта:** " + ReportUtils.escapeMarkdown(projectType) + "\n");
+            writer.write("**Режим:** " + (lightMode ? "Light" : "Full") + "\n");
+            writer.write("**Частей:** " + parts.size() + "\n\n");
 
+            writeStatistics(writer, statistics.getExtensionCounts());
+
+            writer.write("## Части отчета\n");
+            EscapingWriter escaped = EscapingWriter.markdown(writer);
+            for (int i = 0; i < parts.size(); i++) {
+                List<FileInfo> part = parts.get(i);
+                writer.write("- " + partLink(partFiles.get(i)) + " - " + part.size() + " файлов, "
+                        + ProjectStatistics.of(part).getTotalSizeKB() + " KB: ");
+                escaped.writeText(part.get(0).getRelativePath());
+                if (part.size() > 1) {
+                    writer.write(" … ");
+                    escaped.writeText(part.get(part.size() - 1).getRelativePath());
+                }
+                writer.write("\n");
+            }
+        }
+    }
+
+    // Ссылка на соседний файл отчёта; угловые скобки допускают пробелы в имени
+    private static String partLink(String fileName) {
+        return "[" + ReportUtils.escapeMarkdown(fileName) + "](<" + fileName + ">)";
+    }
+
+    private void writeStatistics(Writer writer, Map<String, Long> languageCount) throws IOException {
+        writer.write("## Статистика проекта\n\n");
+        writer.write("### Распределение по языкам\n");
+        for (Map.Entry<String, Long> entry : languageCount.entrySet()) {
+            String lang = entry.getKey() != null ? entry.getKey() : "unknown";
+            writer.write("- **" + lang + ":** " + entry.getValue() + " файлов\n");
+        }
+        writer.write("\n");
+    }
+
+    private void writeStructure(Writer writer, List<FileInfo> files) throws IOException {
+        writer.write("## Структура проекта\n");
+        writer.write("```\n");
+        FileTree.of(files).writeMarkdown(writer);
+        writer.write("```\n");
+    }
+
+    /**
+     * Включает кэширование разделов файлов между генерациями (режим наблюдения).
+     */
+    void setSectionCache(SectionCache sectionCache) {
+        this.sectionCache = sectionCache;
+    }
+
+    // content - источник содержимого (упреждающее чтение или чтение при записи раздела); duplicates - поиск дубликатов или null
+    private void writeFileSection(Writer writer, FileInfo file, ContentLoader<RawFileContent> content, DuplicateFinder duplicates)
+            throws IOException {
+        ContentLoader<RawFileContent> source = duplicates != null
+                ? duplicates.check(file, content, sectionCache != null && sectionCache.contains(file.getRelativePath()))
+                : content;
+        if (file.getDuplicateOf() != null) {
+            renderDuplicateSection(writer, file); // Не кэшируется: отметка зависит от других файлов
+        } else if (sectionCache != null) {
+            sectionCache.write(writer, file.getRelativePath(), buffer -> renderFileSection(buffer, file, source));
+        } else {
+            renderFileSection(writer, file, source);
+        }
+    }
+
+    private void renderFileSection(Writer writer, FileInfo file, ContentLoader<RawFileContent> content) throws IOException {
+        String language = FileIcon.getLanguage(file.getExtension());
+        double kb = file.getLength() / 1024.0;
+        RawFileContent loaded;
+        try {
+            loaded = content.load(file); // Примечание зависит от прочитанного: выдержка или файл целиком
         } catch (IOException e) {
-            LOGGER.error("Ошибка при записи Markdown отчета: {}", e.getMessage(), e); // Логируем с трейсом
+            loaded = null;
+        }
+        String warning = "";
+        if (loaded != null && loaded.isExcerpt()) {
+            warning = "  > **Примечание:** Файл большого размера (" + String.format("%.0f", kb) + " KB). Показаны только начало и конец файла.\n\n";
+        } else if (kb > 50) { // Пример: предупреждение для файлов > 50KB
+            warning = "  > **Примечание:** Файл большого размера (" + String.format("%.0f", kb) + " KB). LLM может пропустить часть контента.\n\n";
+        }
+        writer.write("\n" + warning);
+        writeSectionHeading(writer, file);
+        writer.write("```" + language + "\n");
+        if (loaded == null) {
+            writer.write(" <!-- Ошибка чтения файла -->\n");
+        } else {
+            try {
+                // Содержимое не экранируется: корректная UTF-8 копируется в отчёт байтами, без декодирования
+                loaded.writeTo(writer);
+                writer.write("\n");
+            } catch (IOException e) {
+                writer.write(" <!-- Ошибка чтения файла -->\n");
+            }
         }
+        writer.write("```\n");
+    }
+
+    // Раздел дубликата: ссылка на первый файл с тем же содержимым вместо содержимого
+    private void renderDuplicateSection(Writer writer, FileInfo file) throws IOException {
+        writer.write("\n");
+        writeSectionHeading(writer, file);
+        writer.write("  > **Дубликат:** содержимое совпадает с файлом ");
+        EscapingWriter.markdown(writer).writeText(file.getDuplicateOf());
+        writer.write("\n");
+    }
+
+    private void writeSectionHeading(Writer writer, FileInfo file) throws IOException {
+        writer.write("### " + FileIcon.getIcon(file.getExtension()) + " ");
+        EscapingWriter.markdown(writer).writeText(file.getRelativePath());
+        writer.write(" (`" + String.format("%.1f", file.getLength() / 1024.0) + " KB`)\n");
+    }
+
+    private void writeSummary(Writer writer, int totalFiles, long totalSizeKB, String projectName, String projectType,
+                              boolean lightMode, String currentDate) throws IOException {
+        writer.write("\n---\n");
+        writer.write("## Итоги\n");
+        writer.write("- **Всего файлов:** " + totalFiles + "\n");
+        writer.write("- **Общий размер:** " + totalSizeKB + " KB\n");
+        writer.write("- **Тип проекта:** " + ReportUtils.escapeMarkdown(projectType) + "\n");
+        writer.write("- **Режим:** " + (lightMode ? "Light" : "Full") + "\n");
+        writer.write("- **Сгенерировано:** " + currentDate + "\n");
+        writer.write("  > Проект **" + ReportUtils.escapeMarkdown(projectName) + "** готов для анализа LLM.\n");
+        writer.write("  > ВАЖНО: Сфокусируйся на критических проблемах безопасности!\n");
     }
 
-    // Вспомогательный метод для экранирования (может быть статическим в ReportUtils, но оставим тут для примера)
-    private String escapeMarkdown(String input) {
-        return ReportUtils.escapeMarkdown(input);
+    // Полный Markdown-отчёт: шапка уже записана, остаются разделы файлов и итоги
+    private final class FullMarkdownReport implements ReportSink {
+
+        private final Utf8ChannelWriter writer;
+        private final boolean lightMode;
+        private final int totalFiles;
+        private final long totalSizeKB;
+        private final String projectName;
+        private final String projectType;
+        private final String currentDate;
+        private final DuplicateFinder duplicates;
+
+        private FullMarkdownReport(Utf8ChannelWriter writer, boolean lightMode, int totalFiles, long totalSizeKB,
+                                   String projectName, String projectType, String currentDate, DuplicateFinder duplicates) {
+            this.writer = writer;
+            this.lightMode = lightMode;
+            this.totalFiles = totalFiles;
+            this.totalSizeKB = totalSizeKB;
+            this.projectName = projectName;
+            this.projectType = projectType;
+            this.currentDate = currentDate;
+            this.duplicates = duplicates;
+        }
+
+        @Override
+        public void writeFile(FileInfo file, ContentLoader<RawFileContent> content) throws IOException {
+            if (!lightMode) {
+                writeFileSection(writer, file, content, duplicates);
+            }
+        }
+
+        @Override
+        public void finish() throws IOException {
+            // Итоги
+            writeSummary(writer, totalFiles, totalSizeKB, projectName, projectType, lightMode, currentDate);
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
+
+    // Потоковый Markdown-отчёт: итоговые разделы переносятся в конец, т.к. заранее неизвестны
+    private final class StreamingMarkdownWriter implements StreamingReportWriter {
+
+        private final Utf8ChannelWriter writer;
+        private final boolean lightMode;
+        private final Path projectPath;
+        private final String currentDate = ReportUtils.getCurrentDate();
+
+        private StreamingMarkdownWriter(String projectName, boolean lightMode, Path projectPath, String outputFile) throws IOException {
+            this.writer = new Utf8ChannelWriter(outputFile);
+            this.lightMode = lightMode;
+            this.projectPath = projectPath;
+
+            writer.write("# Аудит проекта: " + ReportUtils.escapeMarkdown(projectName) + "\n\n");
+            writer.write("**Сгенерировано:** " + currentDate + "\n");
+            writer.write("**Режим:** " + (lightMode ? "Light" : "Full") + "\n\n");
+            writer.write("> Отчет сформирован в потоковом режиме: структура, статистика и итоги приведены в конце.\n");
+            if (!lightMode) {
+                writer.write("\n## Содержимое файлов\n");
+            }
+        }
+
+        @Override
+        public void writeFile(FileInfo file) throws IOException {
+            if (!lightMode) {
+                writeFileSection(writer, file, source -> RawFileContent.load(source, projectPath), null);
+            }
+        }
+
+        @Override
+        public void finish(AnalysisResult result) throws IOException {
+            List<FileInfo> files = result.getFileInfoList();
+            writer.write("\n");
+            writeStructure(writer, files);
+            writer.write("\n");
+            writeStatistics(writer, result.getStatistics().getExtensionCounts());
+            writeSummary(writer, result.getTotalFiles(), result.getTotalSizeKB(), result.getProjectName(),
+                    result.getProjectType(), lightMode, currentDate);
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
     }
-}
\ No newline at end of file
+}
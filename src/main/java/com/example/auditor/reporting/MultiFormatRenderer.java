@@ -0,0 +1,182 @@
+package com.example.auditor.reporting;
+
+import com.example.auditor.model.FileInfo;
+import com.example.auditor.reporting.ContentPrefetcher.ContentLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Запись нескольких форматов отчёта за один проход по файлам.
+ * <p>
+ * Каждый файл читается один раз (с упреждающим чтением {@link ContentPrefetcher}) и раздаётся
+ * всем отчётам. Каждый отчёт пишется в своём потоке из ограниченной очереди: кодирование форматов
+ * идёт параллельно, а отставший отчёт притормаживает чтение, не накапливая содержимое в памяти.
+ * Дубликаты ({@link DuplicateFinder}) определяются здесь же, в потоке чтения, до передачи раздела отчётам.
+ * Дополнительные задачи (бинарные метаданные, которым содержимое не нужно) выполняются в том же пуле.
+ * <p>
+ * Файлы больше {@link RawFileContent#INLINE_LIMIT} проверяются один раз, но каждый отчёт
+ * копирует их сам - из кэша страниц ОС, не загружая в heap.
+ */
+final class MultiFormatRenderer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MultiFormatRenderer.class);
+
+    static final int QUEUE_CAPACITY = 64; // Разделов в очереди одного отчёта
+
+    private static final Section END = new Section(null, null, null, null); // Конец списка файлов
+    private static final AtomicInteger POOL_COUNTER = new AtomicInteger();
+
+    private MultiFormatRenderer() {
+    }
+
+    /**
+     * Пишет разделы файлов во все отчёты и завершает их. Отчёты закрываются в любом случае.
+     *
+     * @param files       Файлы в порядке отчётов.
+     * @param toRead      Файлы, содержимое которых нужно прочитать (остальные разделы берутся из кэша),
+     *                    в том же порядке.
+     * @param projectPath Корень проекта.
+     * @param sinks       Открытые отчёты.
+     * @param sideTasks   Задачи, выполняемые параллельно с отчётами.
+     * @param duplicates  Поиск дубликатов или null; отметки ставятся до передачи раздела отчётам.
+     * @return false, если какой-либо отчёт или задача завершились ошибкой (ошибки залогированы).
+     */
+    static boolean render(List<FileInfo> files, List<FileInfo> toRead, Path projectPath, List<ReportSink> sinks,
+                          List<Callable<Void>> sideTasks, DuplicateFinder duplicates) {
+        int poolId = POOL_COUNTER.incrementAndGet();
+        AtomicInteger threadCounter = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(sinks.size() + sideTasks.size(), runnable -> {
+            Thread thread = new Thread(runnable, "auditor-report-" + poolId + "-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<Future<Void>> futures = new ArrayList<>();
+        List<BlockingQueue<Section>> queues = new ArrayList<>();
+        boolean success = true;
+        try {
+            for (Callable<Void> task : sideTasks) {
+                futures.add(executor.submit(task));
+            }
+            for (ReportSink sink : sinks) {
+                BlockingQueue<Section> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+                queues.add(queue);
+                futures.add(executor.submit(() -> drain(sink, queue)));
+            }
+
+            Set<FileInfo> pending = new HashSet<>(); // Представления FileTable равны, но не идентичны
+            pending.addAll(toRead);
+            try (ContentPrefetcher<RawFileContent> prefetcher = new ContentPrefetcher<>(toRead,
+                    file -> RawFileContent.load(file, projectPath))) {
+                for (FileInfo file : files) {
+                    Section section;
+                    if (pending.remove(file)) {
+                        try {
+                            RawFileContent content = prefetcher.next(file);
+                            if (duplicates != null) {
+                                duplicates.check(file, content);
+                            }
+                            section = new Section(file, content, null, projectPath);
+                        } catch (IOException e) {
+                            section = new Section(file, null, e, projectPath); // Каждый отчёт запишет пометку об ошибке
+                        }
+                    } else {
+                        if (duplicates != null) {
+                            duplicates.checkCached(file);
+                        }
+                        section = new Section(file, null, null, projectPath);
+                    }
+                    for (BlockingQueue<Section> queue : queues) {
+                        queue.put(section);
+                    }
+                }
+            }
+            for (BlockingQueue<Section> queue : queues) {
+                queue.put(END);
+            }
+
+            for (Future<Void> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    LOGGER.error("Ошибка при записи отчета: {}", e.getCause().getMessage(), e.getCause());
+                    success = false;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.error("Запись отчетов прервана");
+            success = false;
+        } finally {
+            executor.shutdownNow(); // Прерывает отчёты, ожидающие очередь, если чтение завершилось досрочно
+        }
+        return success;
+    }
+
+    // Поток одного отчёта; после ошибки продолжает разбирать очередь, чтобы не блокировать чтение
+    private static Void drain(ReportSink sink, BlockingQueue<Section> queue) throws Exception {
+        Exception failure = null;
+        try (sink) {
+            for (Section section = queue.take(); section != END; section = queue.take()) {
+                if (failure == null) {
+                    try {
+                        sink.writeFile(section.file, section);
+                    } catch (IOException | RuntimeException e) {
+                        failure = e;
+                    }
+                }
+            }
+            if (failure == null) {
+                sink.finish();
+            }
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException("Запись отчета прервана");
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return null;
+    }
+
+    // Раздел файла в очереди отчёта: прочитанное содержимое, ошибка чтения или ничего (раздел в кэше)
+    private static final class Section implements ContentLoader<RawFileContent> {
+        private final FileInfo file;
+        private final RawFileContent content;
+        private final IOException error;
+        private final Path projectPath;
+
+        private Section(FileInfo file, RawFileContent content, IOException error, Path projectPath) {
+            this.file = file;
+            this.content = content;
+            this.error = error;
+            this.projectPath = projectPath;
+        }
+
+        @Override
+        public RawFileContent load(FileInfo requested) throws IOException {
+            if (error != null) {
+                throw error;
+            }
+            if (content != null) {
+                return content;
+            }
+            // Файл не читался заранее (раздел ожидался из кэша) - читаем сейчас
+            return RawFileContent.load(requested, projectPath);
+        }
+    }
+}
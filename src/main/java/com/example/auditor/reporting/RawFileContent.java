@@ -0,0 +1,731 @@
+package com.example.auditor.reporting;
+
+import com.example.auditor.config.ReportConfiguration;
+import com.example.auditor.model.ContentKind;
+import com.example.auditor.model.FileInfo;
+import com.example.auditor.utils.ContentSniffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.zip.CRC32C;
+
+/**
+ * Содержимое файла проекта для вставки в отчёт.
+ * <p>
+ * Вместо декодирования в String, trim() и обратного кодирования файл только проверяется
+ * на корректность UTF-8, а пробельные символы по краям отсекаются на уровне байтов
+ * (в UTF-8 все символы &lt;= U+0020 однобайтовые, поэтому результат совпадает с String.trim()).
+ * Небольшие файлы хранятся как байты, большие не загружаются в heap: в Markdown они копируются
+ * через {@link Utf8ChannelWriter#transferFrom}, в HTML - декодируются блоками в экранирующий Writer.
+ * <p>
+ * Файл не в UTF-8 не приводит к ошибке: кодировка подбирается по началу файла
+ * ({@link ContentSniffer#detectCharset}), и содержимое декодируется с заменой некорректных байтов -
+ * небольшие файлы сразу перекодируются в UTF-8, большие декодируются потоково при записи.
+ * Бинарные файлы (по первым байтам) не читаются целиком, UTF-16 перекодируется (см. {@link #load}):
+ * небольшие файлы сразу, большие - потоково при записи, как и другие файлы не в UTF-8.
+ * <p>
+ * Из текстового файла (в т.ч. UTF-16) больше порога выдержек (report-config.json) выводятся только первые
+ * и последние строки с пометкой о пропуске: читаются лишь диапазоны по {@link #EXCERPT_SIDE_BYTES} байтов
+ * в начале и в конце файла, поэтому многогигабайтный лог обходится в несколько десятков KB чтения.
+ * <p>
+ * При чтении файла целиком попутно считается CRC32C его байтов ({@link #getChecksum()}): по ней
+ * {@link DuplicateFinder} находит дубликаты без отдельного прохода по файлам.
+ */
+final class RawFileContent {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RawFileContent.class);
+
+    static final int INLINE_LIMIT = 64 * 1024; // Файлы до этого размера читаются в память целиком
+    private static final int CHUNK_SIZE = 64 * 1024;
+    static final long NO_CHECKSUM = -1; // Файл прочитан не целиком (выдержка, бинарный) или не прочитан
+    private static final ThreadLocal<ByteBuffer> CHUNK = ThreadLocal.withInitial(() -> ByteBuffer.allocate(CHUNK_SIZE));
+
+    // Выдержки из больших файлов (report-config.json); порог 0 - файлы выводятся целиком
+    static final int EXCERPT_SIDE_BYTES = 32 * 1024; // Не больше с каждой стороны, даже если строки длинные
+    private static final long EXCERPT_ABOVE_BYTES;
+    private static final int EXCERPT_HEAD_LINES;
+    private static final int EXCERPT_TAIL_LINES;
+
+    static {
+        ReportConfiguration configuration = ReportConfiguration.getDefault();
+        EXCERPT_ABOVE_BYTES = configuration.getExcerptAboveBytes();
+        EXCERPT_HEAD_LINES = configuration.getExcerptHeadLines();
+        EXCERPT_TAIL_LINES = configuration.getExcerptTailLines();
+    }
+
+    private static final RawFileContent EMPTY = new RawFileContent(null, ByteBuffer.allocate(0), 0, 0, 0, null, false, null);
+    private static final RawFileContent BINARY = new RawFileContent(null,
+            ByteBuffer.wrap("[Бинарный файл: содержимое не выводится]".getBytes(StandardCharsets.UTF_8)), 0, 0, 0, null, false, null);
+
+    private final Path path; // Для больших файлов
+    private final ByteBuffer bytes; // Для небольших файлов: уже обрезанное содержимое
+    private final long start; // Диапазон содержимого без пробельных краёв
+    private final long end;
+    private final long size; // Размер и время изменения на момент проверки
+    private final FileTime lastModified;
+    private final boolean truncated; // Диапазон - начало содержимого (см. truncate)
+    private final Charset charset; // Для больших файлов не в UTF-8; null - корректная UTF-8
+    private final boolean excerpt; // Выведены только начало и конец файла
+    private final long checksum; // CRC32C всех байтов файла или NO_CHECKSUM
+
+    private RawFileContent(Path path, ByteBuffer bytes, long start, long end, long size, FileTime lastModified, boolean truncated,
+                           Charset charset) {
+        this(path, bytes, start, end, size, lastModified, truncated, charset, false, NO_CHECKSUM);
+    }
+
+    private RawFileContent(Path path, ByteBuffer bytes, long start, long end, long size, FileTime lastModified, boolean truncated,
+                           Charset charset, boolean excerpt, long checksum) {
+        this.path = path;
+        this.bytes = bytes;
+        this.start = start;
+        this.end = end;
+        this.size = size;
+        this.lastModified = lastModified;
+        this.truncated = truncated;
+        this.charset = charset;
+        this.excerpt = excerpt;
+        this.checksum = checksum;
+    }
+
+    /**
+     * Читает и проверяет файл проекта.
+     * <p>
+     * Вид содержимого определяется по первым байтам ({@link ContentSniffer}) при первом чтении
+     * и запоминается в FileInfo (или берётся из снимка сканирования). Бинарный файл не читается:
+     * вместо содержимого выводится пометка. Текст в UTF-16 перекодируется в UTF-8.
+     *
+     * @param file              Файл проекта.
+     * @param baseDirectoryPath Корень проекта; файлы вне него дают пустое содержимое (как readFileContent).
+     * @return Содержимое файла.
+     * @throws IOException Ошибка чтения.
+     */
+    static RawFileContent load(FileInfo file, Path baseDirectoryPath) throws IOException {
+        Path filePath = file.getFullName();
+        if (!ReportUtils.isPathInsideBaseDirectory(filePath, baseDirectoryPath)) {
+            LOGGER.warn("Попытка чтения файла за пределами базовой директории: {}. Файл будет пропущен.", filePath);
+            return EMPTY;
+        }
+        FileTime lastModified = Files.getLastModifiedTime(filePath);
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            ContentKind kind = file.getContentKind();
+            if (kind == ContentKind.UNKNOWN) {
+                kind = ContentSniffer.sniff(channel);
+                file.setContentKind(kind);
+            }
+            switch (kind) {
+                case BINARY:
+                    LOGGER.debug("Бинарный файл, содержимое не выводится: {}", filePath);
+                    return BINARY;
+                case UTF16_LE:
+                    return loadUtf16(channel, filePath, lastModified, StandardCharsets.UTF_16LE);
+                case UTF16_BE:
+                    return loadUtf16(channel, filePath, lastModified, StandardCharsets.UTF_16BE);
+                default:
+                    long size = channel.size();
+                    if (isExcerpted(size)) {
+                        RawFileContent excerpt = excerpt(channel, file, size);
+                        if (excerpt != null) {
+                            return excerpt;
+                        }
+                    }
+                    return size <= INLINE_LIMIT
+                            ? loadInline(channel, (int) size, file, lastModified)
+                            : scan(channel, file, lastModified);
+            }
+        }
+    }
+
+    /**
+     * Выведены ли только начало и конец файла (решается при чтении: короткий по строкам
+     * или бинарный файл выдержкой не становится, даже если он больше порога).
+     */
+    boolean isExcerpt() {
+        return excerpt;
+    }
+
+    /**
+     * CRC32C всех байтов файла, посчитанная при чтении, или {@link #NO_CHECKSUM},
+     * если файл целиком не читался (выдержка, бинарный файл, файл вне проекта).
+     */
+    long getChecksum() {
+        return checksum;
+    }
+
+    /**
+     * Время изменения файла перед чтением (null для выдержек и пометок).
+     */
+    FileTime getLastModified() {
+        return lastModified;
+    }
+
+    private static boolean isExcerpted(long size) {
+        return EXCERPT_ABOVE_BYTES > 0 && size > EXCERPT_ABOVE_BYTES;
+    }
+
+    /**
+     * Оценка сверху размера содержимого файла в отчёте: для выдержки - не больше двух диапазонов.
+     * Текст UTF-16 в UTF-8 может стать в полтора раза длиннее (до 3 байтов на 2-байтовый символ),
+     * текст в однобайтовой кодировке - втрое (символы windows-1252 вроде '€', замены U+FFFD).
+     * <p>
+     * Однобайтовая кодировка известна только после чтения файла ({@link ContentKind#SINGLE_BYTE_TEXT}):
+     * в режиме наблюдения и при инкрементальном сканировании - со второй генерации. Файл, который
+     * ещё не читался, оценивается по размеру на диске, и для файлов не в UTF-8 оценка может быть занижена.
+     */
+    static long expectedBytes(FileInfo file) {
+        long size = file.getLength();
+        long bytes = isExcerpted(size) ? Math.min(size, 2L * EXCERPT_SIDE_BYTES) : size;
+        switch (file.getContentKind()) {
+            case UTF16_LE:
+            case UTF16_BE:
+                return (bytes + 1) / 2 * 3;
+            case SINGLE_BYTE_TEXT:
+                return bytes * 3;
+            default:
+                return bytes;
+        }
+    }
+
+    // Запоминает, в UTF-8 ли текстовый файл: по этому оценивается размер его раздела в следующий раз
+    private static void recordEncoding(FileInfo file, boolean utf8) {
+        file.setContentKind(utf8 ? ContentKind.TEXT : ContentKind.SINGLE_BYTE_TEXT);
+    }
+
+    // Первые и последние строки; null, если выдержка не короче файла (тогда файл читается обычно)
+    private static RawFileContent excerpt(FileChannel channel, FileInfo file, long size) throws IOException {
+        ByteBuffer head = readRange(channel, 0, (int) Math.min(size, EXCERPT_SIDE_BYTES));
+        int headEnd = afterLines(head, EXCERPT_HEAD_LINES);
+        long tailFrom = Math.max(headEnd, size - EXCERPT_SIDE_BYTES);
+        ByteBuffer tail = readRange(channel, tailFrom, (int) (size - tailFrom));
+        int tailStart = beforeLines(tail, EXCERPT_TAIL_LINES, tailFrom > headEnd);
+        long skipped = tailFrom + tailStart - headEnd;
+        if (skipped <= 0) {
+            return null;
+        }
+
+        Utf8Validator validator = new Utf8Validator();
+        boolean valid = validator.update(head.array(), 0, headEnd) && validator.isComplete()
+                && validator.update(tail.array(), tailStart, tail.limit() - tailStart) && validator.isComplete();
+        if (!valid) {
+            recordEncoding(file, false); // Корректность остального файла не проверялась
+        }
+        Charset charset = valid ? StandardCharsets.UTF_8 : ContentSniffer.detectCharset(head);
+        String headText = replacingDecoder(charset).decode(ByteBuffer.wrap(head.array(), 0, headEnd)).toString();
+        String tailText = replacingDecoder(charset).decode(ByteBuffer.wrap(tail.array(), tailStart, tail.limit() - tailStart)).toString();
+        return excerptOf(headText, tailText, skipped, file.getFullName(), size);
+    }
+
+    // UTF-16: выдержка из большого файла, иначе перекодирование целиком (небольшой файл) или при записи
+    private static RawFileContent loadUtf16(FileChannel channel, Path filePath, FileTime lastModified, Charset charset) throws IOException {
+        long size = channel.size();
+        if (isExcerpted(size)) {
+            RawFileContent excerpt = excerptUtf16(channel, filePath, size, charset);
+            if (excerpt != null) {
+                return excerpt;
+            }
+        }
+        return size <= INLINE_LIMIT
+                ? transcode(channel, (int) size, lastModified, charset)
+                : scanUtf16(channel, filePath, lastModified, charset);
+    }
+
+    // Выдержка из UTF-16: строки ищутся в декодированном тексте, каждый code unit - 2 байта файла
+    private static RawFileContent excerptUtf16(FileChannel channel, Path filePath, long size, Charset charset) throws IOException {
+        String head = replacingDecoder(charset).decode(readRange(channel, 0, (int) Math.min(size, EXCERPT_SIDE_BYTES) & ~1)).toString();
+        int headEnd = afterLines(head, EXCERPT_HEAD_LINES);
+        long tailFrom = Math.max(2L * headEnd, (size - EXCERPT_SIDE_BYTES) & ~1L);
+        String tail = replacingDecoder(charset).decode(readRange(channel, tailFrom, (int) (size - tailFrom) & ~1)).toString();
+        int tailStart = beforeLines(tail, EXCERPT_TAIL_LINES, tailFrom > 2L * headEnd);
+        long skipped = tailFrom + 2L * tailStart - 2L * headEnd;
+        if (skipped <= 0) {
+            return null;
+        }
+        int from = headEnd > 0 && head.charAt(0) == '\uFEFF' ? 1 : 0; // BOM не выводится
+        return excerptOf(head.substring(from, headEnd), tail.substring(tailStart), skipped, filePath, size);
+    }
+
+    private static RawFileContent excerptOf(String headText, String tailText, long skipped, Path filePath, long size) {
+        String separator = headText.isEmpty() || headText.endsWith("\n") ? "" : "\n";
+        String text = (headText + separator + "[... пропущено " + skipped + " байт ...]\n" + tailText).trim();
+        LOGGER.debug("Выдержка из файла {}: пропущено {} из {} байт", filePath, skipped, size);
+        return new RawFileContent(null, ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)), 0, 0, 0, null, false, null, true, NO_CHECKSUM);
+    }
+
+    private static ByteBuffer readRange(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining() && channel.read(buffer, position + buffer.position()) > 0) {
+            // Позиционное чтение до заполнения буфера или конца файла
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    // Конец первых lines строк начала файла; если строк меньше - конец последней целой строки
+    private static int afterLines(ByteBuffer head, int lines) {
+        byte[] data = head.array();
+        int lastLineEnd = 0;
+        int count = 0;
+        for (int i = 0; i < head.limit() && count < lines; i++) {
+            if (data[i] == '\n') {
+                lastLineEnd = i + 1;
+                count++;
+            }
+        }
+        if (lastLineEnd > 0 || lines == 0) {
+            return lastLineEnd;
+        }
+        // Одна длинная строка - обрезаем перед последним символом UTF-8, если он мог не поместиться
+        int cut = head.limit();
+        int lead = cut - 1;
+        while (lead > 0 && isContinuation(data[lead])) {
+            lead--;
+        }
+        return lead >= 0 && (data[lead] & 0xFF) >= 0xC0 ? lead : cut;
+    }
+
+    // Начало последних lines строк конца файла; partial - буфер начинается с середины строки
+    private static int beforeLines(ByteBuffer tail, int lines, boolean partial) {
+        byte[] data = tail.array();
+        int end = tail.limit();
+        if (lines == 0) {
+            return end;
+        }
+        int count = 0;
+        for (int i = end - 2; i >= 0; i--) { // Перевод строки в самом конце файла строку не начинает
+            if (data[i] == '\n' && ++count == lines) {
+                return i + 1;
+            }
+        }
+        if (!partial) {
+            return 0;
+        }
+        for (int i = 0; i < end; i++) {
+            if (data[i] == '\n') {
+                return i + 1; // Первая неполная строка отбрасывается
+            }
+        }
+        int start = 0;
+        while (start < end && isContinuation(data[start])) {
+            start++;
+        }
+        return start;
+    }
+
+    // Варианты для декодированного текста (UTF-16): индексы в символах, суррогатная пара не разрезается
+    private static int afterLines(String head, int lines) {
+        int lastLineEnd = 0;
+        int count = 0;
+        for (int i = head.indexOf('\n'); i >= 0 && count < lines; i = head.indexOf('\n', i + 1)) {
+            lastLineEnd = i + 1;
+            count++;
+        }
+        if (lastLineEnd > 0 || lines == 0) {
+            return lastLineEnd;
+        }
+        int cut = head.length();
+        return cut > 0 && Character.isHighSurrogate(head.charAt(cut - 1)) ? cut - 1 : cut;
+    }
+
+    private static int beforeLines(String tail, int lines, boolean partial) {
+        int end = tail.length();
+        if (lines == 0) {
+            return end;
+        }
+        int count = 0;
+        for (int i = tail.lastIndexOf('\n', end - 2); i >= 0; i = tail.lastIndexOf('\n', i - 1)) {
+            if (++count == lines) {
+                return i + 1;
+            }
+        }
+        if (!partial) {
+            return 0;
+        }
+        int newline = tail.indexOf('\n');
+        if (newline >= 0) {
+            return newline + 1; // Первая неполная строка отбрасывается
+        }
+        return end > 0 && Character.isLowSurrogate(tail.charAt(0)) ? 1 : 0;
+    }
+
+    // Небольшой UTF-16 целиком декодируется и кодируется в UTF-8 (BOM отбрасывается), с той же обрезкой краёв
+    private static RawFileContent transcode(FileChannel channel, int size, FileTime lastModified, Charset charset) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        while (buffer.hasRemaining() && channel.read(buffer, buffer.position()) >= 0) {
+            // Читаем до заполнения буфера или конца файла
+        }
+        buffer.flip();
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), 0, buffer.limit());
+        String text = replacingDecoder(charset).decode(buffer).toString();
+        if (text.startsWith("\uFEFF")) {
+            text = text.substring(1);
+        }
+        return new RawFileContent(null, ByteBuffer.wrap(text.trim().getBytes(StandardCharsets.UTF_8)), 0, 0, 0, lastModified, false, null,
+                false, crc.getValue());
+    }
+
+    // Большой UTF-16: границы содержимого без BOM и пробельных краёв ищутся потоково, по 2-байтовым code unit
+    private static RawFileContent scanUtf16(FileChannel channel, Path filePath, FileTime lastModified, Charset charset) throws IOException {
+        boolean littleEndian = charset == StandardCharsets.UTF_16LE;
+        ByteBuffer chunk = CHUNK.get();
+        byte[] data = chunk.array();
+        CRC32C crc = new CRC32C();
+        long offset = 0; // Позиция data[0] в файле
+        int carried = 0; // Нечётный байт, перенесённый из предыдущего блока
+        long first = -1;
+        long last = -1;
+        chunk.clear();
+        while (channel.read(chunk) >= 0) {
+            int length = chunk.position();
+            crc.update(data, carried, length - carried);
+            int units = length & ~1;
+            for (int i = 0; i < units; i += 2) {
+                int unit = utf16Unit(data, i, littleEndian);
+                if (unit <= ' ' || (unit == 0xFEFF && offset + i == 0)) {
+                    continue;
+                }
+                if (first < 0) {
+                    first = offset + i;
+                }
+                last = offset + i + 2;
+            }
+            offset += units;
+            carried = length - units;
+            chunk.clear();
+            if (carried > 0) {
+                chunk.put(data[length - 1]);
+            }
+        }
+        if (carried > 0) {
+            // Неполный code unit в конце файла декодируется в U+FFFD
+            first = first < 0 ? offset : first;
+            last = offset + 1;
+        }
+        LOGGER.debug("Файл UTF-16 декодируется при записи: {}", filePath);
+        return first < 0
+                ? EMPTY
+                : new RawFileContent(filePath, null, first, last, offset + carried, lastModified, false, charset, false, crc.getValue());
+    }
+
+    private static int utf16Unit(byte[] data, int i, boolean littleEndian) {
+        return littleEndian
+                ? (data[i] & 0xFF) | (data[i + 1] & 0xFF) << 8
+                : (data[i] & 0xFF) << 8 | (data[i + 1] & 0xFF);
+    }
+
+    private static boolean isUtf16(Charset charset) {
+        return charset == StandardCharsets.UTF_16LE || charset == StandardCharsets.UTF_16BE;
+    }
+
+    private static RawFileContent loadInline(FileChannel channel, int size, FileInfo file, FileTime lastModified) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+            // Читаем до заполнения буфера или конца файла
+        }
+        byte[] data = buffer.array();
+        int length = buffer.position();
+        CRC32C crc = new CRC32C();
+        crc.update(data, 0, length);
+        Utf8Validator validator = new Utf8Validator();
+        boolean valid = validator.update(data, 0, length) && validator.isComplete();
+        recordEncoding(file, valid);
+        int from = 0;
+        while (from < length && isTrimmed(data[from])) {
+            from++;
+        }
+        int to = length;
+        while (to > from && isTrimmed(data[to - 1])) {
+            to--;
+        }
+        if (!valid) {
+            // Края совпадают: в UTF-8 и однобайтовых кодировках символы <= U+0020 - те же байты
+            Charset charset = ContentSniffer.detectCharset(ByteBuffer.wrap(data, 0, length));
+            LOGGER.debug("Файл не в UTF-8, декодируется как {}: {}", charset, file.getFullName());
+            String text = replacingDecoder(charset).decode(ByteBuffer.wrap(data, from, to - from)).toString();
+            return new RawFileContent(null, ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)), 0, 0, 0, lastModified, false, null,
+                    false, crc.getValue());
+        }
+        return new RawFileContent(null, ByteBuffer.wrap(data, from, to - from).slice(), 0, 0, 0, lastModified, false, null,
+                false, crc.getValue());
+    }
+
+    // Большой файл: проверка и поиск границ потоково, без хранения содержимого
+    private static RawFileContent scan(FileChannel channel, FileInfo file, FileTime lastModified) throws IOException {
+        Path filePath = file.getFullName();
+        ByteBuffer chunk = CHUNK.get();
+        byte[] data = chunk.array();
+        Utf8Validator validator = new Utf8Validator();
+        CRC32C crc = new CRC32C();
+        boolean valid = true;
+        long offset = 0;
+        long first = -1;
+        long last = -1;
+        chunk.clear();
+        while (channel.read(chunk) >= 0) {
+            int length = chunk.position();
+            crc.update(data, 0, length);
+            if (valid && !validator.update(data, 0, length)) {
+                valid = false; // Дочитываем только ради границ содержимого
+            }
+            if (first < 0) {
+                for (int i = 0; i < length; i++) {
+                    if (!isTrimmed(data[i])) {
+                        first = offset + i;
+                        break;
+                    }
+                }
+            }
+            for (int i = length - 1; i >= 0; i--) {
+                if (!isTrimmed(data[i])) {
+                    last = offset + i;
+                    break;
+                }
+            }
+            offset += length;
+            chunk.clear();
+        }
+        Charset charset = null;
+        recordEncoding(file, valid && validator.isComplete());
+        if (!valid || !validator.isComplete()) {
+            charset = ContentSniffer.detectCharset(channel);
+            LOGGER.debug("Файл не в UTF-8, декодируется как {}: {}", charset, filePath);
+        }
+        // Запоминаем фактически прочитанный размер: если файл менялся во время чтения, запись это обнаружит
+        return first < 0
+                ? EMPTY
+                : new RawFileContent(filePath, null, first, last + 1, offset, lastModified, false, charset, false, crc.getValue());
+    }
+
+    // Декодер, заменяющий некорректные байты на U+FFFD, вместо исключения
+    static CharsetDecoder replacingDecoder(Charset charset) {
+        return charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    // Символы, которые отбрасывает String.trim() (для байтов UTF-8 - только ASCII <= пробела)
+    private static boolean isTrimmed(byte b) {
+        return (b & 0xFF) <= ' ';
+    }
+
+    /**
+     * Начало содержимого не длиннее maxBytes байтов, обрезанное по границе символа UTF-8
+     * (для большого файла читаются только байты у границы).
+     *
+     * @param maxBytes Лимит в байтах.
+     * @return Обрезанное содержимое или это же, если оно не длиннее лимита.
+     */
+    RawFileContent truncate(long maxBytes) throws IOException {
+        if (bytes != null) {
+            if (bytes.remaining() <= maxBytes) {
+                return this;
+            }
+            int cut = (int) maxBytes;
+            while (cut > 0 && isContinuation(bytes.get(bytes.position() + cut))) {
+                cut--;
+            }
+            ByteBuffer head = bytes.duplicate();
+            head.limit(head.position() + cut);
+            return new RawFileContent(null, head.slice(), 0, 0, 0, null, true, null, excerpt, NO_CHECKSUM);
+        }
+        if (isUtf16(charset)) {
+            // Символ UTF-16 в UTF-8 - не больше полутора его байтов
+            long cut = (end - start + 1) / 2 * 3 <= maxBytes ? end : utf16Cut(maxBytes);
+            return cut >= end ? this : new RawFileContent(path, null, start, cut, size, lastModified, true, charset);
+        }
+        if (end - start <= maxBytes) {
+            return this;
+        }
+        long cut = start + maxBytes;
+        if (charset != null && charset != StandardCharsets.UTF_8) {
+            return new RawFileContent(path, null, start, cut, size, lastModified, true, charset); // Однобайтовая кодировка
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer probe = ByteBuffer.allocate(1);
+            while (cut > start && channel.read(probe, cut) > 0 && isContinuation(probe.get(0))) {
+                probe.clear();
+                cut--;
+            }
+        }
+        return new RawFileContent(path, null, start, cut, size, lastModified, true, charset);
+    }
+
+    // Конец начала UTF-16, которое в UTF-8 не длиннее maxBytes; суррогатная пара не разрывается.
+    // Читается не больше 2 * maxBytes байтов от начала содержимого
+    private long utf16Cut(long maxBytes) throws IOException {
+        boolean littleEndian = charset == StandardCharsets.UTF_16LE;
+        ByteBuffer chunk = CHUNK.get();
+        byte[] data = chunk.array();
+        long position = start;
+        long written = 0;
+        boolean high = false; // Предыдущий code unit - старший суррогат
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (end - position >= 2) {
+                chunk.clear();
+                chunk.limit((int) Math.min(CHUNK_SIZE, end - position) & ~1);
+                int read = channel.read(chunk, position);
+                if (read < 2) {
+                    break;
+                }
+                for (int i = 0; i + 1 < read; i += 2) {
+                    int unit = utf16Unit(data, i, littleEndian);
+                    int width;
+                    if (high && Character.isLowSurrogate((char) unit)) {
+                        width = 0; // Учтён вместе со старшим: пара - 4 байта UTF-8
+                    } else if (Character.isHighSurrogate((char) unit)) {
+                        width = 4;
+                    } else {
+                        width = unit < 0x80 ? 1 : unit < 0x800 ? 2 : 3;
+                    }
+                    if (width > 0 && written + width > maxBytes) {
+                        return position + i;
+                    }
+                    written += width;
+                    high = Character.isHighSurrogate((char) unit);
+                }
+                position += read & ~1;
+            }
+        }
+        return end;
+    }
+
+    // Байт продолжения многобайтовой последовательности UTF-8 (10xxxxxx)
+    private static boolean isContinuation(byte b) {
+        return (b & 0xC0) == 0x80;
+    }
+
+    /**
+     * Записывает содержимое (без пробельных краёв) в отчёт.
+     * В {@link Utf8ChannelWriter} байты пишутся напрямую, в остальные Writer (в т.ч. экранирующие) -
+     * декодированным текстом; большие файлы декодируются потоково, блоками по 64 KB.
+     * Большие файлы не в UTF-8 всегда декодируются потоково.
+     */
+    void writeTo(Writer writer) throws IOException {
+        if (bytes != null) {
+            if (writer instanceof Utf8ChannelWriter) {
+                ((Utf8ChannelWriter) writer).writeBytes(bytes.duplicate());
+            } else {
+                writer.write(StandardCharsets.UTF_8.decode(bytes.duplicate()).toString());
+            }
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() == size && Files.getLastModifiedTime(path).equals(lastModified)) {
+                if (charset == null && writer instanceof Utf8ChannelWriter) {
+                    ((Utf8ChannelWriter) writer).transferFrom(channel, start, end - start);
+                } else {
+                    decodeRange(channel, writer);
+                }
+                return;
+            }
+        }
+        // Файл изменился после проверки - обычное чтение (UTF-8 - со строгим декодированием)
+        String text = charset != null ? new String(Files.readAllBytes(path), charset) : Files.readString(path, StandardCharsets.UTF_8);
+        if (isUtf16(charset) && text.startsWith("\uFEFF")) {
+            text = text.substring(1);
+        }
+        text = text.trim();
+        if (truncated && text.length() > end - start) {
+            int cut = (int) (end - start); // Символов не больше, чем байтов
+            text = text.substring(0, Character.isLowSurrogate(text.charAt(cut)) ? cut - 1 : cut);
+        }
+        writer.write(text);
+    }
+
+    private void decodeRange(FileChannel channel, Writer writer) throws IOException {
+        // Для корректной UTF-8 ошибка означает изменение файла - исключение, как у readString
+        CharsetDecoder decoder = charset != null ? replacingDecoder(charset) : StandardCharsets.UTF_8.newDecoder();
+        ByteBuffer bytes = CHUNK.get();
+        CharBuffer chars = CharBuffer.allocate(CHUNK_SIZE);
+        long position = start;
+        long remaining = end - start;
+        bytes.clear();
+        do {
+            if (remaining > 0) {
+                bytes.limit((int) Math.min(bytes.capacity(), bytes.position() + remaining));
+                int read = channel.read(bytes, position);
+                if (read < 0) {
+                    throw new IOException("Файл изменился во время копирования в отчет");
+                }
+                position += read;
+                remaining -= read;
+            }
+            bytes.flip();
+            CoderResult result = decoder.decode(bytes, chars, remaining == 0);
+            if (result.isError()) {
+                result.throwException();
+            }
+            writer.write(chars.array(), 0, chars.position());
+            chars.clear();
+            bytes.compact(); // Незавершённая последовательность переносится в следующий блок
+        } while (remaining > 0 || bytes.position() > 0);
+    }
+
+    /**
+     * Потоковая проверка корректности UTF-8 с теми же правилами, что у декодера StandardCharsets.UTF_8:
+     * без overlong-последовательностей, суррогатов и кодов выше U+10FFFF.
+     */
+    private static final class Utf8Validator {
+
+        private int needed; // Сколько байтов продолжения ещё ожидается
+        private int lower = 0x80; // Допустимый диапазон следующего байта продолжения
+        private int upper = 0xBF;
+
+        boolean update(byte[] data, int off, int len) {
+            for (int i = off, end = off + len; i < end; i++) {
+                int b = data[i] & 0xFF;
+                if (needed == 0) {
+                    if (b < 0x80) {
+                        continue;
+                    }
+                    if (b >= 0xC2 && b <= 0xDF) {
+                        needed = 1;
+                    } else if (b == 0xE0) {
+                        needed = 2;
+                        lower = 0xA0;
+                    } else if (b == 0xED) {
+                        needed = 2;
+                        upper = 0x9F;
+                    } else if (b >= 0xE1 && b <= 0xEF) {
+                        needed = 2;
+                    } else if (b == 0xF0) {
+                        needed = 3;
+                        lower = 0x90;
+                    } else if (b >= 0xF1 && b <= 0xF3) {
+                        needed = 3;
+                    } else if (b == 0xF4) {
+                        needed = 3;
+                        upper = 0x8F;
+                    } else {
+                        return false;
+                    }
+                } else {
+                    if (b < lower || b > upper) {
+                        return false;
+                    }
+                    lower = 0x80;
+                    upper = 0xBF;
+                    needed--;
+                }
+            }
+            return true;
+        }
+
+        boolean isComplete() {
+            return needed == 0;
+        }
+    }
+}
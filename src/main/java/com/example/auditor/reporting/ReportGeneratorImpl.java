@@ -1,17 +1,28 @@
 package com.example.auditor.reporting;
 
+import com.example.auditor.config.ReportConfiguration;
 import com.example.auditor.core.ReportGenerator;
 import com.example.auditor.model.AnalysisConfig;
 import com.example.auditor.model.AnalysisResult;
 import com.example.auditor.model.FileInfo;
+import com.example.auditor.model.FileTable;
+import com.example.auditor.model.ProjectStatistics;
 import com.example.auditor.utils.ConsoleColors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.function.BiFunction;
+import java.util.stream.Stream;
 
 public class ReportGeneratorImpl implements ReportGenerator {
 
@@ -20,15 +31,70 @@ public class ReportGeneratorImpl implements ReportGenerator {
     private final MarkdownReportGenerator markdownGenerator = new MarkdownReportGenerator();
     private final HtmlReportGenerator htmlGenerator = new HtmlReportGenerator();
     private final JsonMetadataGenerator jsonGenerator = new JsonMetadataGenerator();
+    private final BinaryMetadataGenerator binaryGenerator = ReportConfiguration.getDefault().isBinaryMetadata()
+            ? new BinaryMetadataGenerator() : null; // null - бинарные метаданные не пишутся
+    private final long partBudgetBytes = MarkdownPartWriter.budgetBytes(ReportConfiguration.getDefault()); // 0 - Markdown одним файлом
+
+    // Кэши разделов файлов для повторной генерации (режим наблюдения); null, пока не используются
+    private SectionCache markdownSections;
+    private SectionCache htmlSections;
+    private ChecksumCache checksums; // Суммы для поиска дубликатов без перечитывания неизменившихся файлов
+
+    private final boolean printResults; // Вывод списка отчётов и предложение открыть их
+
+    public ReportGeneratorImpl() {
+        this(true);
+    }
+
+    /**
+     * @param printResults false - отчёты пишутся без вывода в консоль и вопросов пользователю
+     *                     (пакетный режим: экземпляр используется из нескольких потоков).
+     */
+    public ReportGeneratorImpl(boolean printResults) {
+        this.printResults = printResults;
+    }
 
     @Override
     public void generate(AnalysisResult result, AnalysisConfig config, Path outputDir) {
+        GeneratedReports reports = writeReports(result, config, outputDir);
+        if (reports != null && printResults) {
+            printResults(reports.markdownFile, reports.htmlFile, reports.jsonFile, reports.binaryFile, config.shouldOpenResultsAfterwards());
+        }
+    }
+
+    @Override
+    public void regenerate(AnalysisResult result, AnalysisConfig config, Path outputDir, Set<String> changedPaths) {
+        if (markdownSections == null) {
+            // Кэш включается при первой повторной генерации и дальше живёт вместе с генератором
+            markdownSections = new SectionCache();
+            htmlSections = new SectionCache();
+            checksums = new ChecksumCache();
+            markdownGenerator.setSectionCache(markdownSections);
+            htmlGenerator.setSectionCache(htmlSections);
+        }
+        if (changedPaths == null) {
+            markdownSections.clear();
+            htmlSections.clear();
+            checksums.clear();
+        } else {
+            markdownSections.invalidate(changedPaths);
+            htmlSections.invalidate(changedPaths);
+            checksums.invalidate(changedPaths);
+        }
+        // Без вывода списка файлов и вопроса об открытии: отчёты обновляются в фоне
+        if (writeReports(result, config, outputDir) != null) {
+            LOGGER.info("Отчеты обновлены: {} файлов, изменено {}", result.getTotalFiles(),
+                    changedPaths != null ? changedPaths.size() : "все");
+        }
+    }
+
+    // Записывает отчёты выбранных форматов; null, если директорию вывода создать не удалось
+    private GeneratedReports writeReports(AnalysisResult result, AnalysisConfig config, Path outputDir) {
         String projectName = result.getProjectName();
         String projectType = result.getProjectType();
         List<FileInfo> files = result.getFileInfoList();
         boolean lightMode = config.isLightMode();
         boolean generateJson = config.shouldGenerateJsonMetadata();
-        boolean openAfterwards = config.shouldOpenResultsAfterwards();
         String outputFileName = config.getOutputFileName();
         // --- ПЕРЕДАЁМ projectPath ---
         Path projectPath = config.getProjectPath();
@@ -39,38 +105,226 @@ public class ReportGeneratorImpl implements ReportGenerator {
             Files.createDirectories(outputDir);
         } catch (IOException e) {
             LOGGER.error("Ошибка при создании директории вывода: {}", e.getMessage(), e);
-            return; // Прерываем генерацию
+            return null; // Прерываем генерацию
         }
 
+        // Дубликаты выводятся ссылкой на первый файл с тем же содержимым; ищутся по содержимому, которое читают отчёты
+        DuplicateFinder duplicates = lightMode ? null : new DuplicateFinder(files, checksums);
+
         // Генерация в зависимости от формата
         AnalysisConfig.OutputFormat format = config.getOutputFormat();
+        GeneratedReports reports = new GeneratedReports();
 
-        String markdownFile = null;
-        String htmlFile = null;
-        String jsonFile = null;
+        // Markdown под бюджет токенов или частями пишется отдельно от HTML
+        boolean tokenBudget = config.getTokenBudget() > 0 && !lightMode;
+        if (format == AnalysisConfig.OutputFormat.BOTH && partBudgetBytes == 0 && !tokenBudget) {
+            // Оба отчёта с содержимым файлов - один проход с общим чтением файлов
+            reports.markdownFile = outputDir.resolve(outputFileName + ".md").toString();
+            reports.htmlFile = outputDir.resolve(outputFileName + ".html").toString();
+            if (generateJson) {
+                reports.jsonFile = outputDir.resolve(outputFileName + jsonGenerator.getFileExtension()).toString();
+                reports.binaryFile = binaryFile(outputDir, outputFileName);
+            }
+            writeReportsTogether(result, lightMode, projectPath, reports, duplicates);
+            logDuplicates(duplicates);
+            return reports;
+        }
 
-        if (format == AnalysisConfig.OutputFormat.MARKDOWN || format == AnalysisConfig.OutputFormat.BOTH || format == AnalysisConfig.OutputFormat.STRUCTURE_ONLY) {
-            markdownFile = outputDir.resolve(outputFileName + ".md").toString();
+        if (tokenBudget && format != AnalysisConfig.OutputFormat.HTML) {
+            // Самые важные файлы, сколько помещается в бюджет; разбиение на части не нужно
+            reports.markdownFile = outputDir.resolve(outputFileName + ".md").toString();
+            TokenBudgetPacker.Selection selection = TokenBudgetPacker.pack(files, config.getTokenBudget());
+            LOGGER.info("Бюджет {} токенов: отобрано {} из {} файлов, обрезано {}", config.getTokenBudget(),
+                    selection.getFiles().size(), files.size(), selection.getTruncatedFiles());
+            markdownGenerator.generateWithinBudget(selection, files.size(), projectName, projectType, projectPath,
+                    config.getTokenBudget(), reports.markdownFile, duplicates);
+        } else if (partBudgetBytes > 0 && format != AnalysisConfig.OutputFormat.HTML) {
+            // Markdown частями с оглавлением; при BOTH HTML пишется отдельно ниже
+            reports.markdownFile = MarkdownPartWriter.write(markdownGenerator, result, lightMode, projectPath, partBudgetBytes,
+                    outputDir, outputFileName, duplicates);
+        } else if (format == AnalysisConfig.OutputFormat.MARKDOWN || format == AnalysisConfig.OutputFormat.STRUCTURE_ONLY) {
+            reports.markdownFile = outputDir.resolve(outputFileName + ".md").toString();
             // Передаём projectPath в generate
-            markdownGenerator.generate(files, projectName, projectType, lightMode, projectPath, markdownFile);
+            markdownGenerator.generate(files, result.getStatistics(), projectName, projectType, lightMode, projectPath, reports.markdownFile,
+                    duplicates);
         }
 
         if (format == AnalysisConfig.OutputFormat.HTML || format == AnalysisConfig.OutputFormat.BOTH) {
-            htmlFile = outputDir.resolve(outputFileName + ".html").toString();
-            // Передаём projectPath в generate
-            htmlGenerator.generate(files, projectName, projectType, lightMode, projectPath, htmlFile);
+            reports.htmlFile = outputDir.resolve(outputFileName + ".html").toString();
+            // Передаём projectPath в generate; при BOTH файлы, отмеченные проходом Markdown, не перечитываются,
+            // а остальные (не вошедшие в бюджет, из других частей) проверяются при записи HTML
+            htmlGenerator.generate(files, result.getStatistics(), projectName, projectType, lightMode, projectPath, reports.htmlFile,
+                    duplicates);
         }
+        logDuplicates(duplicates);
 
         if (generateJson) {
-            jsonFile = outputDir.resolve(outputFileName + ".json").toString();
+            reports.jsonFile = outputDir.resolve(outputFileName + jsonGenerator.getFileExtension()).toString();
             // JsonMetadataGenerator не читает содержимое файлов, передавать projectPath НЕ нужно
+            jsonGenerator.generate(result, reports.jsonFile);
+            reports.binaryFile = binaryFile(outputDir, outputFileName);
+            if (reports.binaryFile != null) {
+                binaryGenerator.generate(result, projectPath, reports.binaryFile);
+            }
+        }
+        return reports;
+    }
+
+    private static void logDuplicates(DuplicateFinder duplicates) {
+        if (duplicates != null && duplicates.getDuplicateCount() > 0) {
+            LOGGER.info("Найдено файлов-дубликатов: {}", duplicates.getDuplicateCount());
+        }
+    }
+
+    // Путь к бинарным метаданным или null, если они отключены в report-config.json
+    private String binaryFile(Path outputDir, String outputFileName) {
+        return binaryGenerator != null ? outputDir.resolve(outputFileName + BinaryMetadataGenerator.FILE_EXTENSION).toString() : null;
+    }
+
+    /**
+     * Markdown, HTML и (при необходимости) JSON за один проход: каждый файл читается один раз
+     * и раздаётся отчётам, которые пишутся параллельно (см. {@link MultiFormatRenderer}).
+     * JSON пишется после отчётов: он перечисляет дубликаты, найденные при их записи.
+     */
+    private void writeReportsTogether(AnalysisResult result, boolean lightMode, Path projectPath, GeneratedReports reports,
+                                      DuplicateFinder duplicates) {
+        List<FileInfo> files = result.getFileInfoList();
+        List<ReportSink> sinks = new ArrayList<>();
+        try {
+            // Дубликаты отмечает поток чтения (MultiFormatRenderer), отчёты используют готовые отметки
+            sinks.add(markdownGenerator.openReport(files, result.getStatistics(), result.getProjectName(), result.getProjectType(),
+                    lightMode, reports.markdownFile, null));
+            sinks.add(htmlGenerator.openReport(files, result.getStatistics(), result.getProjectName(), result.getProjectType(),
+                    lightMode, reports.htmlFile, null));
+        } catch (IOException e) {
+            LOGGER.error("Ошибка при создании отчетов: {}", e.getMessage(), e);
+            for (ReportSink sink : sinks) {
+                try {
+                    sink.close();
+                } catch (IOException closeError) {
+                    LOGGER.error("Ошибка при закрытии отчета: {}", closeError.getMessage(), closeError);
+                }
+            }
+            return;
+        }
+
+        List<Callable<Void>> sideTasks = new ArrayList<>();
+        if (reports.binaryFile != null) {
+            sideTasks.add(() -> {
+                binaryGenerator.generate(result, projectPath, reports.binaryFile);
+                return null;
+            });
+        }
+        List<FileInfo> toRead = lightMode ? List.of() : filesToRead(files);
+        MultiFormatRenderer.render(files, toRead, projectPath, sinks, sideTasks, duplicates);
+        if (reports.jsonFile != null) {
+            jsonGenerator.generate(result, reports.jsonFile);
+        }
+    }
+
+    // Файлы, разделы которых отсутствуют хотя бы в одном из кэшей (без кэшей - все), в порядке отчёта
+    private List<FileInfo> filesToRead(List<FileInfo> files) {
+        if (markdownSections == null) {
+            return files;
+        }
+        Set<FileInfo> missing = new HashSet<>();
+        missing.addAll(markdownSections.missing(files));
+        missing.addAll(htmlSections.missing(files));
+        List<FileInfo> toRead = new ArrayList<>(missing.size());
+        for (FileInfo file : files) {
+            if (missing.contains(file)) {
+                toRead.add(file);
+            }
+        }
+        return toRead;
+    }
+
+    @Override
+    public void generateStreaming(Stream<FileInfo> files, AnalysisConfig config, Path outputDir,
+                                  BiFunction<List<FileInfo>, ProjectStatistics, AnalysisResult> summarizer) {
+        boolean lightMode = config.isLightMode();
+        String outputFileName = config.getOutputFileName();
+        Path projectPath = config.getProjectPath();
+        String projectName = projectPath.getFileName().toString();
+
+        try {
+            Files.createDirectories(outputDir);
+        } catch (IOException e) {
+            LOGGER.error("Ошибка при создании директории вывода: {}", e.getMessage(), e);
+            return; // Прерываем генерацию
+        }
+
+        AnalysisConfig.OutputFormat format = config.getOutputFormat();
+
+        String markdownFile = null;
+        String htmlFile = null;
+        String jsonFile = null;
+        String binaryFile = null;
+
+        // Все выбранные форматы пишутся одновременно за один проход по потоку
+        List<StreamingReportWriter> writers = new ArrayList<>();
+        List<FileInfo> collected = new FileTable(); // Только метаданные, содержимое файлов не хранится
+        ProjectStatistics statistics = new ProjectStatistics(); // Набирается по мере прохождения файлами фильтра
+        AnalysisResult result = null;
+        try {
+            if (format == AnalysisConfig.OutputFormat.MARKDOWN || format == AnalysisConfig.OutputFormat.BOTH || format == AnalysisConfig.OutputFormat.STRUCTURE_ONLY) {
+                markdownFile = outputDir.resolve(outputFileName + ".md").toString();
+                writers.add(markdownGenerator.openStreaming(projectName, lightMode, projectPath, markdownFile));
+            }
+            if (format == AnalysisConfig.OutputFormat.HTML || format == AnalysisConfig.OutputFormat.BOTH) {
+                htmlFile = outputDir.resolve(outputFileName + ".html").toString();
+                writers.add(htmlGenerator.openStreaming(projectName, lightMode, projectPath, htmlFile));
+            }
+
+            Iterator<FileInfo> iterator = files.iterator();
+            while (iterator.hasNext()) {
+                FileInfo file = iterator.next();
+                collected.add(file);
+                statistics.add(file);
+                for (StreamingReportWriter writer : writers) {
+                    writer.writeFile(file);
+                }
+            }
+
+            result = summarizer.apply(collected, statistics);
+            for (StreamingReportWriter writer : writers) {
+                writer.finish(result);
+            }
+        } catch (IOException | UncheckedIOException e) {
+            LOGGER.error("Ошибка при потоковой записи отчета: {}", e.getMessage(), e);
+        } finally {
+            for (StreamingReportWriter writer : writers) {
+                try {
+                    writer.close();
+                } catch (IOException e) {
+                    LOGGER.error("Ошибка при закрытии отчета: {}", e.getMessage(), e);
+                }
+            }
+        }
+
+        if (result != null && config.shouldGenerateJsonMetadata()) {
+            jsonFile = outputDir.resolve(outputFileName + jsonGenerator.getFileExtension()).toString();
             jsonGenerator.generate(result, jsonFile);
+            binaryFile = binaryFile(outputDir, outputFileName);
+            if (binaryFile != null) {
+                binaryGenerator.generate(result, projectPath, binaryFile);
+            }
         }
 
+        if (printResults) {
+            printResults(markdownFile, htmlFile, jsonFile, binaryFile, config.shouldOpenResultsAfterwards());
+        }
+    }
+
+    // Вывод списка созданных файлов и (по желанию) их открытие
+    private void printResults(String markdownFile, String htmlFile, String jsonFile, String binaryFile, boolean openAfterwards) {
         System.out.println(ConsoleColors.GREEN + "\n✓ Отчеты успешно сгенерированы! " + ConsoleColors.RESET);
         System.out.println(" • Markdown: " + (markdownFile != null ? markdownFile : "Не сгенерирован"));
         System.out.println(" • HTML: " + (htmlFile != null ? htmlFile : "Не сгенерирован"));
         System.out.println(" • JSON: " + (jsonFile != null ? jsonFile : "Не сгенерирован"));
+        if (binaryFile != null) {
+            System.out.println(" • Бинарные метаданные: " + binaryFile);
+        }
 
         // Открытие результатов (остаётся в основном классе, так как это UI-логика)
         if (openAfterwards) {
@@ -108,4 +362,12 @@ public class ReportGeneratorImpl implements ReportGenerator {
         }
         return input.equals("y") || input.equals("yes");
     }
-}
\ No newline at end of file
+
+    // Пути к созданным отчётам (null - формат не генерировался)
+    private static final class GeneratedReports {
+        private String markdownFile;
+        private String htmlFile;
+        private String jsonFile;
+        private String binaryFile;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.auditor.reporting;
+
+import com.example.auditor.model.FileInfo;
+import com.example.auditor.reporting.ContentPrefetcher.ContentLoader;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Полный отчёт одного формата, открытый для записи разделов файлов.
+ * <p>
+ * Шапка, статистика и структура пишутся при открытии (список файлов уже известен),
+ * разделы с содержимым - в {@link #writeFile}, итоги - в {@link #finish()}.
+ * Содержимое файла передаётся извне, поэтому один прочитанный файл можно отдать
+ * сразу нескольким отчётам (см. {@link MultiFormatRenderer}).
+ */
+interface ReportSink extends Closeable {
+
+    /**
+     * Записывает раздел одного файла.
+     *
+     * @param file    Файл в порядке отчёта.
+     * @param content Источник содержимого; вызывается, только если раздел нужно отрендерить
+     *                (в Light-режиме и для разделов из кэша не вызывается).
+     */
+    void writeFile(FileInfo file, ContentLoader<RawFileContent> content) throws IOException;
+
+    /**
+     * Дописывает итоговые разделы отчёта.
+     */
+    void finish() throws IOException;
+}
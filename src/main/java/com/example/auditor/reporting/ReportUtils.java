@@ -1,22 +1,22 @@
 package com.example.auditor.reporting;
 
 import com.example.auditor.model.FileInfo;
-import com.example.auditor.utils.FileIcon;
+import com.example.auditor.utils.ContentSniffer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 public class ReportUtils {
 
@@ -46,35 +46,17 @@ public class ReportUtils {
     // --- /НОВЫЙ МЕТОД ---
 
     // --- Метод для экранирования ---
+    // Экранирование выполняется за один проход (см. EscapingWriter, там же потоковые варианты)
     public static String escapeMarkdown(String input) {
-        if (input == null) return "";
-        return input.replace("\\", "\\\\")
-                .replace("*", "\\*")
-                .replace("_", "\\_")
-                .replace("[", "\\[")
-                .replace("]", "\\]")
-                .replace("`", "\\`")
-                .replace("#", "\\#")
-                .replace("<", "<")
-                .replace(">", ">");
+        return EscapingWriter.escapeMarkdown(input);
     }
 
     public static String escapeHtml(String input) {
-        if (input == null) return "";
-        return input.replace("&", "&amp;")
-                .replace("<", "<")
-                .replace(">", ">")
-                .replace("\"", "&quot;")
-                .replace("'", "&#x27;");
+        return EscapingWriter.escapeHtml(input);
     }
 
     public static String escapeJson(String input) {
-        if (input == null) return "";
-        return input.replace("\\", "\\\\")
-                .replace("\"", "\\\"")
-                .replace("\n", "\\n")
-                .replace("\r", "\\r")
-                .replace("\t", "\\t");
+        return EscapingWriter.escapeJson(input);
     }
 
     // --- Метод для чтения содержимого файла (с безопасностью) ---
@@ -85,45 +67,29 @@ public class ReportUtils {
             return ""; // Возвращаем пустую строку, если путь вне разрешённой области
         }
 
-        // Если проверка пройдена, читаем файл
-        return Files.readString(filePath, StandardCharsets.UTF_8);
+        // Если проверка пройдена, читаем файл: кодировка подбирается по началу файла,
+        // некорректные байты заменяются (вместо MalformedInputException после чтения всего файла)
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            Charset charset = ContentSniffer.detectCharset(channel);
+            Reader reader = Channels.newReader(channel, RawFileContent.replacingDecoder(charset), -1);
+            StringBuilder content = new StringBuilder((int) Math.min(channel.size(), Integer.MAX_VALUE - 8));
+            char[] buffer = new char[8192];
+            for (int read = reader.read(buffer); read >= 0; read = reader.read(buffer)) {
+                content.append(buffer, 0, read);
+            }
+            return content.toString();
+        }
     }
     // --- /Метод для чтения содержимого файла (с безопасностью) ---
 
     // --- Метод для генерации дерева файлов в формате Markdown ---
+    // Дерево строится за один проход (см. FileTree); отчёты пишут его сразу в файл
     public static String generateTreeMarkdown(List<FileInfo> files) {
         StringBuilder tree = new StringBuilder();
-        List<String> sortedPaths = files.stream()
-                .map(FileInfo::getRelativePath)
-                .sorted()
-                .collect(Collectors.toList());
-
-        Set<String> addedDirs = new java.util.HashSet<>();
-        Set<String> addedFiles = new java.util.HashSet<>();
-
-        for (String path : sortedPaths) {
-            String[] parts = path.split("/");
-            StringBuilder currentPath = new StringBuilder();
-
-            for (int i = 0; i < parts.length - 1; i++) { // -1, чтобы не включать файл
-                currentPath.append(parts[i]).append("/");
-                String dirPath = currentPath.toString();
-                if (!addedDirs.contains(dirPath)) {
-                    String indent = "   ".repeat(i); // Отступы
-                    tree.append(indent).append("📁 ").append(parts[i]).append("\n");
-                    addedDirs.add(dirPath);
-                }
-            }
-
-            String fileName = parts[parts.length - 1];
-            String parentDirPath = currentPath.toString();
-            String fullPath = parentDirPath + fileName;
-            if (!addedFiles.contains(fullPath)) {
-                String indent = "   ".repeat(parts.length - 1); // Отступы для файла
-                String icon = FileIcon.getIcon(fileName); // Иконка для файла
-                tree.append(indent).append(icon).append(" ").append(fileName).append("\n");
-                addedFiles.add(fullPath);
-            }
+        try {
+            FileTree.of(files).writeMarkdown(tree);
+        } catch (IOException e) {
+            throw new RuntimeException(e); // StringBuilder не бросает IOException
         }
         return tree.toString();
     }
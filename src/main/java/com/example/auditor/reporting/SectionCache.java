@@ -0,0 +1,82 @@
+package com.example.auditor.reporting;
+
+import com.example.auditor.model.FileInfo;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Кэш отрендеренных разделов отчёта с содержимым файлов (режим наблюдения).
+ * <p>
+ * Раздел файла - самая дорогая часть отчёта: он требует чтения файла с диска.
+ * При повторной генерации неизменившиеся разделы берутся из кэша, а заново
+ * рендерятся только разделы файлов, пути которых были инвалидированы.
+ * Кэш хранит текст всех разделов, т.е. занимает в памяти примерно размер отчёта.
+ */
+final class SectionCache {
+
+    private final Map<String, String> sections = new ConcurrentHashMap<>(); // относительный путь -> текст раздела
+
+    /**
+     * Записывает раздел файла, при отсутствии в кэше рендеря его через renderer.
+     *
+     * @param writer       Отчёт.
+     * @param relativePath Относительный путь файла (ключ раздела).
+     * @param renderer     Запись раздела, если его нет в кэше.
+     */
+    void write(Writer writer, String relativePath, SectionRenderer renderer) throws IOException {
+        String section = sections.get(relativePath);
+        if (section == null) {
+            StringWriter buffer = new StringWriter();
+            renderer.render(buffer);
+            section = buffer.toString();
+            sections.put(relativePath, section);
+        }
+        writer.write(section);
+    }
+
+    boolean contains(String relativePath) {
+        return sections.containsKey(relativePath);
+    }
+
+    /**
+     * Отбирает файлы, разделы которых будут рендериться при записи, в порядке записи
+     * (для повторяющегося пути - только первое вхождение, остальные возьмутся из кэша).
+     */
+    List<FileInfo> missing(List<FileInfo> files) {
+        List<FileInfo> result = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (FileInfo file : files) {
+            if (!sections.containsKey(file.getRelativePath()) && seen.add(file.getRelativePath())) {
+                result.add(file);
+            }
+        }
+        return result;
+    }
+
+    void invalidate(Collection<String> relativePaths) {
+        for (String relativePath : relativePaths) {
+            sections.remove(relativePath);
+        }
+    }
+
+    void clear() {
+        sections.clear();
+    }
+
+    /**
+     * Запись одного раздела в заданный Writer.
+     */
+    @FunctionalInterface
+    interface SectionRenderer {
+        void render(Writer writer) throws IOException;
+    }
+}
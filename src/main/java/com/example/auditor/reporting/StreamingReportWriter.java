@@ -0,0 +1,30 @@
+package com.example.auditor.reporting;
+
+import com.example.auditor.model.AnalysisResult;
+import com.example.auditor.model.FileInfo;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Отчёт, который пишется по мере поступления файлов (потоковый режим).
+ * <p>
+ * Заголовок записывается при открытии, содержимое файлов - в {@link #writeFile(FileInfo)},
+ * а структура проекта, статистика и итоги - в {@link #finish(AnalysisResult)}, когда известен весь список.
+ */
+interface StreamingReportWriter extends Closeable {
+
+    /**
+     * Записывает раздел с содержимым одного файла.
+     *
+     * @param file Файл, прошедший фильтр.
+     */
+    void writeFile(FileInfo file) throws IOException;
+
+    /**
+     * Дописывает итоговые разделы отчёта.
+     *
+     * @param result Итоговый результат анализа по всем полученным файлам.
+     */
+    void finish(AnalysisResult result) throws IOException;
+}
@@ -0,0 +1,123 @@
+package com.example.auditor.reporting;
+
+import com.example.auditor.model.FileInfo;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Отбор файлов Markdown-отчёта под бюджет токенов (контекстное окно модели).
+ * <p>
+ * Файлы упорядочиваются по важности: сначала приоритетные ({@link FileInfo#isPriority()}),
+ * затем по типу (код, скрипты, конфигурация, документация, данные, прочее, артефакты сборки,
+ * бинарные), внутри типа - от меньших к большим, чтобы в окно попало больше файлов.
+ * Файлы берутся по порядку, пока помещаются по оценке {@link TokenEstimator} от размера на диске
+ * (для выдержек из больших файлов - от размера выдержки);
+ * первый не поместившийся файл обрезается по остатку бюджета (если остаток не совсем мал),
+ * после чего добираются только целиком помещающиеся файлы. Отброшенные файлы не читаются.
+ */
+final class TokenBudgetPacker {
+
+    static final long HEADER_TOKENS = 256; // Шапка, статистика и итоги отчёта
+    private static final long SECTION_OVERHEAD_TOKENS = 24; // Заголовок раздела, блок кода, строка в структуре
+    private static final long MIN_TRUNCATED_TOKENS = 128; // Меньший остаток не стоит обрезанного файла
+
+    // Порядок типов FileTypeClassifier по полезности для анализа; остальные типы - как FILE
+    private static final List<String> TYPE_ORDER = List.of("CODE", "SCRIPT", "CONFIG", "DOC", "DATA", "FILE",
+            "BUILD_ARTIFACT", "BINARY");
+
+    private TokenBudgetPacker() {
+    }
+
+    /**
+     * Отбирает файлы под бюджет.
+     *
+     * @param files        Файлы проекта.
+     * @param budgetTokens Бюджет отчёта в токенах.
+     * @return Отобранные файлы в порядке важности и лимиты обрезанных файлов.
+     */
+    static Selection pack(List<FileInfo> files, long budgetTokens) {
+        List<FileInfo> ranked = new ArrayList<>(files);
+        ranked.sort(Comparator.comparing((FileInfo file) -> !file.isPriority())
+                .thenComparingInt(file -> typeRank(file.getType()))
+                .thenComparingLong(FileInfo::getLength)
+                .thenComparing(FileInfo::getRelativePath));
+
+        long remaining = budgetTokens - HEADER_TOKENS;
+        boolean truncated = false;
+        List<FileInfo> selected = new ArrayList<>();
+        Map<FileInfo, Long> truncatedBytes = new HashMap<>(); // Представления FileTable равны, но не идентичны
+        long used = 0;
+        for (FileInfo file : ranked) {
+            long overhead = SECTION_OVERHEAD_TOKENS + TokenEstimator.estimate(file.getRelativePath());
+            long content = TokenEstimator.estimate(RawFileContent.expectedBytes(file), file.getType());
+            if (overhead + content <= remaining) {
+                selected.add(file);
+                remaining -= overhead + content;
+                used += overhead + content;
+            } else if (!truncated && remaining - overhead >= MIN_TRUNCATED_TOKENS) {
+                long tokens = remaining - overhead;
+                selected.add(file);
+                truncatedBytes.put(file, TokenEstimator.bytesFor(tokens, file.getType()));
+                remaining -= overhead + tokens;
+                used += overhead + tokens;
+                truncated = true;
+            }
+        }
+        return new Selection(selected, truncatedBytes, files.size() - selected.size(), HEADER_TOKENS + used);
+    }
+
+    private static int typeRank(String type) {
+        int rank = TYPE_ORDER.indexOf(type);
+        return rank >= 0 ? rank : TYPE_ORDER.indexOf("FILE");
+    }
+
+    /**
+     * Результат отбора.
+     */
+    static final class Selection {
+        private final List<FileInfo> files;
+        private final Map<FileInfo, Long> truncatedBytes;
+        private final int omittedFiles;
+        private final long estimatedTokens;
+
+        private Selection(List<FileInfo> files, Map<FileInfo, Long> truncatedBytes, int omittedFiles, long estimatedTokens) {
+            this.files = files;
+            this.truncatedBytes = truncatedBytes;
+            this.omittedFiles = omittedFiles;
+            this.estimatedTokens = estimatedTokens;
+        }
+
+        /**
+         * Отобранные файлы в порядке важности.
+         */
+        List<FileInfo> getFiles() {
+            return files;
+        }
+
+        /**
+         * Сколько байтов содержимого файла выводить.
+         *
+         * @return Лимит или -1, если файл выводится целиком.
+         */
+        long getByteLimit(FileInfo file) {
+            Long limit = truncatedBytes.isEmpty() ? null : truncatedBytes.get(file);
+            return limit != null ? limit : -1;
+        }
+
+        int getTruncatedFiles() {
+            return truncatedBytes.size();
+        }
+
+        int getOmittedFiles() {
+            return omittedFiles;
+        }
+
+        long getEstimatedTokens() {
+            return estimatedTokens;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.auditor.reporting;
+
+/**
+ * Оценка числа токенов текста без токенизации - по числу байтов.
+ * <p>
+ * Для английского текста и кода типичные токенизаторы LLM дают примерно токен на 4 байта;
+ * в коде и конфигурации больше знаков препинания и коротких идентификаторов - около 3 байт
+ * на токен. Оценка по размеру файла на диске позволяет решить, попадёт ли файл в отчёт,
+ * не читая его. Текст не на латинице (многобайтовая UTF-8) оценка занижает.
+ */
+final class TokenEstimator {
+
+    static final int BYTES_PER_TOKEN = 4; // Текст, документация и неизвестные типы
+    private static final int CODE_BYTES_PER_TOKEN = 3; // Исходный код, скрипты, конфигурация
+
+    private TokenEstimator() {
+    }
+
+    /**
+     * Оценка числа токенов для содержимого заданного размера.
+     *
+     * @param bytes Размер в байтах.
+     * @param type  Тип файла из FileTypeClassifier (CODE, CONFIG, DOC, ...).
+     * @return Оценка (не меньше 0).
+     */
+    static long estimate(long bytes, String type) {
+        int ratio = bytesPerToken(type);
+        return bytes <= 0 ? 0 : (bytes + ratio - 1) / ratio;
+    }
+
+    /**
+     * Оценка для текста (например, пути файла): символ Java считается одним байтом.
+     */
+    static long estimate(CharSequence text) {
+        return estimate(text.length(), null);
+    }
+
+    /**
+     * Сколько байтов содержимого помещается в заданное число токенов (обратная оценка).
+     */
+    static long bytesFor(long tokens, String type) {
+        return tokens <= 0 ? 0 : tokens > Long.MAX_VALUE / BYTES_PER_TOKEN ? Long.MAX_VALUE : tokens * bytesPerToken(type);
+    }
+
+    private static int bytesPerToken(String type) {
+        if ("CODE".equals(type) || "SCRIPT".equals(type) || "CONFIG".equals(type)) {
+            return CODE_BYTES_PER_TOKEN;
+        }
+        return BYTES_PER_TOKEN;
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.auditor.reporting;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writer отчёта поверх {@link FileChannel} с собственным кодированием в UTF-8.
+ * <p>
+ * Текст кодируется сразу в прямой буфер канала (без промежуточных BufferedWriter и StreamEncoder),
+ * а готовые байты - уже проверенное содержимое файлов проекта - добавляются в отчёт
+ * через {@link #writeBytes(ByteBuffer)} или копируются ядром через {@link #transferFrom}.
+ * Одиночные суррогаты заменяются на '?', как у OutputStreamWriter.
+ */
+final class Utf8ChannelWriter extends Writer {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private char pendingHighSurrogate; // Старшая половина суррогатной пары, пришедшая в конце предыдущей записи
+    private boolean closed;
+
+    Utf8ChannelWriter(String outputFile) throws IOException {
+        this.channel = FileChannel.open(Path.of(outputFile), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        encode((char) c);
+    }
+
+    @Override
+    public void write(char[] chars, int off, int len) throws IOException {
+        for (int i = off, end = off + len; i < end; i++) {
+            encode(chars[i]);
+        }
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        for (int i = off, end = off + len; i < end; i++) {
+            encode(str.charAt(i));
+        }
+    }
+
+    /**
+     * Добавляет готовые байты UTF-8 (оставшиеся байты src).
+     */
+    void writeBytes(ByteBuffer src) throws IOException {
+        flushSurrogate();
+        if (src.remaining() <= buffer.remaining()) {
+            buffer.put(src);
+            return;
+        }
+        flushBuffer();
+        if (src.remaining() <= buffer.remaining()) {
+            buffer.put(src);
+            return;
+        }
+        while (src.hasRemaining()) {
+            channel.write(src);
+        }
+    }
+
+    /**
+     * Копирует диапазон файла в отчёт средствами ОС (FileChannel.transferTo), минуя heap.
+     *
+     * @param source   Канал исходного файла.
+     * @param position Начало диапазона.
+     * @param count    Длина диапазона.
+     * @throws IOException Если файл стал короче диапазона или копирование не удалось.
+     */
+    void transferFrom(FileChannel source, long position, long count) throws IOException {
+        flushSurrogate();
+        flushBuffer();
+        while (count > 0) {
+            long transferred = source.transferTo(position, count, channel);
+            if (transferred <= 0) {
+                throw new IOException("Файл изменился во время копирования в отчет");
+            }
+            position += transferred;
+            count -= transferred;
+        }
+    }
+
+    private void encode(char c) throws IOException {
+        if (buffer.remaining() < 4) {
+            flushBuffer();
+        }
+        if (pendingHighSurrogate != 0) {
+            char high = pendingHighSurrogate;
+            pendingHighSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                int codePoint = Character.toCodePoint(high, c);
+                buffer.put((byte) (0xF0 | (codePoint >> 18)));
+                buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+                return;
+            }
+            buffer.put((byte) '?'); // В буфере остаётся место ещё на 3 байта
+        }
+        if (c < 0x80) {
+            buffer.put((byte) c);
+        } else if (c < 0x800) {
+            buffer.put((byte) (0xC0 | (c >> 6)));
+            buffer.put((byte) (0x80 | (c & 0x3F)));
+        } else if (Character.isHighSurrogate(c)) {
+            pendingHighSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            buffer.put((byte) '?');
+        } else {
+            buffer.put((byte) (0xE0 | (c >> 12)));
+            buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+            buffer.put((byte) (0x80 | (c & 0x3F)));
+        }
+    }
+
+    // Незавершённая суррогатная пара перед байтами из другого источника - одиночный суррогат
+    private void flushSurrogate() throws IOException {
+        if (pendingHighSurrogate != 0) {
+            pendingHighSurrogate = 0;
+            if (!buffer.hasRemaining()) {
+                flushBuffer();
+            }
+            buffer.put((byte) '?');
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            flushSurrogate();
+            flushBuffer();
+        } finally {
+            channel.close();
+        }
+    }
+}
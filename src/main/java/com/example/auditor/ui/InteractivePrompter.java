@@ -62,6 +62,14 @@ public class InteractivePrompter implements UserInterface {
         if (outputFormat != AnalysisConfig.OutputFormat.STRUCTURE_ONLY) {
             lightMode = readYesNo("Use 'Structure Only' mode (ignores file contents)? ", false);
         }
+        boolean streamingOutput = false;
+        if (!lightMode) {
+            streamingOutput = readYesNo("Stream report while scanning (structure and statistics at the end)? ", false);
+        }
+        long tokenBudget = 0;
+        if (!lightMode && !streamingOutput) {
+            tokenBudget = getTokenBudget();
+        }
 
 
         // STEP 5: SETTINGS CONFIRMATION
@@ -75,6 +83,8 @@ public class InteractivePrompter implements UserInterface {
         System.out.println(" • Use .gitignore: " + (useGitIgnore ? "Yes" : "No"));
         System.out.println(" • Max File Size: " + maxFileSizeKB + " KB");
         System.out.println(" • Mode: " + (lightMode ? "Light" : "Full"));
+        System.out.println(" • Streaming Output: " + (streamingOutput ? "Yes" : "No"));
+        System.out.println(" • Token Budget: " + (tokenBudget > 0 ? tokenBudget : "No limit"));
 
         boolean confirm = readYesNo("\nProceed with these settings? ", true);
 
@@ -94,7 +104,9 @@ public class InteractivePrompter implements UserInterface {
                 useGitIgnore,
                 maxFileSizeKB,
                 java.util.List.of(), // Currently fixed list
-                lightMode
+                lightMode,
+                streamingOutput,
+                tokenBudget
         );
     }
 
@@ -119,6 +131,21 @@ public class InteractivePrompter implements UserInterface {
         return readLine("Output file name (without extension) [default: project-audit]: ", "project-audit");
     }
 
+    private long getTokenBudget() {
+        String input = readLine("Token budget for the Markdown report (0 = no limit) [default 0]: ", "0");
+        try {
+            long budget = Long.parseLong(input);
+            if (budget < 0) {
+                System.out.println("Budget cannot be negative, using 0 (no limit). ");
+                return 0;
+            }
+            return budget;
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid input, using 0 (no limit). ");
+            return 0;
+        }
+    }
+
     private long getMaxFileSizeKB() {
         String input = readLine("Maximum file size to include (in KB, 0 = no limit) [default 50000]: ", "50000");
         try {
@@ -0,0 +1,197 @@
+package com.example.auditor.utils;
+
+import com.example.auditor.model.ContentKind;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Определение вида содержимого файла (текст, UTF-16, бинарный) по первым байтам.
+ * <p>
+ * Читается не больше {@link #SNIFF_BYTES} байтов в прямой буфер, один на поток.
+ * Порядок проверок: BOM, сигнатуры распространённых бинарных форматов, расположение
+ * нулевых байтов (UTF-16 без BOM - нули через байт), любые другие нули и доля
+ * управляющих символов. Пустой файл считается текстом.
+ * <p>
+ * Для текста не в UTF-8 по тому же началу файла подбирается однобайтовая кодировка
+ * ({@link #detectCharset}).
+ */
+public final class ContentSniffer {
+
+    public static final int SNIFF_BYTES = 4096;
+    private static final int MAX_CONTROL_PERCENT = 10; // Больше управляющих символов - бинарный файл
+    private static final int MIN_UTF16_PERCENT = 70; // Доля пар байтов "символ + 0" для UTF-16 без BOM
+    private static final int MAX_UTF16_OTHER_ZERO_PERCENT = 5; // Нули в младших байтах (символы U+xx00)
+
+    private static final Charset WINDOWS_1251 = Charset.forName("windows-1251");
+    private static final Charset WINDOWS_1252 = Charset.forName("windows-1252");
+
+    private static final ThreadLocal<ByteBuffer> BUFFER = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(SNIFF_BYTES));
+
+    // Сигнатуры бинарных форматов: изображения, архивы, PDF, исполняемые файлы, байт-код, SQLite
+    private static final byte[][] BINARY_SIGNATURES = {
+            {(byte) 0x89, 'P', 'N', 'G'},
+            {'G', 'I', 'F', '8'},
+            {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF},
+            {'%', 'P', 'D', 'F', '-'},
+            {'P', 'K', 3, 4},
+            {0x1F, (byte) 0x8B},
+            {0x7F, 'E', 'L', 'F'},
+            {(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE},
+            {'S', 'Q', 'L', 'i', 't', 'e', ' ', 'f', 'o', 'r', 'm', 'a', 't'},
+    };
+
+    private ContentSniffer() {
+    }
+
+    /**
+     * Определяет вид содержимого файла.
+     *
+     * @param file Путь к файлу.
+     * @return Вид содержимого.
+     * @throws IOException Ошибка чтения.
+     */
+    public static ContentKind sniff(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return sniff(channel);
+        }
+    }
+
+    /**
+     * Определяет вид содержимого по началу открытого файла (позиция канала не меняется).
+     *
+     * @param channel Канал файла.
+     * @return Вид содержимого.
+     * @throws IOException Ошибка чтения.
+     */
+    public static ContentKind sniff(FileChannel channel) throws IOException {
+        ByteBuffer buffer = BUFFER.get();
+        buffer.clear();
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, buffer.position()) <= 0) {
+                break;
+            }
+        }
+        buffer.flip();
+        return classify(buffer);
+    }
+
+    /**
+     * Подбирает кодировку текстового файла по его началу (не больше {@link #SNIFF_BYTES} байтов).
+     * <p>
+     * Если начало - корректная UTF-8, ошибка дальше в файле считается случайной и остаётся UTF-8
+     * (с заменой некорректных байтов). Иначе выбирается windows-1251 или windows-1252:
+     * в кириллическом тексте байты букв 0xC0-0xFF идут словами, подряд, а в западноевропейском
+     * буквы с диакритикой стоят поодиночке среди латиницы.
+     *
+     * @param channel Канал файла (позиция не меняется).
+     * @return Кодировка для декодирования с заменой ошибок.
+     * @throws IOException Ошибка чтения.
+     */
+    public static Charset detectCharset(FileChannel channel) throws IOException {
+        ByteBuffer buffer = BUFFER.get();
+        buffer.clear();
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, buffer.position()) <= 0) {
+                break;
+            }
+        }
+        buffer.flip();
+        return detectCharset(buffer);
+    }
+
+    /**
+     * Подбирает кодировку по уже прочитанному началу файла (см. {@link #detectCharset(FileChannel)}).
+     *
+     * @param prefix Начало файла [position, limit); учитываются первые {@link #SNIFF_BYTES} байтов.
+     * @return Кодировка для декодирования с заменой ошибок.
+     */
+    public static Charset detectCharset(ByteBuffer prefix) {
+        ByteBuffer bytes = prefix.duplicate();
+        bytes.limit(bytes.position() + Math.min(bytes.remaining(), SNIFF_BYTES));
+        // Незавершённая последовательность в конце начала файла - не ошибка (endOfInput = false)
+        if (!StandardCharsets.UTF_8.newDecoder().decode(bytes.duplicate(), CharBuffer.allocate(bytes.remaining()), false).isError()) {
+            return StandardCharsets.UTF_8;
+        }
+        int letters = 0;
+        int runs = 0; // Пары подряд идущих байтов 0xC0-0xFF
+        boolean previous = false;
+        for (int i = bytes.position(); i < bytes.limit(); i++) {
+            boolean letter = (bytes.get(i) & 0xFF) >= 0xC0;
+            if (letter) {
+                letters++;
+                if (previous) {
+                    runs++;
+                }
+            }
+            previous = letter;
+        }
+        return runs * 2 >= letters && letters > 0 ? WINDOWS_1251 : WINDOWS_1252;
+    }
+
+    // Решение по прочитанным байтам [position, limit)
+    private static ContentKind classify(ByteBuffer buffer) {
+        int length = buffer.remaining();
+        if (startsWith(buffer, (byte) 0xEF, (byte) 0xBB, (byte) 0xBF)) {
+            return ContentKind.TEXT;
+        }
+        if (startsWith(buffer, (byte) 0xFF, (byte) 0xFE)) {
+            return ContentKind.UTF16_LE;
+        }
+        if (startsWith(buffer, (byte) 0xFE, (byte) 0xFF)) {
+            return ContentKind.UTF16_BE;
+        }
+        for (byte[] signature : BINARY_SIGNATURES) {
+            if (startsWith(buffer, signature)) {
+                return ContentKind.BINARY;
+            }
+        }
+
+        int zeros = 0;
+        int evenZeros = 0; // Нули на чётных позициях (старший байт UTF-16BE)
+        int oddZeros = 0; // Нули на нечётных позициях (старший байт UTF-16LE)
+        int controls = 0;
+        for (int i = 0; i < length; i++) {
+            int b = buffer.get(i) & 0xFF;
+            if (b == 0) {
+                zeros++;
+                if ((i & 1) == 0) {
+                    evenZeros++;
+                } else {
+                    oddZeros++;
+                }
+            } else if (b < 0x20 && b != '\t' && b != '\n' && b != '\r' && b != '\f' && b != 0x1B) {
+                controls++;
+            }
+        }
+        if (zeros > 0) {
+            int pairs = length / 2;
+            if (oddZeros * 100 >= pairs * MIN_UTF16_PERCENT && evenZeros * 100 <= pairs * MAX_UTF16_OTHER_ZERO_PERCENT) {
+                return ContentKind.UTF16_LE;
+            }
+            if (evenZeros * 100 >= pairs * MIN_UTF16_PERCENT && oddZeros * 100 <= pairs * MAX_UTF16_OTHER_ZERO_PERCENT) {
+                return ContentKind.UTF16_BE;
+            }
+            return ContentKind.BINARY;
+        }
+        return controls * 100 > length * MAX_CONTROL_PERCENT ? ContentKind.BINARY : ContentKind.TEXT;
+    }
+
+    private static boolean startsWith(ByteBuffer buffer, byte... prefix) {
+        if (buffer.remaining() < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (buffer.get(buffer.position() + i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
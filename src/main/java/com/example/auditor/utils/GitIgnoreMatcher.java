@@ -0,0 +1,130 @@
+package com.example.auditor.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Проверка путей по правилам git: {@code .git/info/exclude}, корневой и вложенные {@code .gitignore}.
+ * <p>
+ * Правила каждой директории разбираются один раз, при первом обращении, и наследуются вниз по дереву:
+ * набор правил директории ссылается на набор родителя. Порядок приоритета как в git - более глубокий
+ * .gitignore важнее вышестоящего, .gitignore важнее info/exclude, внутри файла побеждает последнее
+ * совпавшее правило. Путь внутри игнорируемой директории игнорируется всегда, отрицание его не возвращает.
+ * <p>
+ * Экземпляр потокобезопасен: параллельный сканер может проверять директории одновременно.
+ */
+public class GitIgnoreMatcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GitIgnoreMatcher.class);
+
+    private static final String GITIGNORE = ".gitignore";
+
+    private final Path projectPath;
+    private final GitIgnoreParser parser = new GitIgnoreParser();
+    private final RuleSet rootRules;
+    private final Map<String, RuleSet> ruleSets = new ConcurrentHashMap<>(); // относительная директория -> правила
+    private final Map<String, Boolean> ignoredDirectories = new ConcurrentHashMap<>();
+
+    public GitIgnoreMatcher(Path projectPath) {
+        this.projectPath = projectPath;
+        RuleSet excludeRules = RuleSet.EMPTY.extend(parser.parseRules(projectPath.resolve(".git").resolve("info").resolve("exclude"), ""));
+        this.rootRules = excludeRules.extend(parser.parseRules(projectPath.resolve(GITIGNORE), ""));
+        LOGGER.info("Загружено {} правил .gitignore для корня проекта", rootRules.size());
+    }
+
+    /**
+     * Проверяет, игнорируется ли путь.
+     *
+     * @param relativePath Путь относительно корня проекта (разделитель '/').
+     * @param isDirectory  true, если путь - директория.
+     * @return true, если путь или одна из его родительских директорий игнорируется.
+     */
+    public boolean isIgnored(String relativePath, boolean isDirectory) {
+        if (relativePath.isEmpty()) {
+            return false; // Корень проекта не игнорируется
+        }
+        String parent = parentOf(relativePath);
+        if (!parent.isEmpty() && isIgnoredDirectory(parent)) {
+            return true;
+        }
+        return rulesFor(parent).isIgnored(relativePath, isDirectory);
+    }
+
+    public Path getProjectPath() {
+        return projectPath;
+    }
+
+    // Результат для директорий кэшируется: его спрашивают для каждого вложенного файла
+    private boolean isIgnoredDirectory(String relativeDir) {
+        Boolean cached = ignoredDirectories.get(relativeDir);
+        if (cached != null) {
+            return cached;
+        }
+        boolean ignored = isIgnored(relativeDir, true);
+        ignoredDirectories.put(relativeDir, ignored);
+        return ignored;
+    }
+
+    // Правила, действующие для элементов директории: правила родителя плюс её собственный .gitignore
+    private RuleSet rulesFor(String relativeDir) {
+        if (relativeDir.isEmpty()) {
+            return rootRules;
+        }
+        RuleSet rules = ruleSets.get(relativeDir);
+        if (rules != null) {
+            return rules;
+        }
+        RuleSet created = rulesFor(parentOf(relativeDir))
+                .extend(parser.parseRules(projectPath.resolve(relativeDir).resolve(GITIGNORE), relativeDir));
+        RuleSet existing = ruleSets.putIfAbsent(relativeDir, created);
+        return existing != null ? existing : created;
+    }
+
+    private static String parentOf(String relativePath) {
+        int slash = relativePath.lastIndexOf('/');
+        return slash >= 0 ? relativePath.substring(0, slash) : "";
+    }
+
+    /**
+     * Неизменяемый набор правил: собственные правила директории поверх правил родителя.
+     */
+    private static final class RuleSet {
+
+        private static final RuleSet EMPTY = new RuleSet(null, List.of());
+
+        private final RuleSet parent;
+        private final List<GitIgnoreRule> rules;
+
+        private RuleSet(RuleSet parent, List<GitIgnoreRule> rules) {
+            this.parent = parent;
+            this.rules = rules;
+        }
+
+        // Директория без собственных правил разделяет набор с родителем
+        RuleSet extend(List<GitIgnoreRule> ownRules) {
+            return ownRules.isEmpty() ? this : new RuleSet(this, ownRules);
+        }
+
+        boolean isIgnored(String relativePath, boolean isDirectory) {
+            for (RuleSet set = this; set != null; set = set.parent) {
+                // Последнее совпавшее правило побеждает
+                for (int i = set.rules.size() - 1; i >= 0; i--) {
+                    GitIgnoreRule rule = set.rules.get(i);
+                    if (rule.matches(relativePath, isDirectory)) {
+                        return !rule.isNegated();
+                    }
+                }
+            }
+            return false;
+        }
+
+        int size() {
+            return rules.size() + (parent != null ? parent.size() : 0);
+        }
+    }
+}
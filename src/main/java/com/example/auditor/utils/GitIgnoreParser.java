@@ -4,168 +4,47 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
+/**
+ * Читает файлы с правилами игнорирования в формате .gitignore
+ * ({@code .gitignore}, {@code .git/info/exclude}).
+ */
 public class GitIgnoreParser {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(GitIgnoreParser.class);
 
-    public List<String> parseGitIgnore(String projectPath) {
-        Path gitIgnorePath = Paths.get(projectPath, ".gitignore");
-        if (!Files.exists(gitIgnorePath)) {
-            LOGGER.debug("Файл .gitignore не найден в: {}", projectPath);
-            return new ArrayList<>();
+    /**
+     * Разбирает файл правил.
+     *
+     * @param rulesFile Путь к файлу (.gitignore или info/exclude).
+     * @param baseDir   Каталог, к которому относятся правила, относительно корня проекта ("" - корень).
+     * @return Правила в порядке следования в файле; пустой список, если файла нет или его не удалось прочитать.
+     */
+    public List<GitIgnoreRule> parseRules(Path rulesFile, String baseDir) {
+        if (!Files.isRegularFile(rulesFile)) {
+            return Collections.emptyList();
         }
-
         try {
-            List<String> lines = Files.readAllLines(gitIgnorePath, java.nio.charset.StandardCharsets.UTF_8);
-            List<String> patterns = new ArrayList<>();
-
+            List<String> lines = Files.readAllLines(rulesFile, StandardCharsets.UTF_8);
+            List<GitIgnoreRule> rules = new ArrayList<>();
             for (String line : lines) {
-                line = line.trim();
-                if (line.isEmpty() || line.startsWith("#")) {
-                    continue; // Пропускаем пустые строки и комментарии
-                }
-
-                // Обработка исключений (начинающихся с !)
-                boolean isNegation = line.startsWith("!");
-                if (isNegation) {
-                    line = line.substring(1); // Убираем !
-                }
-
-                // Конвертация .gitignore паттернов в glob
-                String globPattern = convertToGlobPattern(line);
-
-                // В текущей реализации мы игнорируем исключения (!),
-                // так как PathMatcherUtil не поддерживает их напрямую.
-                // В реальной системе нужно будет учитывать исключения при фильтрации.
-                if (!isNegation) {
-                    patterns.add(globPattern);
+                GitIgnoreRule rule = GitIgnoreRule.parse(line, baseDir);
+                if (rule != null) {
+                    rules.add(rule);
                 }
             }
-
-            LOGGER.info("Загружено {} правил из .gitignore", patterns.size());
-            return patterns;
-
-        } catch (IOException e) {
-            LOGGER.error("Не удалось обработать .gitignore: {}", e.getMessage(), e); // Логируем с трейсом
-            return new ArrayList<>();
+            LOGGER.debug("Загружено {} правил из {}", rules.size(), rulesFile);
+            return rules;
+        } catch (IOException | RuntimeException e) {
+            // Файл в другой кодировке или некорректное правило не должны прерывать анализ
+            LOGGER.error("Не удалось обработать {}: {}", rulesFile, e.getMessage(), e);
+            return Collections.emptyList();
         }
     }
-
-    private String convertToGlobPattern(String gitIgnorePattern) {
-        // Убираем завершающий слеш для директорий (если он есть и не экранирован)
-        boolean isDirectory = gitIgnorePattern.endsWith("/") && !gitIgnorePattern.endsWith("\\/");
-        if (isDirectory) {
-            gitIgnorePattern = gitIgnorePattern.substring(0, gitIgnorePattern.length() - 1);
-        }
-
-        // Обработка паттернов
-        StringBuilder globBuilder = new StringBuilder();
-
-        // Если начинается с /, это корневой паттерн
-        boolean isRooted = gitIgnorePattern.startsWith("/");
-        if (isRooted) {
-            gitIgnorePattern = gitIgnorePattern.substring(1); // Убираем начальный /
-            // Корневой паттерн: **/ + паттерн
-            globBuilder.append("**/").append(gitIgnorePattern); // Не вызываем escapeGlobMetachars здесь
-        } else {
-            // Паттерн с путем или простой паттерн файла
-            // Используем **/ для поиска в любых подкаталогах
-            globBuilder.append("**/").append(gitIgnorePattern); // Не вызываем escapeGlobMetachars здесь
-        }
-
-        // Обработка ** (глубокий поиск), * (один уровень), ? (один символ)
-        // ВАЖНО: Обрабатываем ** до обработки одиночных *, и учитываем контекст []
-        String globPattern = globBuilder.toString();
-
-        // --- УПРОЩЁННАЯ ЛОГИКА ОБРАБОТКИ **, *, ? (С УЧЁТОМ КОНТЕКСТА [] И ЭКРАНИРОВАНИЯ) ---
-        // ВНИМАНИЕ: Используем * и ?, а НЕ [^/]* и [^/], чтобы избежать ошибки PathMatcher
-        StringBuilder finalPattern = new StringBuilder();
-        boolean inCharClass = false; // Флаг: находимся ли мы внутри []
-        boolean escaped = false; // Флаг: предыдущий символ был \
-
-        for (int i = 0; i < globPattern.length(); i++) {
-            char c = globPattern.charAt(i);
-
-            if (escaped) {
-                // Предыдущий символ был \, текущий - экранированный
-                finalPattern.append('\\').append(c); // Добавляем \ и текущий символ
-                escaped = false; // Сбрасываем флаг
-                continue;
-            }
-
-            if (c == '\\') {
-                // Наткнулись на \, следующий символ будет экранирован
-                escaped = true;
-                continue; // Не добавляем \ сюда, он будет добавлен с экранированным символом
-            }
-
-            if (c == '[' && !inCharClass) {
-                // Начало символьного класса
-                inCharClass = true;
-                finalPattern.append(c);
-                continue;
-            }
-
-            if (c == ']' && inCharClass) {
-                // Конец символьного класса
-                inCharClass = false;
-                finalPattern.append(c);
-                continue;
-            }
-
-            // Теперь обрабатываем *, ?, **, только если НЕ внутри []
-            if (!inCharClass) {
-                if (c == '*' && i + 1 < globPattern.length() && globPattern.charAt(i + 1) == '*') {
-                    // Нашли ** (глубокий поиск)
-                    finalPattern.append("**"); // Оставляем ** как есть
-                    i++; // Пропускаем следующую *
-                } else if (c == '*') {
-                    // Нашли одиночную * (один уровень, не внутри [])
-                    // ИСПОЛЬЗУЕМ * ВМЕСТО [^/]*, чтобы избежать ошибки PathMatcher
-                    finalPattern.append("*");
-                } else if (c == '?') {
-                    // Нашли ? (один символ, не внутри [])
-                    // ИСПОЛЬЗУЕМ ? ВМЕСТО [^/], чтобы избежать ошибки PathMatcher
-                    finalPattern.append("?");
-                } else {
-                    // Обычный символ вне []
-                    finalPattern.append(c);
-                }
-            } else {
-                // Обычный символ внутри []
-                finalPattern.append(c);
-            }
-        }
-
-        // Если строка закончилась, а флаги остались включены - значит, синтаксис был неправильным
-        // В реальной системе можно логировать ошибку.
-        if (inCharClass) {
-            LOGGER.warn("Незавершённый символьный класс в паттерне .gitignore: {}", globPattern);
-        }
-        if (escaped) {
-            LOGGER.warn("Незавершённая экранированная последовательность в паттерне .gitignore: {}", globPattern);
-            // Восстанавливаем слеш, если он был в конце строки
-            finalPattern.append('\\');
-        }
-
-        globPattern = finalPattern.toString();
-        // --- /УПРОЩЁННАЯ ЛОГИКА ---
-
-
-        // Добавляем звездочки для директорий (если был слеш в конце)
-        if (isDirectory) {
-            globPattern += "/**";
-        }
-
-        return globPattern;
-    }
-
-    // Метод escapeGlobMetachars больше не нужен, так как обработка происходит в основном цикле
-    // с учётом контекста [].
-}
\ No newline at end of file
+}
@@ -0,0 +1,237 @@
+package com.example.auditor.utils;
+
+import java.io.File;
+import java.util.regex.Pattern;
+
+/**
+ * Одно правило .gitignore, скомпилированное в регулярное выражение.
+ * <p>
+ * Семантика соответствует git:
+ * <ul>
+ *     <li>{@code !} в начале - отрицание (возвращает ранее исключённый путь);</li>
+ *     <li>{@code /} в конце - правило только для директорий;</li>
+ *     <li>правило без {@code /} (кроме завершающего) сравнивается с именем файла на любой глубине,
+ *         правило с {@code /} в начале или середине - с путём относительно каталога .gitignore;</li>
+ *     <li>{@code *} и {@code ?} не совпадают с {@code /}, ведущий {@code **}{@code /} - любые каталоги,
+ *         завершающий {@code /**} - всё внутри, {@code /**}{@code /} - ноль или более каталогов.</li>
+ * </ul>
+ */
+public final class GitIgnoreRule {
+
+    private static final String REGEX_META_CHARS = ".^$+*?{}[]|()\\";
+
+    private final String baseDir; // Каталог файла с правилом относительно корня проекта ("" - корень)
+    private final String source; // Исходная строка - для отладки
+    private final boolean negated;
+    private final boolean directoryOnly;
+    private final boolean matchFileName; // true - сравнивается только имя, false - путь от baseDir
+    private final Pattern pattern;
+
+    private GitIgnoreRule(String baseDir, String source, boolean negated, boolean directoryOnly, boolean matchFileName, Pattern pattern) {
+        this.baseDir = baseDir;
+        this.source = source;
+        this.negated = negated;
+        this.directoryOnly = directoryOnly;
+        this.matchFileName = matchFileName;
+        this.pattern = pattern;
+    }
+
+    /**
+     * Разбирает строку .gitignore.
+     *
+     * @param line    Строка файла.
+     * @param baseDir Каталог файла .gitignore относительно корня проекта ("" - корень, разделитель '/').
+     * @return Правило или null для пустых строк и комментариев.
+     */
+    public static GitIgnoreRule parse(String line, String baseDir) {
+        String text = trimTrailingSpaces(line);
+        if (text.isEmpty() || text.startsWith("#")) {
+            return null;
+        }
+        boolean negated = text.startsWith("!");
+        if (negated) {
+            text = text.substring(1);
+        }
+        boolean directoryOnly = text.endsWith("/");
+        if (directoryOnly) {
+            text = text.substring(0, text.length() - 1);
+        }
+        // Слеш в начале или в середине привязывает правило к каталогу .gitignore
+        boolean anchored = text.indexOf('/') >= 0;
+        if (text.startsWith("/")) {
+            text = text.substring(1);
+        }
+        if (text.isEmpty()) {
+            return null;
+        }
+        int flags = Pattern.DOTALL | (File.separatorChar == '\\' ? Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE : 0);
+        Pattern pattern = Pattern.compile(toRegex(text, anchored), flags);
+        return new GitIgnoreRule(baseDir, line, negated, directoryOnly, !anchored, pattern);
+    }
+
+    /**
+     * Проверяет, совпадает ли правило с путём.
+     *
+     * @param relativePath Путь относительно корня проекта (разделитель '/'), лежащий внутри baseDir.
+     * @param isDirectory  true, если путь - директория.
+     * @return true, если правило применимо к пути.
+     */
+    public boolean matches(String relativePath, boolean isDirectory) {
+        if (directoryOnly && !isDirectory) {
+            return false;
+        }
+        if (matchFileName) {
+            return pattern.matcher(relativePath.substring(relativePath.lastIndexOf('/') + 1)).matches();
+        }
+        String pathInBase = baseDir.isEmpty() ? relativePath : relativePath.substring(baseDir.length() + 1);
+        return pattern.matcher(pathInBase).matches();
+    }
+
+    public boolean isNegated() {
+        return negated;
+    }
+
+    public String getBaseDir() {
+        return baseDir;
+    }
+
+    @Override
+    public String toString() {
+        return (baseDir.isEmpty() ? "" : baseDir + "/") + ".gitignore: " + source;
+    }
+
+    // Завершающие пробелы игнорируются, если не экранированы '\'
+    private static String trimTrailingSpaces(String line) {
+        int end = line.length();
+        while (end > 0 && line.charAt(end - 1) == ' ' && !(end > 1 && line.charAt(end - 2) == '\\')) {
+            end--;
+        }
+        return line.substring(0, end);
+    }
+
+    // Переводит шаблон git (wildmatch с учётом '/') в регулярное выражение
+    private static String toRegex(String glob, boolean anchored) {
+        StringBuilder regex = new StringBuilder();
+        int i = 0;
+        while (i < glob.length()) {
+            char c = glob.charAt(i);
+            if (c == '*' && anchored && glob.startsWith("**", i)
+                    && (i == 0 || glob.charAt(i - 1) == '/')
+                    && (i + 2 == glob.length() || glob.charAt(i + 2) == '/')) {
+                if (i + 2 == glob.length()) {
+                    regex.append(".*"); // "/**" в конце - всё внутри
+                    i += 2;
+                } else {
+                    regex.append("(?:.*/)?"); // "**/" - ноль или более каталогов
+                    i += 3;
+                }
+                continue;
+            }
+            switch (c) {
+                case '*':
+                    // Прочие "**" ведут себя как обычная "*"
+                    while (i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+                        i++;
+                    }
+                    regex.append("[^/]*");
+                    i++;
+                    break;
+                case '?':
+                    regex.append("[^/]");
+                    i++;
+                    break;
+                case '[':
+                    i = appendCharClass(glob, i, regex);
+                    break;
+                case '\\':
+                    if (i + 1 < glob.length()) {
+                        appendLiteral(glob.charAt(i + 1), regex);
+                        i += 2;
+                    } else {
+                        appendLiteral(c, regex); // Одиночный '\' в конце трактуется буквально
+                        i++;
+                    }
+                    break;
+                default:
+                    appendLiteral(c, regex);
+                    i++;
+            }
+        }
+        return regex.toString();
+    }
+
+    // Символьный класс [...]: '!' или '^' - отрицание, ']' первым символом - литерал, [:alpha:] и т.п.
+    private static int appendCharClass(String glob, int start, StringBuilder regex) {
+        int i = start + 1;
+        StringBuilder body = new StringBuilder();
+        boolean negated = i < glob.length() && (glob.charAt(i) == '!' || glob.charAt(i) == '^');
+        if (negated) {
+            i++;
+        }
+        boolean first = true;
+        boolean afterChar = false; // Предыдущий элемент - одиночный символ (может начинать диапазон)
+        while (i < glob.length()) {
+            char c = glob.charAt(i);
+            if (c == ']' && !first) {
+                // Класс никогда не совпадает с разделителем '/'
+                regex.append("[[^/]&&[").append(negated ? "^" : "").append(body).append("]]");
+                return i + 1;
+            }
+            first = false;
+            if (c == '[' && glob.startsWith("[:", i)) {
+                int close = glob.indexOf(":]", i + 2);
+                String posixClass = close > 0 ? toPosixClass(glob.substring(i + 2, close)) : null;
+                if (posixClass != null) {
+                    body.append(posixClass);
+                    afterChar = false;
+                    i = close + 2;
+                    continue;
+                }
+            }
+            if (c == '-' && afterChar && i + 1 < glob.length() && glob.charAt(i + 1) != ']') {
+                body.append('-'); // Диапазон a-z
+                afterChar = false;
+                i++;
+                continue;
+            }
+            if (c == '\\' && i + 1 < glob.length()) {
+                c = glob.charAt(++i);
+            }
+            // Внутри класса экранируем всё, кроме букв и цифр (для них '\' имеет особый смысл)
+            if (!Character.isLetterOrDigit(c)) {
+                body.append('\\');
+            }
+            body.append(c);
+            afterChar = true;
+            i++;
+        }
+        // Незакрытая скобка - обычный символ '['
+        appendLiteral('[', regex);
+        return start + 1;
+    }
+
+    private static String toPosixClass(String name) {
+        switch (name) {
+            case "alnum": return "\\p{Alnum}";
+            case "alpha": return "\\p{Alpha}";
+            case "blank": return "\\p{Blank}";
+            case "cntrl": return "\\p{Cntrl}";
+            case "digit": return "\\p{Digit}";
+            case "graph": return "\\p{Graph}";
+            case "lower": return "\\p{Lower}";
+            case "print": return "\\p{Print}";
+            case "punct": return "\\p{Punct}";
+            case "space": return "\\p{Space}";
+            case "upper": return "\\p{Upper}";
+            case "xdigit": return "\\p{XDigit}";
+            default: return null;
+        }
+    }
+
+    private static void appendLiteral(char c, StringBuilder regex) {
+        if (REGEX_META_CHARS.indexOf(c) >= 0) {
+            regex.append('\\');
+        }
+        regex.append(c);
+    }
+}
@@ -0,0 +1,491 @@
+package com.example.auditor.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Набор glob-паттернов, скомпилированный один раз.
+ * <p>
+ * Паттерны переводятся в регулярные выражения по тем же правилам, что и
+ * {@code FileSystems.getDefault().getPathMatcher("glob:...")}, но большинство паттернов
+ * конфигурации не требует регулярных выражений. Поэтому при компиляции они раскладываются по корзинам:
+ * <ul>
+ *     <li>{@code **}{@code /*.ext} - по суффиксу имени файла;</li>
+ *     <li>{@code **}{@code /name} - по точному имени файла или окончанию пути;</li>
+ *     <li>{@code **}{@code /dir/**} - по имени (или цепочке имён) промежуточной директории;</li>
+ *     <li>{@code dir/**} - по префиксу пути;</li>
+ *     <li>паттерны без метасимволов - по точному совпадению пути.</li>
+ * </ul>
+ * Проверка корзины - это несколько обращений к HashMap, поэтому путь проверяется за время,
+ * не зависящее от числа таких паттернов. Оставшиеся паттерны с настоящими подстановками
+ * объединяются в регулярные выражения: паттерны вида {@code **}{@code /X}, где X не пересекает '/',
+ * проверяются только по имени файла, остальные - по всему пути.
+ * Экземпляр неизменяемый и потокобезопасный.
+ */
+public final class GlobSet {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GlobSet.class);
+
+    private static final String REGEX_META_CHARS = ".^$+{[]|()";
+    private static final String GLOB_META_CHARS = "\\*?[{";
+    private static final char EOL = 0;
+    private static final int NO_MATCH = Integer.MAX_VALUE;
+
+    private static final GlobSet EMPTY = new GlobSet(Collections.emptyList(), false);
+
+    private final List<String> patterns; // Только корректные паттерны, в исходном порядке
+    private final boolean caseInsensitive;
+
+    // Корзины: ключ -> наименьший индекс паттерна с этим ключом
+    private final Map<String, Integer> extensions = new HashMap<>(); // ".java" для "**/*.java"
+    private final Map<String, Integer> fileNames = new HashMap<>(); // "pom.xml" для "**/pom.xml"
+    private final Map<String, Integer> pathSuffixes = new LinkedHashMap<>(); // "/public/" для "**/public/"
+    private final Map<String, Integer> components = new HashMap<>(); // "build" для "**/build/**"
+    private final Map<String, Integer> nestedComponents = new LinkedHashMap<>(); // "/reports/tests/" для "**/reports/tests/**"
+    private final Map<String, Integer> prefixes = new HashMap<>(); // "docs" для "docs/**"
+    private final Map<String, Integer> exactPaths = new HashMap<>(); // "README.md"
+
+    // Паттерны с подстановками: одно выражение на группу, номер группы -> индекс паттерна
+    private Pattern fileNameWildcards; // "**/Icon?" -> "Icon[^/]" по имени файла
+    private int[] fileNameWildcardIndexes;
+    private Pattern wildcards;
+    private int[] wildcardIndexes;
+
+    // Все паттерны сразу - для путей с переводами строк, которые "**" (".*") не пропускает
+    private Pattern allPatterns;
+
+    private GlobSet(List<String> patterns, boolean caseInsensitive) {
+        this.patterns = patterns;
+        this.caseInsensitive = caseInsensitive;
+    }
+
+    /**
+     * Компилирует набор паттернов. Некорректные паттерны логируются и пропускаются.
+     *
+     * @param patterns Список glob-паттернов (разделитель '/' или '\').
+     * @return Скомпилированный набор.
+     */
+    public static GlobSet compile(List<String> patterns) {
+        if (patterns == null || patterns.isEmpty()) {
+            return EMPTY;
+        }
+        List<String> valid = new ArrayList<>(patterns.size());
+        List<String> regexes = new ArrayList<>(patterns.size());
+        for (String pattern : patterns) {
+            String normalizedPattern = pattern.replace('\\', '/');
+            try {
+                String regex = toRegex(normalizedPattern);
+                Pattern.compile(regex); // Проверяем отдельно, чтобы ошибка одного паттерна не ломала весь набор
+                regexes.add(regex);
+                valid.add(normalizedPattern);
+            } catch (PatternSyntaxException e) {
+                LOGGER.error("ERROR in glob pattern '{}': {}", normalizedPattern, e.getMessage());
+            }
+        }
+        if (valid.isEmpty()) {
+            return EMPTY;
+        }
+
+        GlobSet set = new GlobSet(Collections.unmodifiableList(valid), File.separatorChar == '\\');
+        List<String> fileNameRegexes = new ArrayList<>();
+        List<Integer> fileNameIndexes = new ArrayList<>();
+        List<String> pathRegexes = new ArrayList<>();
+        List<Integer> pathIndexes = new ArrayList<>();
+        for (int i = 0; i < valid.size(); i++) {
+            String pattern = valid.get(i);
+            if (set.addToBucket(pattern, i)) {
+                continue;
+            }
+            if (isFileNamePattern(pattern)) {
+                fileNameRegexes.add(toRegex(pattern.substring(3)));
+                fileNameIndexes.add(i);
+            } else {
+                pathRegexes.add(regexes.get(i));
+                pathIndexes.add(i);
+            }
+        }
+        if (!fileNameIndexes.isEmpty()) {
+            set.fileNameWildcards = set.compileAlternation(fileNameRegexes);
+            set.fileNameWildcardIndexes = fileNameIndexes.stream().mapToInt(Integer::intValue).toArray();
+        }
+        if (!pathIndexes.isEmpty()) {
+            set.wildcards = set.compileAlternation(pathRegexes);
+            set.wildcardIndexes = pathIndexes.stream().mapToInt(Integer::intValue).toArray();
+        }
+        set.allPatterns = Pattern.compile("(?:" + String.join(")|(?:", regexes) + ")", set.regexFlags());
+        LOGGER.debug("GlobSet: {} паттернов, по имени файла {}, по всему пути {}",
+                valid.size(), fileNameIndexes.size(), pathIndexes.size());
+        return set;
+    }
+
+    /**
+     * Возвращает пустой набор (ничего не совпадает).
+     */
+    public static GlobSet empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Проверяет, совпадает ли путь хотя бы с одним паттерном.
+     *
+     * @param relativePath Нормализованный относительный путь.
+     * @return true, если есть совпадение.
+     */
+    public boolean matches(String relativePath) {
+        return !patterns.isEmpty() && lookup(normalize(relativePath), true) != NO_MATCH;
+    }
+
+    /**
+     * Возвращает индекс первого (в порядке списка) совпавшего паттерна.
+     *
+     * @param relativePath Нормализованный относительный путь.
+     * @return Индекс в {@link #getPatterns()} или -1, если совпадений нет.
+     */
+    public int matchIndex(String relativePath) {
+        if (patterns.isEmpty()) {
+            return -1;
+        }
+        int index = lookup(normalize(relativePath), false);
+        return index != NO_MATCH ? index : -1;
+    }
+
+    /**
+     * Возвращает первый совпавший паттерн.
+     *
+     * @param relativePath Нормализованный относительный путь.
+     * @return Паттерн или null, если совпадений нет.
+     */
+    public String match(String relativePath) {
+        int index = matchIndex(relativePath);
+        return index >= 0 ? patterns.get(index) : null;
+    }
+
+    public List<String> getPatterns() {
+        return patterns;
+    }
+
+    public boolean isEmpty() {
+        return patterns.isEmpty();
+    }
+
+    // Раскладывает паттерн по корзинам; false - паттерн требует регулярного выражения
+    private boolean addToBucket(String pattern, int index) {
+        if (pattern.startsWith("**/")) {
+            String rest = pattern.substring(3);
+            // "**/*.ext" == ".*/[^/]*\.ext": путь содержит '/', имя файла оканчивается на ".ext"
+            if (rest.startsWith("*.") && isLiteral(rest.substring(2)) && rest.indexOf('/') < 0) {
+                extensions.putIfAbsent(key(rest.substring(1)), index);
+                return true;
+            }
+            // "**/dir/**" == ".*/dir/.*": путь содержит "/dir/"
+            if (rest.endsWith("/**") && rest.length() > 3 && isLiteral(rest.substring(0, rest.length() - 3))) {
+                String component = rest.substring(0, rest.length() - 3);
+                if (component.indexOf('/') < 0) {
+                    components.putIfAbsent(key(component), index);
+                } else {
+                    nestedComponents.putIfAbsent(key("/" + component + "/"), index);
+                }
+                return true;
+            }
+            // "**/name" == ".*/name": путь содержит '/', имя файла равно "name"
+            if (!rest.isEmpty() && isLiteral(rest)) {
+                if (rest.indexOf('/') < 0) {
+                    fileNames.putIfAbsent(key(rest), index);
+                } else {
+                    pathSuffixes.putIfAbsent(key("/" + rest), index);
+                }
+                return true;
+            }
+            return false;
+        }
+        // "dir/**" == "dir/.*": путь начинается с "dir/"
+        if (pattern.endsWith("/**") && pattern.length() > 3 && isLiteral(pattern.substring(0, pattern.length() - 3))) {
+            prefixes.putIfAbsent(key(pattern.substring(0, pattern.length() - 3)), index);
+            return true;
+        }
+        if (!pattern.isEmpty() && isLiteral(pattern)) {
+            exactPaths.putIfAbsent(key(pattern), index);
+            return true;
+        }
+        return false;
+    }
+
+    // Возвращает наименьший индекс совпавшего паттерна или NO_MATCH; anyMatch - достаточно любого совпадения
+    private int lookup(String path, boolean anyMatch) {
+        if (hasLineTerminator(path)) {
+            return lookupAll(path);
+        }
+        String key = key(path);
+        int best = min(NO_MATCH, exactPaths.get(key));
+
+        int lastSlash = key.lastIndexOf('/');
+        if (lastSlash >= 0) {
+            String fileName = key.substring(lastSlash + 1);
+            best = min(best, fileNames.get(fileName));
+            for (int dot = fileName.indexOf('.'); dot >= 0; dot = fileName.indexOf('.', dot + 1)) {
+                best = min(best, extensions.get(fileName.substring(dot)));
+            }
+            int firstSlash = key.indexOf('/');
+            for (int slash = firstSlash; slash >= 0; slash = key.indexOf('/', slash + 1)) {
+                best = min(best, prefixes.get(key.substring(0, slash)));
+                // Компонент между этим и следующим '/', т.е. с разделителями с обеих сторон
+                int nextSlash = key.indexOf('/', slash + 1);
+                if (nextSlash >= 0) {
+                    best = min(best, components.get(key.substring(slash + 1, nextSlash)));
+                }
+            }
+            for (Map.Entry<String, Integer> entry : nestedComponents.entrySet()) {
+                if (entry.getValue() < best && key.contains(entry.getKey())) {
+                    best = entry.getValue();
+                }
+            }
+            for (Map.Entry<String, Integer> entry : pathSuffixes.entrySet()) {
+                if (entry.getValue() < best && key.endsWith(entry.getKey())) {
+                    best = entry.getValue();
+                }
+            }
+            if (anyMatch && best != NO_MATCH) {
+                return best;
+            }
+            // "**/X" без '/' в X: ".*/" съедает всё до последнего '/', X проверяется по имени файла
+            best = Math.min(best, matchAlternation(fileNameWildcards, fileNameWildcardIndexes,
+                    path.substring(path.lastIndexOf('/') + 1), best));
+        }
+        if (anyMatch && best != NO_MATCH) {
+            return best;
+        }
+        return Math.min(best, matchAlternation(wildcards, wildcardIndexes, path, best));
+    }
+
+    // Индекс первого совпавшего паттерна из объединённого выражения; проверка пропускается,
+    // если все его паттерны идут в списке позже уже найденного
+    private static int matchAlternation(Pattern alternation, int[] indexes, String input, int best) {
+        if (alternation == null || indexes[0] >= best) {
+            return NO_MATCH;
+        }
+        Matcher matcher = alternation.matcher(input);
+        if (!matcher.matches()) {
+            return NO_MATCH;
+        }
+        // Альтернативы проверяются слева направо, поэтому сработавшая группа - первый подходящий паттерн
+        for (int group = 1; group <= indexes.length; group++) {
+            if (matcher.start(group) >= 0) {
+                return indexes[group - 1];
+            }
+        }
+        return NO_MATCH;
+    }
+
+    private Pattern compileAlternation(List<String> regexes) {
+        StringBuilder alternation = new StringBuilder();
+        for (String regex : regexes) {
+            alternation.append(alternation.length() == 0 ? "" : "|").append('(').append(regex).append(')');
+        }
+        return Pattern.compile(alternation.toString(), regexFlags());
+    }
+
+    // "**/X", где X не содержит '/' и "**": все подстановки X остаются в пределах имени файла
+    private static boolean isFileNamePattern(String pattern) {
+        if (!pattern.startsWith("**/")) {
+            return false;
+        }
+        String rest = pattern.substring(3);
+        return !rest.isEmpty() && rest.indexOf('/') < 0 && !rest.contains("**");
+    }
+
+    // Медленный путь: каждый паттерн отдельно, с точной семантикой регулярных выражений
+    private int lookupAll(String path) {
+        if (!allPatterns.matcher(path).matches()) {
+            return NO_MATCH;
+        }
+        for (int i = 0; i < patterns.size(); i++) {
+            if (Pattern.compile(toRegex(patterns.get(i)), regexFlags()).matcher(path).matches()) {
+                return i;
+            }
+        }
+        return NO_MATCH;
+    }
+
+    private static int min(int best, Integer candidate) {
+        return candidate != null && candidate < best ? candidate : best;
+    }
+
+    private String key(String value) {
+        return caseInsensitive ? value.toLowerCase(Locale.ROOT) : value;
+    }
+
+    // Литерал glob: без метасимволов, т.е. совпадает только сам с собой
+    private static boolean isLiteral(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (isGlobMeta(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Символы, которые "." в регулярном выражении не пропускает (без флага DOTALL)
+    private static boolean hasLineTerminator(String path) {
+        for (int i = 0; i < path.length(); i++) {
+            char c = path.charAt(i);
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String normalize(String path) {
+        return path.indexOf('\\') >= 0 ? path.replace('\\', '/') : path;
+    }
+
+    // На Windows PathMatcher сравнивает пути без учёта регистра - сохраняем это поведение
+    private int regexFlags() {
+        return caseInsensitive ? Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE : 0;
+    }
+
+    /**
+     * Переводит glob в регулярное выражение (без якорей ^ и $) по правилам
+     * glob-синтаксиса java.nio.file для разделителя '/'. Все группы в результате незахватывающие.
+     *
+     * @param glob Glob-паттерн.
+     * @return Регулярное выражение.
+     * @throws PatternSyntaxException Если паттерн некорректен.
+     */
+    static String toRegex(String glob) {
+        boolean inGroup = false;
+        StringBuilder regex = new StringBuilder();
+        int i = 0;
+        while (i < glob.length()) {
+            char c = glob.charAt(i++);
+            switch (c) {
+                case '\\':
+                    // Экранирование следующего символа
+                    if (i == glob.length()) {
+                        throw new PatternSyntaxException("No character to escape", glob, i - 1);
+                    }
+                    char escaped = glob.charAt(i);
+                    if (isGlobMeta(escaped) || isRegexMeta(escaped)) {
+                        regex.append('\\');
+                    }
+                    regex.append(escaped);
+                    i++;
+                    break;
+                case '[':
+                    // Символьный класс не совпадает с разделителем
+                    regex.append("[[^/]&&[");
+                    if (next(glob, i) == '^') {
+                        regex.append("\\^");
+                        i++;
+                    } else {
+                        if (next(glob, i) == '!') {
+                            regex.append('^');
+                            i++;
+                        }
+                        if (next(glob, i) == '-') {
+                            regex.append('-');
+                            i++;
+                        }
+                    }
+                    boolean hasRangeStart = false;
+                    char last = 0;
+                    while (i < glob.length()) {
+                        c = glob.charAt(i++);
+                        if (c == ']') {
+                            break;
+                        }
+                        if (c == '/') {
+                            throw new PatternSyntaxException("Explicit 'name separator' in class", glob, i - 1);
+                        }
+                        if (c == '\\' || c == '[' || c == '&' && next(glob, i) == '&') {
+                            regex.append('\\');
+                        }
+                        regex.append(c);
+                        if (c == '-') {
+                            if (!hasRangeStart) {
+                                throw new PatternSyntaxException("Invalid range", glob, i - 1);
+                            }
+                            if ((c = next(glob, i++)) == EOL || c == ']') {
+                                break;
+                            }
+                            if (c < last) {
+                                throw new PatternSyntaxException("Invalid range", glob, i - 3);
+                            }
+                            regex.append(c);
+                            hasRangeStart = false;
+                        } else {
+                            hasRangeStart = true;
+                            last = c;
+                        }
+                    }
+                    if (c != ']') {
+                        throw new PatternSyntaxException("Missing ']", glob, i - 1);
+                    }
+                    regex.append("]]");
+                    break;
+                case '{':
+                    if (inGroup) {
+                        throw new PatternSyntaxException("Cannot nest groups", glob, i - 1);
+                    }
+                    regex.append("(?:(?:");
+                    inGroup = true;
+                    break;
+                case '}':
+                    if (inGroup) {
+                        regex.append("))");
+                        inGroup = false;
+                    } else {
+                        regex.append('}');
+                    }
+                    break;
+                case ',':
+                    regex.append(inGroup ? ")|(?:" : ",");
+                    break;
+                case '*':
+                    if (next(glob, i) == '*') {
+                        regex.append(".*"); // ** пересекает границы директорий
+                        i++;
+                    } else {
+                        regex.append("[^/]*"); // * - в пределах одного имени
+                    }
+                    break;
+                case '?':
+                    regex.append("[^/]");
+                    break;
+                default:
+                    if (isRegexMeta(c)) {
+                        regex.append('\\');
+                    }
+                    regex.append(c);
+            }
+        }
+        if (inGroup) {
+            throw new PatternSyntaxException("Missing '}", glob, i - 1);
+        }
+        return regex.toString();
+    }
+
+    private static boolean isRegexMeta(char c) {
+        return REGEX_META_CHARS.indexOf(c) != -1;
+    }
+
+    private static boolean isGlobMeta(char c) {
+        return GLOB_META_CHARS.indexOf(c) != -1;
+    }
+
+    private static char next(String glob, int i) {
+        return i < glob.length() ? glob.charAt(i) : EOL;
+    }
+}
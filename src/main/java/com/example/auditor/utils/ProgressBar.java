@@ -2,6 +2,8 @@ package com.example.auditor.utils;
 
 public class ProgressBar {
 
+    private static volatile boolean enabled = true; // Вывод можно отключить (например, при параллельном аудите нескольких проектов)
+
     private final String taskName;
     private final int totalSteps;
     private int currentStep = 0;
@@ -15,10 +17,18 @@ public class ProgressBar {
         update(0);
     }
 
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        ProgressBar.enabled = enabled;
+    }
+
     public synchronized void update(int currentStep) {
         this.currentStep = currentStep;
 
-        if (finished) return;
+        if (finished || !enabled) return;
 
         long elapsed = System.currentTimeMillis() - startTime;
         double percent = (double) currentStep / totalSteps * 100;
@@ -39,6 +49,7 @@ public class ProgressBar {
         if (finished) return;
 
         finished = true;
+        if (!enabled) return;
         update(totalSteps);
 
         long elapsed = System.currentTimeMillis() - startTime;